@@ -2,10 +2,14 @@ package com.whereishumanity;
 
 import com.whereishumanity.biomes.BiomeRegistry;
 import com.whereishumanity.commands.GenerateCommand;
+import com.whereishumanity.commands.LayoutCommand;
+import com.whereishumanity.commands.MetricsCommand;
 import com.whereishumanity.commands.StructureCommandRegistry;
 import com.whereishumanity.config.ModConfig;
 import com.whereishumanity.entities.EntityRegistry;
+import com.whereishumanity.network.ModNetwork;
 import com.whereishumanity.worldgen.features.FeatureRegistry;
+import com.whereishumanity.worldgen.structures.StructureRegistry;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
@@ -66,6 +70,9 @@ public class WhereIsHumanity {
         // Enregistrer les features de génération du monde
         FeatureRegistry.register(eventBus);
         
+        // Enregistrer les structures de génération du monde (villes)
+        StructureRegistry.register(eventBus);
+        
         LOGGER.info("Systèmes du mod enregistrés");
     }
 
@@ -83,6 +90,9 @@ public class WhereIsHumanity {
             // Configuration des biomes dans le système de génération de monde
             // Cette partie sera développée ultérieurement
             
+            // Enregistrement des paquets réseau
+            ModNetwork.register();
+            
             LOGGER.info("Configuration terminée");
         });
     }
@@ -102,5 +112,11 @@ public class WhereIsHumanity {
         
         // Enregistrer la commande de génération de villages/villes
         GenerateCommand.register(event.getDispatcher());
+        
+        // Enregistrer la commande de métriques
+        MetricsCommand.register(event.getDispatcher());
+        
+        // Enregistrer la commande de diagnostic des plans urbains
+        LayoutCommand.register(event.getDispatcher());
     }
 }
@@ -1,6 +1,12 @@
 package com.whereishumanity.commands;
 
 import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.worldgen.HeightmapSnapshot;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -55,4 +61,28 @@ public class CommandUtils {
         }
         return structures;
     }
+
+    /**
+     * Remblaie le terrain sous l'emprise d'une structure jusqu'à son niveau de base
+     * Chaque colonne plus basse que la base est comblée, en un seul passage sur l'emprise.
+     * @param level Le niveau
+     * @param footprint Hauteurs du terrain sous l'emprise
+     * @param baseY Niveau du plancher de la structure
+     * @return Nombre de blocs posés
+     */
+    public static int buildFoundation(ServerLevel level, HeightmapSnapshot.Footprint footprint, int baseY) {
+        BlockState foundation = Blocks.COBBLESTONE.defaultBlockState();
+        BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        int placed = 0;
+
+        for (int x = footprint.getMinX(); x <= footprint.getMaxX(); x++) {
+            for (int z = footprint.getMinZ(); z <= footprint.getMaxZ(); z++) {
+                for (int y = footprint.getHeight(x, z); y < baseY; y++) {
+                    level.setBlock(pos.set(x, y, z), foundation, 2);
+                    placed++;
+                }
+            }
+        }
+        return placed;
+    }
 }
\ No newline at end of file
@@ -6,28 +6,45 @@ import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.config.ModConfig;
+import com.whereishumanity.worldgen.GenerationJob;
+import com.whereishumanity.worldgen.GenerationJobManager;
+import com.whereishumanity.worldgen.GenerationPlan;
+import com.whereishumanity.worldgen.HeightmapSnapshot;
+import com.whereishumanity.worldgen.LayoutExecutor;
+import com.whereishumanity.worldgen.PositionalRandom;
 import com.whereishumanity.worldgen.structures.StructureType;
+import com.whereishumanity.worldgen.structures.TemplateCache;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.core.BlockPos;
-import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.NbtIo;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.Mirror;
 import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructurePlaceSettings;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
-import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplateManager;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntPredicate;
 import java.util.stream.Stream;
 
 /**
@@ -35,6 +52,23 @@ import java.util.stream.Stream;
  */
 public class GenerateCommand {
 
+    // Taille d'une cellule de la grille (en blocs)
+    private static final int CELL_SIZE = 16;
+    
+    // Largeur des voies tracées sur les bords ouest et nord de chaque cellule (en blocs)
+    private static final int ROAD_LANE = 1;
+    
+    /**
+     * Bâtiment tiré pour une cellule, avant résolution des chevauchements
+     * @param x Cellule X du coin nord-ouest de l'emprise
+     * @param z Cellule Z du coin nord-ouest de l'emprise
+     * @param cellsX Nombre de cellules couvertes en X
+     * @param cellsZ Nombre de cellules couvertes en Z
+     * @param placement Placement correspondant
+     */
+    private record BuildingCandidate(int x, int z, int cellsX, int cellsZ, GenerationPlan.Placement placement) {
+    }
+    
     // Définition des types de zones urbaines
     public enum UrbanType {
         VILLAGE(8, 8, "residential", "commercial", "infrastructure"),
@@ -73,6 +107,24 @@ public class GenerateCommand {
             Commands.literal("wih")
                 .requires(source -> source.hasPermission(2)) // Niveau op 2 minimum
                 .then(Commands.literal("generate")
+                    .then(Commands.literal("status")
+                        .executes(GenerateCommand::showStatus)
+                    )
+                    .then(Commands.literal("pause")
+                        .then(Commands.argument("id", IntegerArgumentType.integer(1))
+                            .executes(context -> controlJob(context, "mise en pause", GenerationJobManager::pause))
+                        )
+                    )
+                    .then(Commands.literal("resume")
+                        .then(Commands.argument("id", IntegerArgumentType.integer(1))
+                            .executes(context -> controlJob(context, "reprise", GenerationJobManager::resume))
+                        )
+                    )
+                    .then(Commands.literal("cancel")
+                        .then(Commands.argument("id", IntegerArgumentType.integer(1))
+                            .executes(context -> controlJob(context, "annulée", GenerationJobManager::cancel))
+                        )
+                    )
                     .then(Commands.argument("type", StringArgumentType.word())
                         .suggests((context, builder) -> {
                             for (UrbanType type : UrbanType.values()) {
@@ -94,6 +146,46 @@ public class GenerateCommand {
         );
     }
 
+    /**
+     * Affiche les générations en cours
+     * @param context Contexte de la commande
+     * @return Nombre de générations en cours
+     */
+    private static int showStatus(CommandContext<CommandSourceStack> context) {
+        Collection<GenerationJob> jobs = GenerationJobManager.getJobs();
+        if (jobs.isEmpty()) {
+            context.getSource().sendSuccess(() -> Component.literal("Aucune génération en cours"), false);
+            return 0;
+        }
+        
+        for (GenerationJob job : jobs) {
+            context.getSource().sendSuccess(() -> Component.literal("#" + job.getId() + " " + job.getDescription() +
+                    " [" + job.getLevel().dimension().location() + "]: " + job.getProgressPercent() + " % (" +
+                    job.getCompletedSteps() + "/" + job.getTotalSteps() + " étapes" +
+                    (job.getFailedSteps() > 0 ? ", " + job.getFailedSteps() + " en échec" : "") + ")" +
+                    (job.getState() == GenerationJob.State.PAUSED ? " - en pause" :
+                            !job.isNextStepReady() ? " - en attente des templates ou des chunks" : "")), false);
+        }
+        return jobs.size();
+    }
+    
+    /**
+     * Applique une action (pause, reprise, annulation) à une génération
+     * @param context Contexte de la commande
+     * @param actionName Nom de l'action pour le message de confirmation
+     * @param action Action du gestionnaire
+     * @return Code de résultat
+     */
+    private static int controlJob(CommandContext<CommandSourceStack> context, String actionName, IntPredicate action) {
+        int id = IntegerArgumentType.getInteger(context, "id");
+        if (!action.test(id)) {
+            context.getSource().sendFailure(Component.literal("Aucune génération #" + id + " en cours"));
+            return 0;
+        }
+        context.getSource().sendSuccess(() -> Component.literal("Génération #" + id + " " + actionName), true);
+        return 1;
+    }
+    
     /**
      * Génère une zone urbaine autour de la position donnée
      * @param context Contexte de la commande
@@ -144,75 +236,233 @@ public class GenerateCommand {
                 break;
         }
         
-        try {
-            // Créer une grille pour la zone urbaine
-            // La grille est indexée par [x][z] et contient true si la cellule est occupée
-            boolean[][] grid = new boolean[urbanWidth][urbanLength];
-            
-            // Calculer la position de départ (coin nord-ouest de la zone urbaine)
-            BlockPos startPos = playerPos.offset(-urbanWidth / 2, 0, -urbanLength / 2);
-            
-            // Générer les routes principales
-            generateRoads(level, startPos, urbanWidth, urbanLength, globalRotation);
-            
-            // Charger les structures disponibles pour ce type de zone urbaine
-            Map<String, List<Path>> availableStructures = new HashMap<>();
-            for (String structureType : urbanType.getAllowedTypes()) {
-                List<Path> structures = loadAvailableStructures(structureType);
-                if (!structures.isEmpty()) {
-                    availableStructures.put(structureType, structures);
+        // Calculer la position de départ (coin nord-ouest de la zone urbaine)
+        BlockPos startPos = playerPos.offset(-urbanWidth * CELL_SIZE / 2, 0, -urbanLength * CELL_SIZE / 2);
+        if (ModConfig.COMMON.chunkAlignedCells.get()) {
+            // Caler la grille sur les chunks : chaque cellule et chaque voie tombent sur un seul chunk
+            startPos = new ChunkPos(startPos).getWorldPosition().atY(startPos.getY());
+        }
+        
+        // Le plan est calculé hors du thread serveur, puis appliqué par étapes sur le thread serveur
+        CommandSourceStack source = context.getSource();
+        BlockPos planStart = startPos;
+        long seed = PositionalRandom.mix(level.getSeed(), planStart.getX(), planStart.getZ());
+        HolderGetter<Block> blocks = level.holderLookup(Registries.BLOCK);
+        long planningStart = System.nanoTime();
+        CompletableFuture.supplyAsync(() -> planUrban(seed, urbanType, planStart, urbanWidth, urbanLength, globalRotation, blocks),
+                        LayoutExecutor.getPool())
+                .whenCompleteAsync((plan, error) -> {
+                    if (error != null) {
+                        WhereIsHumanity.LOGGER.error("Erreur lors de la planification de la zone urbaine", error);
+                        source.sendFailure(Component.literal("Erreur lors de la génération de la zone urbaine: " + error.getMessage()));
+                        return;
+                    }
+                    long planningMs = (System.nanoTime() - planningStart) / 1_000_000L;
+                    submitPlan(level, source, plan, urbanType, urbanWidth, urbanLength, rotation, planningMs);
+                }, level.getServer());
+        
+        source.sendSuccess(() -> Component.literal("Planification de la zone urbaine " + urbanType.name() + " " +
+                urbanWidth + "x" + urbanLength + "..."), false);
+        return 1;
+    }
+    
+    /**
+     * Calcule le plan d'une zone urbaine, sans toucher au monde (exécuté sur le pool de génération)
+     * Chaque cellule tire son type, son template et sa rotation d'un aléatoire positionnel dérivé de
+     * la graine : le plan ne dépend que de ses paramètres. Les bâtiments sont ensuite retenus du plus
+     * grand au plus petit, chacun réservant toutes les cellules couvertes par l'emprise réelle de son
+     * template, placée après les voies des bords ouest et nord de sa cellule. Les voies sont tracées en
+     * dernier, sauf sous les bâtiments qui recouvrent plusieurs cellules.
+     * @param seed Graine du plan
+     * @param urbanType Type de zone urbaine
+     * @param startPos Coin nord-ouest de la zone
+     * @param width Largeur de la zone urbaine (en cellules)
+     * @param length Longueur de la zone urbaine (en cellules)
+     * @param globalRotation Rotation globale des bâtiments
+     * @param blocks Registre des blocs du monde (lecture des templates)
+     * @return Le plan
+     */
+    private static GenerationPlan planUrban(long seed, UrbanType urbanType, BlockPos startPos, int width, int length,
+                                            Rotation globalRotation, HolderGetter<Block> blocks) {
+        // Charger les structures disponibles pour ce type de zone urbaine
+        Map<String, List<Path>> availableStructures = new HashMap<>();
+        for (String structureType : urbanType.getAllowedTypes()) {
+            List<Path> structures;
+            try {
+                structures = loadAvailableStructures(structureType);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!structures.isEmpty()) {
+                availableStructures.put(structureType, structures);
+            }
+        }
+        
+        // Tirer un bâtiment pour chaque cellule (type, template, rotation), indexé par x * length + z,
+        // et lancer en parallèle la lecture de chaque template distinct
+        Path[] drawnTemplates = new Path[width * length];
+        Rotation[] drawnRotations = new Rotation[width * length];
+        Map<Path, CompletableFuture<StructureTemplate>> templates = new HashMap<>();
+        RandomSource random = PositionalRandom.create();
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < length; z++) {
+                PositionalRandom.reseed(random, seed, PositionalRandom.PHASE_COMMAND_BUILDINGS, x, z);
+                
+                // Déterminer le type de structure à placer
+                String structureType = determineStructureType(x, z, width, length, urbanType, random);
+                
+                // Vérifier si des structures de ce type sont disponibles
+                if (!availableStructures.containsKey(structureType) || availableStructures.get(structureType).isEmpty()) {
+                    continue;
                 }
+                
+                // Choisir une structure aléatoire du type approprié
+                List<Path> structures = availableStructures.get(structureType);
+                Path structurePath = structures.get(random.nextInt(structures.size()));
+                
+                // Déterminer une rotation aléatoire pour cette structure (0, 90, 180, 270)
+                Rotation structureRotation = Rotation.values()[random.nextInt(4)];
+                
+                drawnTemplates[x * length + z] = structurePath;
+                drawnRotations[x * length + z] = combineRotations(globalRotation, structureRotation);
+                templates.computeIfAbsent(structurePath, path -> TemplateCache.prefetch(path, blocks));
             }
-            
-            // Remplir la grille avec des bâtiments
-            Random random = new Random();
-            for (int x = 0; x < urbanWidth; x++) {
-                for (int z = 0; z < urbanLength; z++) {
-                    // Sauter si cette cellule est déjà occupée
-                    if (grid[x][z]) continue;
-                    
-                    // Déterminer le type de structure à placer
-                    String structureType = determineStructureType(x, z, urbanWidth, urbanLength, urbanType);
-                    
-                    // Vérifier si des structures de ce type sont disponibles
-                    if (!availableStructures.containsKey(structureType) || availableStructures.get(structureType).isEmpty()) {
-                        continue;
-                    }
-                    
-                    // Choisir une structure aléatoire du type approprié
-                    List<Path> structures = availableStructures.get(structureType);
-                    Path structurePath = structures.get(random.nextInt(structures.size()));
-                    
-                    // Déterminer une rotation aléatoire pour cette structure (0, 90, 180, 270)
-                    Rotation structureRotation = Rotation.values()[random.nextInt(4)];
-                    
-                    // Calculer la position de la structure
-                    BlockPos structurePos = startPos.offset(x * 16, 0, z * 16);
-                    
-                    // Placer la structure
-                    boolean placed = placeStructure(level, structurePath, structurePos, 
-                            combineRotations(globalRotation, structureRotation));
-                    
-                    if (placed) {
-                        // Marquer cette cellule comme occupée
-                        grid[x][z] = true;
-                        
-                        // TODO: Pour les structures plus grandes, marquer plusieurs cellules
-                    }
+        }
+        
+        // Attendre les templates avant de calculer les emprises
+        CompletableFuture.allOf(templates.values().toArray(CompletableFuture[]::new)).join();
+        
+        // Emprise réelle de chaque bâtiment tiré
+        List<BuildingCandidate> candidates = new ArrayList<>();
+        for (int x = 0; x < width; x++) {
+            for (int z = 0; z < length; z++) {
+                Path structurePath = drawnTemplates[x * length + z];
+                if (structurePath == null) {
+                    continue;
+                }
+                StructureTemplate template = templates.get(structurePath).join();
+                if (template == null) {
+                    continue;
+                }
+                
+                // Caler l'emprise tournée juste après les voies de la cellule (la rotation se fait
+                // autour de l'origine du template, l'emprise peut donc s'étendre vers les X ou Z négatifs)
+                BlockPos cellPos = startPos.offset(x * CELL_SIZE + ROAD_LANE, 0, z * CELL_SIZE + ROAD_LANE);
+                Rotation placementRotation = drawnRotations[x * length + z];
+                StructurePlaceSettings settings = createPlaceSettings(placementRotation);
+                BoundingBox box = template.getBoundingBox(settings, cellPos);
+                BlockPos structurePos = cellPos.offset(cellPos.getX() - box.minX(), 0, cellPos.getZ() - box.minZ());
+                BoundingBox footprint = template.getBoundingBox(settings, structurePos);
+                
+                // L'emprise doit s'arrêter avant la voie de la cellule suivante
+                int cellsX = Mth.positiveCeilDiv(ROAD_LANE + footprint.getXSpan(), CELL_SIZE);
+                int cellsZ = Mth.positiveCeilDiv(ROAD_LANE + footprint.getZSpan(), CELL_SIZE);
+                if (x + cellsX > width || z + cellsZ > length) {
+                    continue; // Déborderait de la zone
                 }
+                candidates.add(new BuildingCandidate(x, z, cellsX, cellsZ,
+                        new GenerationPlan.Placement(structurePos, structurePath, placementRotation, footprint)));
             }
-            
-            context.getSource().sendSuccess(() -> Component.literal("Zone urbaine générée avec succès! Type: " + urbanType.name() + 
-                    ", Taille: " + urbanWidth + "x" + urbanLength + 
-                    (rotation > 0 ? ", Rotation: " + rotation + "°" : "")), true);
-            
-            return 1;
-        } catch (Exception e) {
-            WhereIsHumanity.LOGGER.error("Erreur lors de la génération de la zone urbaine", e);
-            context.getSource().sendFailure(Component.literal("Erreur lors de la génération de la zone urbaine: " + e.getMessage()));
-            e.printStackTrace();
-            return 0;
         }
+        
+        // Placer les plus grands bâtiments en premier, puis combler avec les plus petits ; chaque
+        // bâtiment réserve toutes les cellules de son emprise
+        candidates.sort(Comparator.comparingInt((BuildingCandidate candidate) -> candidate.cellsX() * candidate.cellsZ()).reversed()
+                .thenComparingInt(BuildingCandidate::x)
+                .thenComparingInt(BuildingCandidate::z));
+        
+        // Occupation des cellules, indexée par x * length + z
+        BitSet occupied = new BitSet(width * length);
+        BoundingBox[] footprints = new BoundingBox[width * length];
+        List<GenerationPlan.Placement> placements = new ArrayList<>();
+        for (BuildingCandidate candidate : candidates) {
+            if (!isFree(occupied, length, candidate)) {
+                continue;
+            }
+            for (int dx = 0; dx < candidate.cellsX(); dx++) {
+                int index = (candidate.x() + dx) * length + candidate.z();
+                occupied.set(index, index + candidate.cellsZ());
+                Arrays.fill(footprints, index, index + candidate.cellsZ(), candidate.placement().footprint());
+            }
+            placements.add(candidate.placement());
+        }
+        
+        // Voies sur les bords des cellules, une colonne de cellules par étape ; les voies intérieures
+        // d'un bâtiment à plusieurs cellules sont omises, aucun bloc n'est donc écrit deux fois
+        List<GenerationPlan.RoadRow> roadRows = new ArrayList<>();
+        for (int x = 0; x <= width; x++) {
+            GenerationPlan.RoadRow row = planRoadRow(startPos, x, width, length, footprints);
+            if (row != null) {
+                roadRows.add(row);
+            }
+        }
+        
+        return new GenerationPlan(seed, roadRows, placements);
+    }
+    
+    /**
+     * Vérifie si toutes les cellules couvertes par un bâtiment sont libres
+     * @param occupied Occupation des cellules
+     * @param length Longueur de la zone urbaine
+     * @param candidate Le bâtiment
+     */
+    private static boolean isFree(BitSet occupied, int length, BuildingCandidate candidate) {
+        for (int dx = 0; dx < candidate.cellsX(); dx++) {
+            int index = (candidate.x() + dx) * length + candidate.z();
+            int next = occupied.nextSetBit(index);
+            if (next >= 0 && next < index + candidate.cellsZ()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Lance l'application d'un plan (thread serveur)
+     * @param level Le niveau du serveur
+     * @param source Émetteur de la commande
+     * @param plan Le plan calculé
+     * @param urbanType Type de zone urbaine
+     * @param width Largeur de la zone urbaine
+     * @param length Longueur de la zone urbaine
+     * @param rotation Rotation globale en degrés
+     * @param planningMs Durée de la planification (en ms)
+     */
+    private static void submitPlan(ServerLevel level, CommandSourceStack source, GenerationPlan plan, UrbanType urbanType,
+                                   int width, int length, int rotation, long planningMs) {
+        // Hauteurs du terrain, copiées une fois par chunk pour les routes et les fondations
+        HeightmapSnapshot heights = new HeightmapSnapshot(level, Heightmap.Types.MOTION_BLOCKING_NO_LEAVES);
+        
+        // La génération est exécutée par étapes au fil des ticks
+        String description = "Génération " + urbanType.name() + " " + width + "x" + length;
+        GenerationJob job = new GenerationJob(description, level, source);
+        
+        // Routes, une rangée par étape (chunks de la rangée chargés en avance)
+        for (GenerationPlan.RoadRow row : plan.roadRows()) {
+            job.addStep(GenerationJob.Step.inChunks(row::getChunks, stepLevel -> applyRoadRow(stepLevel, heights, row)));
+        }
+        
+        // Bâtiments, une étape par bâtiment, exécutée une fois son template prêt et les chunks de son
+        // emprise chargés (les templates lus par la planification sont déjà en cache)
+        HolderGetter<Block> blocks = level.holderLookup(Registries.BLOCK);
+        Map<Path, CompletableFuture<StructureTemplate>> templates = new HashMap<>();
+        for (GenerationPlan.Placement placement : plan.placements()) {
+            CompletableFuture<StructureTemplate> template = templates.computeIfAbsent(placement.template(),
+                    path -> TemplateCache.prefetch(path, blocks));
+            job.addStep(GenerationJob.Step.after(template, GenerationJob.Step.inChunks(placement::getChunks, stepLevel -> {
+                if (!placeStructure(stepLevel, heights, template.join(), placement.pos(), placement.rotation())) {
+                    throw new IllegalStateException("Structure non placée: " + placement.template());
+                }
+            })));
+        }
+        
+        job.setCompletionMessage("Zone urbaine générée avec succès! Type: " + urbanType.name() + 
+                ", Taille: " + width + "x" + length + 
+                (rotation > 0 ? ", Rotation: " + rotation + "°" : ""));
+        int id = GenerationJobManager.submit(job);
+        
+        source.sendSuccess(() -> Component.literal("Génération #" + id + " lancée: " + job.getTotalSteps() +
+                " étapes, plan calculé en " + planningMs + " ms (/wih generate status pour suivre sa progression)"), true);
     }
     
     /**
@@ -222,9 +472,10 @@ public class GenerateCommand {
      * @param width Largeur totale de la grille
      * @param length Longueur totale de la grille
      * @param urbanType Type de zone urbaine
+     * @param random Aléatoire de la cellule
      * @return Type de structure à placer
      */
-    private static String determineStructureType(int x, int z, int width, int length, UrbanType urbanType) {
+    private static String determineStructureType(int x, int z, int width, int length, UrbanType urbanType, RandomSource random) {
         String[] allowedTypes = urbanType.getAllowedTypes();
         
         // Distance par rapport au centre (entre 0.0 et 1.0)
@@ -233,7 +484,6 @@ public class GenerateCommand {
         double distanceFromCenter = Math.sqrt(Math.pow((x - centerX) / centerX, 2) + Math.pow((z - centerZ) / centerZ, 2));
         
         // Probabilités en fonction de la distance du centre
-        Random random = new Random();
         double randomValue = random.nextDouble();
         
         if (urbanType == UrbanType.METROPOLIS) {
@@ -278,35 +528,93 @@ public class GenerateCommand {
     }
     
     /**
-     * Génère les routes principales de la zone urbaine
-     * @param level Le niveau du serveur
-     * @param startPos Position de départ
-     * @param width Largeur de la zone urbaine
-     * @param length Longueur de la zone urbaine
-     * @param rotation Rotation globale
+     * Trace les voies d'une colonne de cellules : la voie ouest de chaque cellule et la voie nord
+     * sur toute la largeur de la colonne (la dernière colonne ne porte que la voie est de la zone)
+     * @param startPos Coin nord-ouest de la zone
+     * @param x Colonne de cellules à tracer (0 à width)
+     * @param width Largeur de la zone urbaine (en cellules)
+     * @param length Longueur de la zone urbaine (en cellules)
+     * @param footprints Emprise du bâtiment retenu de chaque cellule (null si aucun), indexée par x * length + z
+     * @return La rangée, ou null si elle ne contient aucune voie
      */
-    private static void generateRoads(ServerLevel level, BlockPos startPos, int width, int length, Rotation rotation) {
-        // Générer les routes principales en forme de grille
-        for (int x = 0; x < width; x++) {
-            for (int z = 0; z < length; z++) {
-                // Si c'est le bord d'un block de cellule (tous les 16 blocs), placer une route
-                if (x % 16 == 0 || z % 16 == 0) {
-                    BlockPos roadPos = startPos.offset(x, 0, z);
-                    
-                    // Appliquer la rotation globale à la position
-                    roadPos = applyRotation(roadPos, startPos.offset(width / 2, 0, length / 2), rotation);
-                    
-                    // Placer un bloc de route (ici, nous utilisons la dalle d'asphalte/béton)
-                    level.setBlock(roadPos, Blocks.GRAY_CONCRETE.defaultBlockState(), 3);
-                    
-                    // Ajouter des variations pour les intersections
-                    if (x % 16 == 0 && z % 16 == 0) {
-                        // Intersection
-                        level.setBlock(roadPos, Blocks.BLACK_CONCRETE.defaultBlockState(), 3);
-                    }
+    private static GenerationPlan.RoadRow planRoadRow(BlockPos startPos, int x, int width, int length, BoundingBox[] footprints) {
+        List<GenerationPlan.RoadBlock> roadBlocks = new ArrayList<>();
+        int columns = x < width ? CELL_SIZE : ROAD_LANE;
+        
+        for (int dx = 0; dx < columns; dx++) {
+            int blockX = x * CELL_SIZE + dx;
+            for (int blockZ = 0; blockZ <= length * CELL_SIZE; blockZ++) {
+                boolean vertical = dx < ROAD_LANE;
+                boolean horizontal = blockZ % CELL_SIZE < ROAD_LANE;
+                if (!vertical && !horizontal) {
+                    continue;
+                }
+                
+                int worldX = startPos.getX() + blockX;
+                int worldZ = startPos.getZ() + blockZ;
+                if (isCoveredByBuilding(footprints, width, length, blockX, blockZ, worldX, worldZ)) {
+                    continue;
+                }
+                
+                // Les intersections sont marquées pour recevoir un bloc distinct
+                roadBlocks.add(new GenerationPlan.RoadBlock(worldX, worldZ, vertical && horizontal));
+            }
+        }
+        return roadBlocks.isEmpty() ? null : GenerationPlan.RoadRow.of(roadBlocks);
+    }
+    
+    /**
+     * Vérifie si un bloc de voie est recouvert par un bâtiment retenu (voie intérieure d'un bâtiment
+     * à plusieurs cellules) ; seules les cellules qui bordent la voie peuvent la recouvrir
+     * @param footprints Emprise du bâtiment retenu de chaque cellule
+     * @param blockX Position X du bloc dans la zone
+     * @param blockZ Position Z du bloc dans la zone
+     * @param worldX Position X du bloc dans le monde
+     * @param worldZ Position Z du bloc dans le monde
+     */
+    private static boolean isCoveredByBuilding(BoundingBox[] footprints, int width, int length,
+                                               int blockX, int blockZ, int worldX, int worldZ) {
+        int cellX = Math.min(blockX / CELL_SIZE, width - 1);
+        int cellZ = Math.min(blockZ / CELL_SIZE, length - 1);
+        for (int x = Math.max(cellX - 1, 0); x <= cellX; x++) {
+            for (int z = Math.max(cellZ - 1, 0); z <= cellZ; z++) {
+                BoundingBox footprint = footprints[x * length + z];
+                if (footprint != null && worldX >= footprint.minX() && worldX <= footprint.maxX()
+                        && worldZ >= footprint.minZ() && worldZ <= footprint.maxZ()) {
+                    return true;
                 }
             }
         }
+        return false;
+    }
+    
+    /**
+     * Pose une rangée de routes à la surface du terrain
+     * @param level Le niveau du serveur
+     * @param heights Hauteurs du terrain
+     * @param row La rangée planifiée
+     */
+    private static void applyRoadRow(ServerLevel level, HeightmapSnapshot heights, GenerationPlan.RoadRow row) {
+        BlockPos.MutableBlockPos roadPos = new BlockPos.MutableBlockPos();
+        for (GenerationPlan.RoadBlock block : row.blocks()) {
+            // Poser la route à la surface du terrain (en remplaçant le bloc de surface)
+            roadPos.set(block.x(), heights.getHeight(block.x(), block.z()) - 1, block.z());
+            
+            // Dalle de béton, plus sombre aux intersections
+            BlockState state = block.intersection() ? Blocks.BLACK_CONCRETE.defaultBlockState() : Blocks.GRAY_CONCRETE.defaultBlockState();
+            level.setBlock(roadPos, state, 3);
+        }
+    }
+    
+    /**
+     * Paramètres de placement d'un template
+     * @param rotation Rotation à appliquer
+     */
+    private static StructurePlaceSettings createPlaceSettings(Rotation rotation) {
+        return new StructurePlaceSettings()
+                .setRotation(rotation)
+                .setMirror(Mirror.NONE)
+                .setIgnoreEntities(false);
     }
     
     /**
@@ -326,85 +634,47 @@ public class GenerateCommand {
                  .forEach(structures::add);
         }
         
+        // Ordre stable : le tirage d'un template ne dépend pas de l'ordre du système de fichiers
+        Collections.sort(structures);
+        
         return structures;
     }
     
     /**
-     * Place une structure à partir d'un fichier NBT
+     * Place une structure à partir de son template
      * @param level Le niveau du serveur
-     * @param structurePath Chemin vers le fichier NBT
-     * @param pos Position où placer la structure
+     * @param heights Hauteurs du terrain
+     * @param template Le template décodé (null s'il n'a pas pu être lu)
+     * @param pos Position où placer la structure (la hauteur est déterminée par le terrain)
      * @param rotation Rotation à appliquer
      * @return true si la structure a été placée avec succès
      */
-    private static boolean placeStructure(ServerLevel level, Path structurePath, BlockPos pos, Rotation rotation) {
+    private static boolean placeStructure(ServerLevel level, HeightmapSnapshot heights, StructureTemplate template, BlockPos pos, Rotation rotation) {
         try {
             // Paramètres de placement
-            StructurePlaceSettings placeSettings = new StructurePlaceSettings()
-                    .setRotation(rotation)
-                    .setMirror(Mirror.NONE)
-                    .setIgnoreEntities(false);
-            
-            // Charger la structure depuis le fichier NBT
-            CompoundTag nbt = NbtIo.readCompressed(structurePath.toFile());
-            StructureTemplateManager templateManager = level.getStructureManager();
-            StructureTemplate template = templateManager.readStructure(nbt);
+            StructurePlaceSettings placeSettings = createPlaceSettings(rotation);
             
             if (template == null) {
-                WhereIsHumanity.LOGGER.error("Échec du chargement de la structure: {}", structurePath);
                 return false;
             }
             
+            // Niveler : plancher au niveau médian du terrain de l'emprise, colonnes plus basses remblayées
+            BoundingBox box = template.getBoundingBox(placeSettings, pos);
+            HeightmapSnapshot.Footprint footprint = heights.measure(box.minX(), box.minZ(), box.maxX(), box.maxZ());
+            int baseY = footprint.getMedian() - 1;
+            CommandUtils.buildFoundation(level, footprint, baseY);
+            
             // Placer la structure
-            template.placeInWorld(level, pos, pos, placeSettings, level.random, 2);
+            BlockPos origin = pos.atY(baseY);
+            template.placeInWorld(level, origin, origin, placeSettings, level.random, 2);
             
             return true;
         } catch (Exception e) {
-            WhereIsHumanity.LOGGER.error("Erreur lors du placement de la structure: {}", structurePath, e);
+            WhereIsHumanity.LOGGER.error("Erreur lors du placement de la structure à {}", pos, e);
             return false;
         }
     }
     
-    /**
-     * Applique une rotation à une position par rapport à un point central
-     * @param pos Position à transformer
-     * @param center Centre de rotation
-     * @param rotation Rotation à appliquer
-     * @return Position transformée
-     */
-    private static BlockPos applyRotation(BlockPos pos, BlockPos center, Rotation rotation) {
-        // Si pas de rotation, retourner la position d'origine
-        if (rotation == Rotation.NONE) {
-            return pos;
-        }
-        
-        // Calculer les coordonnées relatives au centre
-        int relX = pos.getX() - center.getX();
-        int relZ = pos.getZ() - center.getZ();
-        
-        // Appliquer la rotation
-        int newRelX, newRelZ;
-        switch (rotation) {
-            case CLOCKWISE_90:
-                newRelX = -relZ;
-                newRelZ = relX;
-                break;
-            case CLOCKWISE_180:
-                newRelX = -relX;
-                newRelZ = -relZ;
-                break;
-            case COUNTERCLOCKWISE_90:
-                newRelX = relZ;
-                newRelZ = -relX;
-                break;
-            default:
-                return pos;
-        }
-        
-        // Recalculer les coordonnées absolues
-        return new BlockPos(center.getX() + newRelX, pos.getY(), center.getZ() + newRelZ);
-    }
-    
     /**
      * Combine deux rotations
      * @param rotation1 Première rotation
@@ -0,0 +1,123 @@
+package com.whereishumanity.commands;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.worldgen.LayoutExecutor;
+import com.whereishumanity.worldgen.UrbanGridGenerator;
+import com.whereishumanity.worldgen.UrbanLayoutService;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Commande de diagnostic des plans urbains par région
+ */
+public class LayoutCommand {
+
+    // Taille de la grande grille utilisée pour vérifier le découpage par rangées
+    private static final int LARGE_GRID_SIZE = 128;
+
+    /**
+     * Enregistre la commande dans le dispatcher
+     * @param dispatcher Le dispatcher de commandes
+     */
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(
+            Commands.literal("wih")
+                .requires(source -> source.hasPermission(2)) // Niveau op 2 minimum
+                .then(Commands.literal("layout")
+                    .then(Commands.literal("benchmark")
+                        .executes(context -> benchmark(context, 4))
+                        .then(Commands.argument("regions", IntegerArgumentType.integer(1, 16))
+                            .executes(context -> benchmark(context, IntegerArgumentType.getInteger(context, "regions")))
+                        )
+                    )
+                )
+        );
+    }
+
+    /**
+     * Génère un carré de régions avec un seul thread puis avec tous les threads disponibles,
+     * vérifie que les plans obtenus sont identiques et affiche les temps
+     * @param context Contexte de la commande
+     * @param side Côté du carré de régions
+     * @return Code de résultat
+     */
+    private static int benchmark(CommandContext<CommandSourceStack> context, int side) {
+        CommandSourceStack source = context.getSource();
+        long worldSeed = source.getLevel().getSeed();
+        UrbanLayoutService service = UrbanLayoutService.forSeed(worldSeed);
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        source.sendSuccess(() -> Component.literal("Banc d'essai des plans urbains: " + side + "x" + side +
+                " régions, 1 thread puis " + threads + " threads (le serveur est bloqué pendant la mesure)"), true);
+
+        Result sequential = run(service, side, 1);
+        Result parallel = run(service, side, threads);
+
+        boolean regionsMatch = sequential.regionsFingerprint == parallel.regionsFingerprint;
+        boolean gridMatch = sequential.gridFingerprint == parallel.gridFingerprint;
+        double speedup = parallel.regionsNanos > 0 ? (double) sequential.regionsNanos / parallel.regionsNanos : 0;
+
+        source.sendSuccess(() -> Component.literal(String.format("Régions: %.1f ms (1 thread) / %.1f ms (%d threads), accélération x%.2f",
+                sequential.regionsNanos / 1_000_000.0, parallel.regionsNanos / 1_000_000.0, threads, speedup)), false);
+        source.sendSuccess(() -> Component.literal(String.format("Grille %dx%d par rangées: %.1f ms (1 thread) / %.1f ms (%d threads)",
+                LARGE_GRID_SIZE, LARGE_GRID_SIZE, sequential.gridNanos / 1_000_000.0, parallel.gridNanos / 1_000_000.0, threads)), false);
+
+        if (regionsMatch && gridMatch) {
+            source.sendSuccess(() -> Component.literal("Déterminisme: OK (empreinte " +
+                    Long.toHexString(parallel.regionsFingerprint) + ")"), false);
+            return 1;
+        }
+
+        WhereIsHumanity.LOGGER.error("Plans urbains non déterministes: régions {} / {}, grille {} / {}",
+                Long.toHexString(sequential.regionsFingerprint), Long.toHexString(parallel.regionsFingerprint),
+                Long.toHexString(sequential.gridFingerprint), Long.toHexString(parallel.gridFingerprint));
+        source.sendFailure(Component.literal("Déterminisme: ÉCHEC, les plans diffèrent selon le nombre de threads"));
+        return 0;
+    }
+
+    /**
+     * Génère les régions et la grande grille sur un pool dédié
+     */
+    private static Result run(UrbanLayoutService service, int side, int threads) {
+        ForkJoinPool pool = LayoutExecutor.createPool(threads);
+        try {
+            Result result = new Result();
+
+            long start = System.nanoTime();
+            long[] fingerprints = pool.submit(() -> IntStream.range(0, side * side).parallel()
+                    .mapToLong(i -> service.generateRegion(i % side, i / side).fingerprint())
+                    .toArray()).join();
+            result.regionsNanos = System.nanoTime() - start;
+
+            // Combiner dans l'ordre des régions pour que l'empreinte ne dépende pas de l'ordre d'exécution
+            long fingerprint = 0;
+            for (long regionFingerprint : fingerprints) {
+                fingerprint = fingerprint * 31 + regionFingerprint;
+            }
+            result.regionsFingerprint = fingerprint;
+
+            start = System.nanoTime();
+            result.gridFingerprint = pool.submit(() -> new UrbanGridGenerator(UrbanGridGenerator.BiomeType.METROPOLIS,
+                    LARGE_GRID_SIZE, LARGE_GRID_SIZE, service.getWorldSeed()).fingerprint()).join();
+            result.gridNanos = System.nanoTime() - start;
+
+            return result;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class Result {
+        long regionsNanos;
+        long regionsFingerprint;
+        long gridNanos;
+        long gridFingerprint;
+    }
+}
@@ -0,0 +1,94 @@
+package com.whereishumanity.commands;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import com.whereishumanity.entities.ZombieClusterSystem;
+import com.whereishumanity.entities.ai.CityRoutePlanner;
+import com.whereishumanity.world.PerformanceGovernor;
+import com.whereishumanity.worldgen.UrbanLayoutService;
+import com.whereishumanity.worldgen.structures.TemplateCache;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.util.Map;
+
+/**
+ * Commande pour afficher les métriques internes du mod
+ */
+public class MetricsCommand {
+
+    /**
+     * Enregistre la commande dans le dispatcher
+     * @param dispatcher Le dispatcher de commandes
+     */
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(
+            Commands.literal("wih")
+                .requires(source -> source.hasPermission(2)) // Niveau op 2 minimum
+                .then(Commands.literal("metrics")
+                    .executes(MetricsCommand::showMetrics)
+                )
+        );
+    }
+
+    /**
+     * Affiche les métriques du mod
+     * @param context Contexte de la commande
+     * @return Code de résultat
+     */
+    private static int showMetrics(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+
+        // État du gouverneur de charge
+        source.sendSuccess(() -> Component.literal("Gouverneur: " + String.format("%.1f", PerformanceGovernor.getAverageMspt()) +
+                " ms/tick, niveau " + PerformanceGovernor.getLevel() + "/" + PerformanceGovernor.MAX_LEVEL +
+                " (rayons x" + PerformanceGovernor.getRadiusScale() +
+                ", budget chemins " + PerformanceGovernor.getPathBudget() + "/tick)"), false);
+
+        // Clusters de zombies par dimension
+        Map<ResourceKey<Level>, ZombieClusterSystem.LevelClusters> clusters = ZombieClusterSystem.getAllClusters();
+        if (clusters.isEmpty()) {
+            source.sendSuccess(() -> Component.literal("Clusters de zombies: aucun zombie intelligent chargé"), false);
+        }
+
+        for (Map.Entry<ResourceKey<Level>, ZombieClusterSystem.LevelClusters> entry : clusters.entrySet()) {
+            ZombieClusterSystem.LevelClusters levelClusters = entry.getValue();
+            int zombies = levelClusters.getZombieCount();
+            int count = levelClusters.getClusterCount();
+            String average = count > 0 ? String.format("%.1f", (double) zombies / count) : "0";
+
+            source.sendSuccess(() -> Component.literal("Clusters de zombies [" + entry.getKey().location() + "]: " +
+                    zombies + " zombies, " + count + " clusters, taille max " +
+                    levelClusters.getLargestClusterSize() + ", taille moyenne " + average), false);
+        }
+
+        // Cache et fichiers des plans urbains par dimension
+        for (Map.Entry<ResourceKey<Level>, UrbanLayoutService> entry : UrbanLayoutService.getLevelServices().entrySet()) {
+            UrbanLayoutService layouts = entry.getValue();
+            source.sendSuccess(() -> Component.literal("Plans urbains [" + entry.getKey().location() + "]: " +
+                    layouts.getCachedRegionCount() + " régions en cache, " + layouts.getHits() + " succès, " +
+                    layouts.getMisses() + " échecs, " + layouts.getStoreReads() + " lectures directes, " +
+                    layouts.getStore().getOpenFileCount() + " fichiers ouverts"), false);
+        }
+
+        // Itinéraires urbains des zombies par dimension
+        for (Map.Entry<ResourceKey<Level>, CityRoutePlanner.LevelRoutes> entry : CityRoutePlanner.getLevelRoutes().entrySet()) {
+            CityRoutePlanner.LevelRoutes routes = entry.getValue();
+            source.sendSuccess(() -> Component.literal("Itinéraires urbains [" + entry.getKey().location() + "]: " +
+                    routes.getCachedRouteCount() + " en cache, " + routes.getHits() + " succès, " +
+                    routes.getMisses() + " échecs, " + routes.getPendingSearchCount() + " recherches en attente, " +
+                    routes.getBlockedSegmentCount() + " segments bloqués"), false);
+        }
+
+        // Cache des templates de structures
+        source.sendSuccess(() -> Component.literal("Templates: " + TemplateCache.getCachedCount() + " en cache (" +
+                String.format("%.1f", TemplateCache.getCachedBytes() / (1024.0 * 1024.0)) + "/" +
+                TemplateCache.getMaxBytes() / (1024 * 1024) + " Mo), " + TemplateCache.getHits() + " succès, " +
+                TemplateCache.getMisses() + " échecs, " + TemplateCache.getEvictions() + " évictions"), false);
+
+        return 1;
+    }
+}
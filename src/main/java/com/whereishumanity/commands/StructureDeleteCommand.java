@@ -5,6 +5,7 @@ import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.whereishumanity.WhereIsHumanity;
 import com.whereishumanity.commands.CommandUtils;
+import com.whereishumanity.worldgen.structures.CityTemplates;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.network.chat.Component;
@@ -86,6 +87,10 @@ public class StructureDeleteCommand {
                 metadataDeleted = true;
             }
             
+            if (structureDeleted) {
+                CityTemplates.clear();
+            }
+            
             if (structureDeleted || metadataDeleted) {
                 context.getSource().sendSuccess(() -> Component.literal("Structure '" + name + "' supprimée avec succès."), true);
                 return 1;
@@ -6,20 +6,24 @@ import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.whereishumanity.WhereIsHumanity;
 import com.whereishumanity.commands.CommandUtils;
+import com.whereishumanity.worldgen.GenerationJob;
+import com.whereishumanity.worldgen.GenerationJobManager;
+import com.whereishumanity.worldgen.HeightmapSnapshot;
+import com.whereishumanity.worldgen.structures.TemplateCache;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.core.BlockPos;
-import net.minecraft.nbt.CompoundTag;
-import net.minecraft.nbt.NbtIo;
+import net.minecraft.core.registries.Registries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.block.Mirror;
 import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructurePlaceSettings;
 import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
-import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplateManager;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -158,14 +162,8 @@ public class StructurePlaceCommand {
                     .setMirror(Mirror.NONE)
                     .setIgnoreEntities(false);
             
-            // Charger directement le template à partir du fichier NBT
-            CompoundTag nbt = NbtIo.readCompressed(structurePath.toFile());
-            
-            WhereIsHumanity.LOGGER.info("Chargement de la structure: {} (taille NBT: {})", name, nbt.toString().length());
-            
-            // Approche plus directe pour charger la structure
-            StructureTemplateManager templateManager = level.getStructureManager();
-            StructureTemplate template = templateManager.readStructure(nbt);
+            // Charger le template (relu depuis le disque seulement si le fichier a changé)
+            StructureTemplate template = TemplateCache.get(structurePath, level.holderLookup(Registries.BLOCK));
             
             if (template == null) {
                 context.getSource().sendFailure(Component.literal("Échec du chargement de la structure. Template null."));
@@ -175,17 +173,32 @@ public class StructurePlaceCommand {
             WhereIsHumanity.LOGGER.info("Structure chargée: {} (taille: {}x{}x{})", 
                     name, template.getSize().getX(), template.getSize().getY(), template.getSize().getZ());
             
-            // Placer la structure
-            BlockPos placementPos = playerPos.below(); // Placer légèrement plus bas pour éviter les problèmes de flottement
-            template.placeInWorld(level, placementPos, placementPos, placeSettings, level.random, 2);
-            
-            // Afficher les logs de débogage
-            WhereIsHumanity.LOGGER.info("Structure placée à: {}, {}, {}", 
-                    placementPos.getX(), placementPos.getY(), placementPos.getZ());
-            
-            context.getSource().sendSuccess(() -> Component.literal("Structure '" + name + "' placée avec succès à la position " + 
-                    placementPos.getX() + ", " + placementPos.getY() + ", " + placementPos.getZ() + 
-                    (rotationDegrees > 0 ? " avec rotation de " + rotationDegrees + "°" : "") + "."), true);
+            // Le placement est confié au gestionnaire de générations : il n'a lieu qu'une fois tous les
+            // chunks de l'emprise chargés, sans chargement synchrone sur le thread serveur
+            BoundingBox box = template.getBoundingBox(placeSettings, playerPos);
+            GenerationJob job = new GenerationJob("Placement de " + type + "/" + name, level, context.getSource());
+            job.addStep(GenerationJob.Step.inChunks(
+                    () -> GenerationJob.chunksCovering(box.minX(), box.minZ(), box.maxX(), box.maxZ()),
+                    stepLevel -> {
+                        // Niveler : plancher au niveau médian du terrain de l'emprise, colonnes plus basses remblayées
+                        HeightmapSnapshot heights = new HeightmapSnapshot(stepLevel, Heightmap.Types.MOTION_BLOCKING_NO_LEAVES);
+                        HeightmapSnapshot.Footprint footprint = heights.measure(box.minX(), box.minZ(), box.maxX(), box.maxZ());
+                        int baseY = footprint.getMedian() - 1;
+                        CommandUtils.buildFoundation(stepLevel, footprint, baseY);
+                        
+                        // Placer la structure
+                        BlockPos placementPos = playerPos.atY(baseY);
+                        template.placeInWorld(stepLevel, placementPos, placementPos, placeSettings, stepLevel.random, 2);
+                        
+                        // Afficher les logs de débogage
+                        WhereIsHumanity.LOGGER.info("Structure placée à: {}, {}, {}", 
+                                placementPos.getX(), placementPos.getY(), placementPos.getZ());
+                        
+                        job.setCompletionMessage("Structure '" + name + "' placée avec succès à la position " + 
+                                placementPos.getX() + ", " + placementPos.getY() + ", " + placementPos.getZ() + 
+                                (rotationDegrees > 0 ? " avec rotation de " + rotationDegrees + "°" : "") + ".");
+                    }));
+            GenerationJobManager.submit(job);
             
             return 1;
         } catch (Exception e) {
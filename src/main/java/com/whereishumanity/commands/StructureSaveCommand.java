@@ -5,6 +5,7 @@ import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.whereishumanity.WhereIsHumanity;
 import com.whereishumanity.commands.StructureRecordCommand.RecordingSession;
+import com.whereishumanity.worldgen.structures.CityTemplates;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.core.BlockPos;
@@ -128,6 +129,7 @@ public class StructureSaveCommand {
             Path structurePath = structuresDir.resolve(session.structureName + ".nbt");
             CompoundTag nbt = template.save(new CompoundTag());
             NbtIo.writeCompressed(nbt, structurePath.toFile());
+            CityTemplates.clear();
             
             // Enregistrer les métadonnées (entrée, etc.)
             Path metadataPath = structuresDir.resolve(session.structureName + ".json");
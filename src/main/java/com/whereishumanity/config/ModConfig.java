@@ -19,12 +19,15 @@ public class ModConfig {
         public final ForgeConfigSpec.DoubleValue metropolisSpawnWeight;
         public final ForgeConfigSpec.DoubleValue citySpawnWeight;
         public final ForgeConfigSpec.DoubleValue villageSpawnWeight;
+        public final ForgeConfigSpec.BooleanValue chunkAlignedCells;
         
         // Configuration des zombies
         public final ForgeConfigSpec.BooleanValue zombiesCanBreakGlass;
         public final ForgeConfigSpec.BooleanValue zombiesCanBreakWoodenDoors;
         public final ForgeConfigSpec.BooleanValue brutesCanBreakIronDoors;
         public final ForgeConfigSpec.IntValue zombieAlertRadius;
+        public final ForgeConfigSpec.BooleanValue cityRoutingEnabled;
+        public final ForgeConfigSpec.IntValue cityRoutingMinDistance;
         
         // Configuration du système sonore
         public final ForgeConfigSpec.IntValue lowSoundDetectionRadius;
@@ -33,6 +36,14 @@ public class ModConfig {
         
         // Configuration de la difficulté
         public final ForgeConfigSpec.IntValue difficultyProgressionRate; // en jours de jeu
+        
+        // Configuration des performances
+        public final ForgeConfigSpec.BooleanValue adaptiveGovernorEnabled;
+        public final ForgeConfigSpec.DoubleValue governorHighMspt;
+        public final ForgeConfigSpec.DoubleValue governorLowMspt;
+        public final ForgeConfigSpec.IntValue generationTickBudgetMs;
+        public final ForgeConfigSpec.IntValue generationPreloadChunks;
+        public final ForgeConfigSpec.IntValue templateCacheSizeMb;
 
         public Common(ForgeConfigSpec.Builder builder) {
             builder.comment("Configuration de Where is Humanity")
@@ -53,6 +64,10 @@ public class ModConfig {
                     .comment("Poids d'apparition des villages")
                     .defineInRange("villageSpawnWeight", 15.0, 0.0, 100.0);
             
+            chunkAlignedCells = builder
+                    .comment("Aligne les cellules urbaines et leurs routes sur les chunks (chaque chunk ne reçoit que ses propres routes, tirées du plan de la région). Les bâtiments générés avec le monde exigent cet alignement")
+                    .define("chunkAlignedCells", true);
+            
             builder.pop();
             
             builder.comment("Configuration des zombies")
@@ -74,6 +89,14 @@ public class ModConfig {
                     .comment("Rayon (en blocs) dans lequel un zombie peut alerter d'autres zombies")
                     .defineInRange("zombieAlertRadius", 32, 8, 128);
             
+            cityRoutingEnabled = builder
+                    .comment("Planifier les longs déplacements des zombies sur le réseau routier des villes")
+                    .define("cityRoutingEnabled", true);
+            
+            cityRoutingMinDistance = builder
+                    .comment("Distance (en blocs) à partir de laquelle un déplacement passe par le réseau routier")
+                    .defineInRange("cityRoutingMinDistance", 48, 16, 512);
+            
             builder.pop();
             
             builder.comment("Configuration du système sonore")
@@ -100,6 +123,35 @@ public class ModConfig {
                     .comment("Nombre de jours de jeu avant que la difficulté n'augmente d'un niveau")
                     .defineInRange("difficultyProgressionRate", 3, 1, 30);
             
+            builder.pop();
+            
+            builder.comment("Configuration des performances")
+                   .push("performance");
+            
+            adaptiveGovernorEnabled = builder
+                    .comment("Réduire automatiquement le travail des zombies (rayons, IA, spawns) quand le serveur ralentit")
+                    .define("adaptiveGovernorEnabled", true);
+            
+            governorHighMspt = builder
+                    .comment("Temps moyen par tick (en ms) au-delà duquel le gouverneur réduit la charge d'un cran")
+                    .defineInRange("governorHighMspt", 45.0, 10.0, 1000.0);
+            
+            governorLowMspt = builder
+                    .comment("Temps moyen par tick (en ms) en dessous duquel le gouverneur restaure les réglages d'un cran (doit être inférieur à governorHighMspt)")
+                    .defineInRange("governorLowMspt", 35.0, 5.0, 1000.0);
+            
+            generationTickBudgetMs = builder
+                    .comment("Temps maximal (en ms) consacré à chaque tick aux générations lancées par /wih generate, partagé entre toutes les générations en cours")
+                    .defineInRange("generationTickBudgetMs", 10, 1, 45);
+            
+            generationPreloadChunks = builder
+                    .comment("Nombre maximal de chunks chargés en avance pour les prochaines étapes de chaque génération lancée par /wih generate")
+                    .defineInRange("generationPreloadChunks", 64, 1, 1024);
+            
+            templateCacheSizeMb = builder
+                    .comment("Mémoire maximale (estimée, en Mo) des templates de structures gardés en cache")
+                    .defineInRange("templateCacheSizeMb", 64, 4, 1024);
+            
             builder.pop();
             builder.pop(); // general
         }
@@ -1,5 +1,7 @@
 package com.whereishumanity.entities;
 
+import com.whereishumanity.entities.ai.GoalProfile;
+import com.whereishumanity.entities.ai.ZombieGoalProfiles;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.ai.attributes.AttributeSupplier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
@@ -14,6 +16,11 @@ public class BruteZombieEntity extends SmartZombieEntity {
         super(type, level);
     }
     
+    @Override
+    protected GoalProfile getGoalProfile() {
+        return ZombieGoalProfiles.BRUTE;
+    }
+    
     /**
      * Définit les attributs pour ce type de zombie
      */
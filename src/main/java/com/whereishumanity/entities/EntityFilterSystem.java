@@ -1,8 +1,10 @@
 package com.whereishumanity.entities;
 
 import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.world.PerformanceGovernor;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.MobSpawnType;
 import net.minecraft.world.entity.animal.Animal;
 import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.entity.monster.Zombie;
@@ -85,6 +87,13 @@ public class EntityFilterSystem {
                 !(entity instanceof Zombie || entity instanceof ZombieVillager || entity instanceof Drowned || entity instanceof Husk || entity instanceof ZombifiedPiglin)) {
             event.setResult(Event.Result.DENY);
             WhereIsHumanity.LOGGER.debug("Spawn d'entité empêché: {}", entity.getType().getDescriptionId());
+            return;
+        }
+        
+        // Réduire la taille des groupes de zombies intelligents quand le serveur est surchargé
+        if (entity instanceof SmartZombieEntity && event.getSpawnType() == MobSpawnType.NATURAL
+                && event.getLevel().getRandom().nextDouble() >= PerformanceGovernor.getSpawnScale()) {
+            event.setSpawnCancelled(true);
         }
     }
 }
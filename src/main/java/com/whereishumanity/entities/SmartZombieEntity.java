@@ -2,26 +2,23 @@ package com.whereishumanity.entities;
 
 import com.whereishumanity.WhereIsHumanity;
 import com.whereishumanity.config.ModConfig;
-import com.whereishumanity.entities.ai.ZombieInvestigateSoundGoal;
+import com.whereishumanity.entities.ai.GoalProfile;
+import com.whereishumanity.entities.ai.ZombieGoalProfiles;
+import com.whereishumanity.network.AlertStateSync;
 import com.whereishumanity.sound.SoundDetectionSystem;
+import com.whereishumanity.world.PerformanceGovernor;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
-import net.minecraft.network.syncher.EntityDataAccessor;
-import net.minecraft.network.syncher.EntityDataSerializers;
-import net.minecraft.network.syncher.SynchedEntityData;
 import net.minecraft.sounds.SoundEvent;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.ai.attributes.AttributeInstance;
+import net.minecraft.world.entity.ai.attributes.AttributeModifier;
 import net.minecraft.world.entity.ai.attributes.AttributeSupplier;
 import net.minecraft.world.entity.ai.attributes.Attributes;
-import net.minecraft.world.entity.ai.goal.LookAtPlayerGoal;
-import net.minecraft.world.entity.ai.goal.MeleeAttackGoal;
-import net.minecraft.world.entity.ai.goal.MoveThroughVillageGoal;
-import net.minecraft.world.entity.ai.goal.RandomLookAroundGoal;
-import net.minecraft.world.entity.ai.goal.RandomStrollGoal;
-import net.minecraft.world.entity.ai.goal.target.HurtByTargetGoal;
 import net.minecraft.world.entity.monster.Zombie;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
@@ -29,6 +26,8 @@ import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.Vec3;
 
 import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Classe de base pour les zombies intelligents
@@ -36,9 +35,20 @@ import java.util.List;
  */
 public class SmartZombieEntity extends Zombie {
     
-    // Paramètres synchronisés
-    private static final EntityDataAccessor<Boolean> IS_ALERTED = SynchedEntityData.defineId(
-            SmartZombieEntity.class, EntityDataSerializers.BOOLEAN);
+    // Portée (en blocs) dans laquelle un joueur doit se trouver pour que l'IA complète s'exécute
+    private static final double FULL_AI_RANGE = 48.0;
+    
+    // Multiplicateur de l'intervalle de recherche de cibles pour les zombies éloignés des joueurs
+    private static final int FAR_AI_INTERVAL_MULTIPLIER = 4;
+    
+    // Bonus de vitesse appliqué pendant l'alerte (modificateur transitoire, non sauvegardé)
+    private static final UUID ALERT_SPEED_MODIFIER_ID = UUID.fromString("5c0f6a2e-3b1d-4e8a-9f47-2d6b8c1e7a93");
+    private static final AttributeModifier ALERT_SPEED_MODIFIER = new AttributeModifier(
+            ALERT_SPEED_MODIFIER_ID, "Alert speed boost", 0.03D, AttributeModifier.Operation.ADDITION);
+    
+    // État d'alerte (synchronisé par lots via AlertStateSync)
+    private boolean alerted = false;
+    private boolean syncedAlerted = false;
     
     // Position du dernier son détecté
     private BlockPos targetSoundPos = null;
@@ -46,6 +56,12 @@ public class SmartZombieEntity extends Zombie {
     private int alertCooldown = 0;
     private int forgetTargetTimer = 0;
     
+    // Joueur dont la piste olfactive peut être suivie (source du son suivi ou cible perdue)
+    private UUID trackedPlayer = null;
+    
+    // État du zombie dans les clusters d'alerte (géré par ZombieClusterSystem, null si aucun)
+    ZombieClusterSystem.Node clusterNode = null;
+    
     /**
      * Constructeur principal
      * @param type Type d'entité
@@ -72,27 +88,18 @@ public class SmartZombieEntity extends Zombie {
     }
     
     @Override
-    protected void defineSynchedData() {
-        super.defineSynchedData();
-        this.entityData.define(IS_ALERTED, false);
+    protected void registerGoals() {
+        // Les goals dépendent de la variante (voir ZombieGoalProfiles)
+        getGoalProfile().apply(this, this.goalSelector, this.targetSelector);
     }
     
-    @Override
-    protected void registerGoals() {
-        // Objectifs de base du zombie
-        this.goalSelector.addGoal(1, new MeleeAttackGoal(this, 1.0D, true));
-        this.goalSelector.addGoal(2, new ZombieInvestigateSoundGoal(this, 1.0D));
-        this.goalSelector.addGoal(3, new MoveThroughVillageGoal(this, 1.0D, false, 4, () -> false));
-        this.goalSelector.addGoal(4, new RandomStrollGoal(this, 0.8D));
-        this.goalSelector.addGoal(5, new LookAtPlayerGoal(this, Player.class, 8.0F));
-        this.goalSelector.addGoal(6, new RandomLookAroundGoal(this));
-        
-        // Objectifs de ciblage - aucun ciblage visuel automatique
-        this.targetSelector.addGoal(1, new HurtByTargetGoal(this));
-        
-        // Suppression du ciblage visuel automatique NearestAttackableTargetGoal
-        // Les zombies ne peuvent plus voir les joueurs automatiquement
-        // Ils doivent les entendre ou les sentir
+    /**
+     * Retourne le profil de goals de cette variante
+     * Appelé depuis le constructeur de Mob : ne doit pas dépendre de l'état de l'instance
+     * @return Le profil de goals
+     */
+    protected GoalProfile getGoalProfile() {
+        return ZombieGoalProfiles.SMART;
     }
     
     @Override
@@ -104,6 +111,7 @@ public class SmartZombieEntity extends Zombie {
             soundTrackingCooldown--;
             if (soundTrackingCooldown <= 0) {
                 targetSoundPos = null;
+                trackedPlayer = null;
             }
         }
         
@@ -125,6 +133,11 @@ public class SmartZombieEntity extends Zombie {
                     if (forgetTargetTimer > 60) { // 3 secondes
                         setTarget(null);
                         forgetTargetTimer = 0;
+                        
+                        // Continuer sur la piste du joueur perdu depuis la dernière position connue
+                        trackedPlayer = player.getUUID();
+                        targetSoundPos = blockPosition();
+                        soundTrackingCooldown = 140; // 7 secondes
                     }
                 } else {
                     // Si on peut le sentir, réinitialiser le compteur
@@ -138,6 +151,13 @@ public class SmartZombieEntity extends Zombie {
         
         // Si on est alerté, chercher des cibles dans les environs
         if (isAlerted() && alertCooldown <= 0 && getTarget() == null) {
+            // Niveau de détail réduit : aucun joueur assez proche, inutile de chercher
+            double fullAiRange = FULL_AI_RANGE * PerformanceGovernor.getAiDetailRangeScale();
+            if (!level().hasNearbyAlivePlayer(getX(), getY(), getZ(), fullAiRange)) {
+                alertCooldown = 20 * FAR_AI_INTERVAL_MULTIPLIER;
+                return;
+            }
+            
             // Chercher des joueurs proches
             double detectionRange = 10.0;
             
@@ -166,8 +186,9 @@ public class SmartZombieEntity extends Zombie {
      * Réagit à un son détecté
      * @param soundPos Position du son
      * @param soundLevel Niveau du son (1-3)
+     * @param source Entité à l'origine du son (peut être null)
      */
-    public void onSoundDetected(BlockPos soundPos, int soundLevel) {
+    public void onSoundDetected(BlockPos soundPos, int soundLevel, Entity source) {
         // Si on a déjà une cible, on ignore les sons faibles
         if (this.getTarget() != null && soundLevel < 2) {
             return;
@@ -184,6 +205,7 @@ public class SmartZombieEntity extends Zombie {
         // Définir la position du son comme cible
         this.targetSoundPos = soundPos;
         this.soundTrackingCooldown = trackingDuration;
+        this.trackedPlayer = source instanceof Player player ? player.getUUID() : null;
         
         // En cas de son fort, on passe en état d'alerte
         if (soundLevel >= 2) {
@@ -230,26 +252,19 @@ public class SmartZombieEntity extends Zombie {
      * Alerte les zombies proches d'un son de haute intensité
      */
     private void alertNearbyZombies() {
-        double alertRadius = ModConfig.COMMON.zombieAlertRadius.get();
-        AABB alertBox = this.getBoundingBox().inflate(alertRadius);
-        
-        // Récupérer tous les zombies à proximité
-        List<SmartZombieEntity> nearbyZombies = level().getEntitiesOfClass(
-            SmartZombieEntity.class,
-            alertBox,
-            entity -> entity != this
-        );
+        double alertRadius = ModConfig.COMMON.zombieAlertRadius.get() * PerformanceGovernor.getRadiusScale();
         
         // Alerter les zombies proches
-        for (SmartZombieEntity nearbyZombie : nearbyZombies) {
+        forEachZombieInAlertRange(alertRadius, nearbyZombie -> {
             nearbyZombie.setAlerted(true);
             
             // Leur indiquer la position du son si ils n'ont pas déjà une cible
             if (nearbyZombie.getTarget() == null && this.targetSoundPos != null) {
                 nearbyZombie.targetSoundPos = this.targetSoundPos;
                 nearbyZombie.soundTrackingCooldown = 80; // 4 secondes
+                nearbyZombie.trackedPlayer = this.trackedPlayer;
             }
-        }
+        });
     }
     
     /**
@@ -259,18 +274,10 @@ public class SmartZombieEntity extends Zombie {
     public void alertOthers(LivingEntity target) {
         if (target == null) return;
         
-        double alertRadius = ModConfig.COMMON.zombieAlertRadius.get();
-        AABB alertBox = this.getBoundingBox().inflate(alertRadius);
-        
-        // Récupérer tous les zombies à proximité
-        List<SmartZombieEntity> nearbyZombies = level().getEntitiesOfClass(
-            SmartZombieEntity.class,
-            alertBox,
-            entity -> entity != this
-        );
+        double alertRadius = ModConfig.COMMON.zombieAlertRadius.get() * PerformanceGovernor.getRadiusScale();
         
         // Alerter les zombies proches
-        for (SmartZombieEntity nearbyZombie : nearbyZombies) {
+        forEachZombieInAlertRange(alertRadius, nearbyZombie -> {
             // Selon la distance, il y a une chance que le zombie ne remarque pas
             double distance = nearbyZombie.distanceTo(this);
             double chanceToNotice = 1.0 - (distance / (alertRadius * 1.5));
@@ -279,6 +286,42 @@ public class SmartZombieEntity extends Zombie {
                 nearbyZombie.setTarget(target);
                 nearbyZombie.setAlerted(true);
             }
+        });
+    }
+    
+    /**
+     * Applique une action à chaque zombie intelligent à portée d'alerte
+     * Le parcours se limite au cluster du zombie lorsqu'il est connu, sinon on interroge le monde
+     * @param alertRadius Rayon d'alerte (en blocs)
+     * @param action Action à appliquer
+     */
+    private void forEachZombieInAlertRange(double alertRadius, Consumer<SmartZombieEntity> action) {
+        double radiusSqr = alertRadius * alertRadius;
+        
+        ZombieClusterSystem.Cluster cluster = ZombieClusterSystem.clusterOf(this);
+        if (cluster != null) {
+            // Parcourir uniquement les membres de notre cluster (certains ont pu quitter le niveau
+            // depuis la dernière mise à jour)
+            for (int i = 0; i < cluster.size(); i++) {
+                SmartZombieEntity member = cluster.get(i);
+                if (member != this && member.isAlive() && !member.isRemoved() && member.level() == level()
+                        && member.distanceToSqr(this) <= radiusSqr) {
+                    action.accept(member);
+                }
+            }
+            return;
+        }
+        
+        // Zombie pas encore regroupé : récupérer tous les zombies à proximité
+        AABB alertBox = this.getBoundingBox().inflate(alertRadius);
+        List<SmartZombieEntity> nearbyZombies = level().getEntitiesOfClass(
+            SmartZombieEntity.class,
+            alertBox,
+            entity -> entity != this && entity.distanceToSqr(this) <= radiusSqr
+        );
+        
+        for (SmartZombieEntity nearbyZombie : nearbyZombies) {
+            action.accept(nearbyZombie);
         }
     }
     
@@ -287,14 +330,34 @@ public class SmartZombieEntity extends Zombie {
      * @param alerted true si le zombie est en alerte, false sinon
      */
     public void setAlerted(boolean alerted) {
-        this.entityData.set(IS_ALERTED, alerted);
+        // Rien à faire si l'état ne change pas (appelé en boucle sur des hordes entières)
+        if (this.alerted == alerted) return;
+        this.alerted = alerted;
+        
+        // L'état est reçu du serveur côté client, seule la vitesse côté serveur compte
+        if (level().isClientSide) return;
         
         // Si on passe en état d'alerte, augmenter temporairement la vitesse
-        if (alerted) {
-            this.getAttribute(Attributes.MOVEMENT_SPEED).setBaseValue(0.28D);
-        } else {
-            this.getAttribute(Attributes.MOVEMENT_SPEED).setBaseValue(0.25D);
+        AttributeInstance speed = this.getAttribute(Attributes.MOVEMENT_SPEED);
+        if (speed != null) {
+            if (alerted) {
+                speed.addTransientModifier(ALERT_SPEED_MODIFIER);
+            } else {
+                speed.removeModifier(ALERT_SPEED_MODIFIER_ID);
+            }
         }
+        
+        AlertStateSync.markDirty(this);
+    }
+    
+    /**
+     * Indique si l'état d'alerte diffère du dernier état envoyé aux clients, et le marque comme envoyé
+     * @return true si l'état doit être envoyé
+     */
+    public boolean consumeAlertDirty() {
+        boolean dirty = alerted != syncedAlerted;
+        syncedAlerted = alerted;
+        return dirty;
     }
     
     /**
@@ -302,7 +365,7 @@ public class SmartZombieEntity extends Zombie {
      * @return true si le zombie est en alerte, false sinon
      */
     public boolean isAlerted() {
-        return this.entityData.get(IS_ALERTED);
+        return alerted;
     }
     
     /**
@@ -313,6 +376,14 @@ public class SmartZombieEntity extends Zombie {
         return targetSoundPos;
     }
     
+    /**
+     * Récupère le joueur dont la piste olfactive peut être suivie
+     * @return L'UUID du joueur ou null si aucune piste n'est suivie
+     */
+    public UUID getTrackedPlayer() {
+        return trackedPlayer;
+    }
+    
     /**
      * Récupère le cooldown de suivi du son
      * @return Le cooldown actuel
@@ -0,0 +1,468 @@
+package com.whereishumanity.entities;
+
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.config.ModConfig;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.EntityLeaveLevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Système de regroupement des zombies intelligents en clusters
+ * Un cluster est une composante connexe de zombies situés à portée d'alerte les uns des autres.
+ * Les clusters sont entretenus de façon incrémentale : la grille spatiale est conservée d'une mise à
+ * jour à l'autre et, à chaque mise à jour, seuls les zombies arrivés, partis ou déplacés de plus de
+ * {@link #MOVE_TOLERANCE} blocs sont retraités, avec les clusters qu'ils touchent (union-find sur des
+ * tableaux primitifs). Entre deux mises à jour, un zombie s'écarte de sa position enregistrée d'au plus
+ * cette tolérance plus {@link #MAX_TRAVEL} : les clusters sont calculés avec une marge de deux fois cet
+ * écart, si bien qu'un cluster contient à tout moment tous les zombies à portée d'alerte de ses membres.
+ * Seuls les zombies déplacés plus vite (téléportation, recul) peuvent manquer jusqu'à la mise à jour
+ * suivante. Les alertes parcourent un seul cluster au lieu d'interroger le monde.
+ */
+@Mod.EventBusSubscriber(modid = WhereIsHumanity.MOD_ID)
+public class ZombieClusterSystem {
+
+    // Intervalle de mise à jour des clusters (en ticks)
+    public static final int REBUILD_INTERVAL = 20;
+
+    // Déplacement toléré avant qu'un zombie ne soit retraité (en blocs)
+    private static final double MOVE_TOLERANCE = 2.0;
+
+    // Distance maximale parcourue par un zombie entre deux mises à jour (en blocs) : un coureur alerté
+    // en poursuite fait environ 7 blocs en REBUILD_INTERVAL ticks
+    private static final double MAX_TRAVEL = 8.0;
+
+    private static final long NO_CELL = Long.MIN_VALUE;
+
+    // Clusters par dimension
+    private static final Map<ResourceKey<Level>, LevelClusters> CLUSTERS = new HashMap<>();
+
+    /**
+     * État d'un zombie dans les clusters de sa dimension
+     */
+    static final class Node {
+        private final SmartZombieEntity zombie;
+
+        // Position lors du dernier traitement (celle utilisée par la grille et les clusters)
+        private double x;
+        private double y;
+        private double z;
+
+        private int index;             // Indice dans la liste des zombies de la dimension
+        private long cell = NO_CELL;   // Cellule de la grille
+        private int cellSlot = -1;     // Indice dans la cellule
+        private int clusterId = -1;    // Cluster (-1 si pas encore regroupé)
+        private int memberSlot = -1;   // Indice dans les membres du cluster
+        private int work = -1;         // Indice dans la mise à jour en cours (-1 si non concerné)
+
+        private Node(SmartZombieEntity zombie) {
+            this.zombie = zombie;
+        }
+    }
+
+    /**
+     * Cluster de zombies
+     */
+    public static final class Cluster {
+        private final List<Node> members = new ArrayList<>();
+        private boolean broken = false; // A perdu un membre depuis la dernière mise à jour
+
+        public int size() {
+            return members.size();
+        }
+
+        /**
+         * Membre à l'indice donné (peut avoir quitté le monde depuis la dernière mise à jour)
+         */
+        public SmartZombieEntity get(int index) {
+            return members.get(index).zombie;
+        }
+    }
+
+    /**
+     * Clusters de zombies d'une dimension
+     */
+    public static class LevelClusters {
+        // Zombies présents dans la dimension
+        private final List<Node> nodes = new ArrayList<>();
+
+        // Grille spatiale (cellules de la taille du rayon de liaison), conservée entre les mises à jour
+        private final Long2ObjectOpenHashMap<List<Node>> grid = new Long2ObjectOpenHashMap<>();
+        private double cellSize = 0;
+
+        // Clusters par identifiant (null = identifiant libre)
+        private final List<Cluster> clusters = new ArrayList<>();
+        private final IntArrayList freeClusterIds = new IntArrayList();
+        private final IntArrayList brokenClusters = new IntArrayList();
+        private int clusterCount = 0;
+
+        // Mise à jour en cours : zombies retraités et union-find
+        private Node[] work = new Node[0];
+        private int[] parent = new int[0];
+        private int[] rank = new int[0];
+        private int[] rootToCluster = new int[0];
+        private int workSize = 0;
+
+        private void add(SmartZombieEntity zombie) {
+            Node node = new Node(zombie);
+            node.index = nodes.size();
+            nodes.add(node);
+            zombie.clusterNode = node;
+        }
+
+        private void remove(SmartZombieEntity zombie) {
+            Node node = zombie.clusterNode;
+            if (node == null || node.index >= nodes.size() || nodes.get(node.index) != node) {
+                return;
+            }
+
+            // Retrait par échange avec le dernier élément
+            Node last = nodes.remove(nodes.size() - 1);
+            if (last != node) {
+                nodes.set(node.index, last);
+                last.index = node.index;
+            }
+            removeFromGrid(node);
+            leaveCluster(node);
+            zombie.clusterNode = null;
+        }
+
+        /**
+         * Met à jour les clusters touchés par les arrivées, départs et déplacements depuis la dernière fois
+         * @param radius Rayon d'alerte (en blocs)
+         */
+        void update(double radius) {
+            double linkRadius = radius + 2 * (MOVE_TOLERANCE + MAX_TRAVEL);
+            if (linkRadius != cellSize) {
+                reset(linkRadius);
+            }
+
+            // Zombies nouveaux ou déplacés : remis dans la grille à leur position actuelle
+            double toleranceSqr = MOVE_TOLERANCE * MOVE_TOLERANCE;
+            for (Node node : nodes) {
+                SmartZombieEntity zombie = node.zombie;
+                if (node.cell != NO_CELL && zombie.distanceToSqr(node.x, node.y, node.z) <= toleranceSqr) {
+                    continue;
+                }
+                node.x = zombie.getX();
+                node.y = zombie.getY();
+                node.z = zombie.getZ();
+                long cell = ChunkPos.asLong(cellIndex(node.x), cellIndex(node.z));
+                if (cell != node.cell) {
+                    removeFromGrid(node);
+                    addToGrid(node, cell);
+                }
+                enqueue(node);
+            }
+
+            // Clusters ayant perdu un membre : ils peuvent s'être scindés
+            for (int i = 0; i < brokenClusters.size(); i++) {
+                int id = brokenClusters.getInt(i);
+                if (clusters.get(id) != null) {
+                    enqueueCluster(id);
+                }
+            }
+            brokenClusters.clear();
+
+            if (workSize == 0) {
+                return;
+            }
+
+            // Unir les zombies retraités à leurs voisins ; un voisin encore inchangé entraîne tout son cluster
+            double linkSqr = linkRadius * linkRadius;
+            for (int i = 0; i < workSize; i++) {
+                Node node = work[i];
+                int cellX = cellIndex(node.x);
+                int cellZ = cellIndex(node.z);
+                for (int dx = -1; dx <= 1; dx++) {
+                    for (int dz = -1; dz <= 1; dz++) {
+                        List<Node> cell = grid.get(ChunkPos.asLong(cellX + dx, cellZ + dz));
+                        if (cell == null) continue;
+
+                        for (int k = 0; k < cell.size(); k++) {
+                            Node other = cell.get(k);
+                            if (other == node || distanceSqr(node, other) > linkSqr) continue;
+                            if (other.work < 0) {
+                                enqueue(other);
+                            }
+                            union(node.work, other.work);
+                        }
+                    }
+                }
+            }
+
+            // Remplacer les anciens clusters des zombies retraités par les nouvelles composantes
+            for (int i = 0; i < workSize; i++) {
+                int id = work[i].clusterId;
+                if (id >= 0 && clusters.get(id) != null) {
+                    clusters.set(id, null);
+                    freeClusterIds.add(id);
+                    clusterCount--;
+                }
+            }
+            Arrays.fill(rootToCluster, 0, workSize, -1);
+            for (int i = 0; i < workSize; i++) {
+                Node node = work[i];
+                int root = find(i);
+                if (rootToCluster[root] < 0) {
+                    rootToCluster[root] = newCluster();
+                }
+                Cluster cluster = clusters.get(rootToCluster[root]);
+                node.clusterId = rootToCluster[root];
+                node.memberSlot = cluster.members.size();
+                cluster.members.add(node);
+            }
+
+            for (int i = 0; i < workSize; i++) {
+                work[i].work = -1;
+                work[i] = null;
+            }
+            workSize = 0;
+        }
+
+        /**
+         * Ajoute un zombie à la mise à jour en cours, avec tous les membres de son cluster actuel
+         */
+        private void enqueue(Node node) {
+            if (node.work >= 0) return;
+            if (node.clusterId >= 0 && clusters.get(node.clusterId) != null) {
+                enqueueCluster(node.clusterId);
+            } else {
+                enqueueNode(node);
+            }
+        }
+
+        private void enqueueCluster(int id) {
+            for (Node member : clusters.get(id).members) {
+                enqueueNode(member);
+            }
+        }
+
+        private void enqueueNode(Node node) {
+            if (node.work >= 0) return;
+            if (workSize == work.length) {
+                int capacity = Math.max(16, work.length * 2);
+                work = Arrays.copyOf(work, capacity);
+                parent = Arrays.copyOf(parent, capacity);
+                rank = Arrays.copyOf(rank, capacity);
+                rootToCluster = Arrays.copyOf(rootToCluster, capacity);
+            }
+            node.work = workSize;
+            work[workSize] = node;
+            parent[workSize] = workSize;
+            rank[workSize] = 0;
+            workSize++;
+        }
+
+        private int newCluster() {
+            clusterCount++;
+            if (!freeClusterIds.isEmpty()) {
+                int id = freeClusterIds.popInt();
+                clusters.set(id, new Cluster());
+                return id;
+            }
+            clusters.add(new Cluster());
+            return clusters.size() - 1;
+        }
+
+        /**
+         * Retire un zombie de son cluster (par échange avec le dernier membre) ; le cluster sera
+         * recalculé à la prochaine mise à jour
+         */
+        private void leaveCluster(Node node) {
+            Cluster cluster = node.clusterId >= 0 ? clusters.get(node.clusterId) : null;
+            if (cluster != null) {
+                Node last = cluster.members.remove(cluster.members.size() - 1);
+                if (last != node) {
+                    cluster.members.set(node.memberSlot, last);
+                    last.memberSlot = node.memberSlot;
+                }
+                if (cluster.members.isEmpty()) {
+                    clusters.set(node.clusterId, null);
+                    freeClusterIds.add(node.clusterId);
+                    clusterCount--;
+                } else if (!cluster.broken) {
+                    cluster.broken = true;
+                    brokenClusters.add(node.clusterId);
+                }
+            }
+            node.clusterId = -1;
+            node.memberSlot = -1;
+        }
+
+        private void addToGrid(Node node, long key) {
+            List<Node> cell = grid.computeIfAbsent(key, k -> new ArrayList<>());
+            node.cell = key;
+            node.cellSlot = cell.size();
+            cell.add(node);
+        }
+
+        private void removeFromGrid(Node node) {
+            if (node.cell == NO_CELL) return;
+            List<Node> cell = grid.get(node.cell);
+            Node last = cell.remove(cell.size() - 1);
+            if (last != node) {
+                cell.set(node.cellSlot, last);
+                last.cellSlot = node.cellSlot;
+            }
+            if (cell.isEmpty()) {
+                grid.remove(node.cell);
+            }
+            node.cell = NO_CELL;
+            node.cellSlot = -1;
+        }
+
+        /**
+         * Oublie la grille et les clusters (changement du rayon d'alerte) : tout sera recalculé
+         */
+        private void reset(double linkRadius) {
+            cellSize = linkRadius;
+            grid.clear();
+            clusters.clear();
+            freeClusterIds.clear();
+            brokenClusters.clear();
+            clusterCount = 0;
+            for (Node node : nodes) {
+                node.cell = NO_CELL;
+                node.cellSlot = -1;
+                node.clusterId = -1;
+                node.memberSlot = -1;
+            }
+        }
+
+        private int cellIndex(double coord) {
+            return Mth.floor(coord / cellSize);
+        }
+
+        private static double distanceSqr(Node a, Node b) {
+            double dx = a.x - b.x;
+            double dy = a.y - b.y;
+            double dz = a.z - b.z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        private int find(int i) {
+            while (parent[i] != i) {
+                parent[i] = parent[parent[i]]; // Compression de chemin par division
+                i = parent[i];
+            }
+            return i;
+        }
+
+        private void union(int a, int b) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) return;
+
+            if (rank[rootA] < rank[rootB]) {
+                parent[rootA] = rootB;
+            } else if (rank[rootA] > rank[rootB]) {
+                parent[rootB] = rootA;
+            } else {
+                parent[rootB] = rootA;
+                rank[rootA]++;
+            }
+        }
+
+        /**
+         * Cluster d'identifiant donné (null s'il n'existe plus)
+         */
+        public Cluster getCluster(int clusterId) {
+            return clusterId >= 0 && clusterId < clusters.size() ? clusters.get(clusterId) : null;
+        }
+
+        public int getZombieCount() {
+            return nodes.size();
+        }
+
+        public int getClusterCount() {
+            return clusterCount;
+        }
+
+        public int getLargestClusterSize() {
+            int largest = 0;
+            for (Cluster cluster : clusters) {
+                if (cluster != null) {
+                    largest = Math.max(largest, cluster.size());
+                }
+            }
+            return largest;
+        }
+    }
+
+    /**
+     * Retourne le cluster auquel appartient un zombie
+     * @param zombie Le zombie concerné
+     * @return Son cluster, ou null si le zombie n'a pas encore été regroupé
+     */
+    public static Cluster clusterOf(SmartZombieEntity zombie) {
+        Node node = zombie.clusterNode;
+        if (node == null || node.clusterId < 0) {
+            return null;
+        }
+        LevelClusters clusters = CLUSTERS.get(zombie.level().dimension());
+        return clusters != null ? clusters.getCluster(node.clusterId) : null;
+    }
+
+    /**
+     * Retourne les clusters de toutes les dimensions (pour les métriques)
+     */
+    public static Map<ResourceKey<Level>, LevelClusters> getAllClusters() {
+        return CLUSTERS;
+    }
+
+    @SubscribeEvent
+    public static void onEntityJoin(EntityJoinLevelEvent event) {
+        if (event.getLevel().isClientSide || !(event.getEntity() instanceof SmartZombieEntity zombie)) {
+            return;
+        }
+        CLUSTERS.computeIfAbsent(event.getLevel().dimension(), k -> new LevelClusters()).add(zombie);
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeave(EntityLeaveLevelEvent event) {
+        if (event.getLevel().isClientSide || !(event.getEntity() instanceof SmartZombieEntity zombie)) {
+            return;
+        }
+        LevelClusters clusters = CLUSTERS.get(event.getLevel().dimension());
+        if (clusters != null) {
+            clusters.remove(zombie);
+        }
+        zombie.clusterNode = null;
+    }
+
+    @SubscribeEvent
+    public static void onLevelTick(TickEvent.LevelTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || !(event.level instanceof ServerLevel level)) {
+            return;
+        }
+        if (level.getGameTime() % REBUILD_INTERVAL != 0) {
+            return;
+        }
+
+        LevelClusters clusters = CLUSTERS.get(level.dimension());
+        if (clusters != null) {
+            clusters.update(ModConfig.COMMON.zombieAlertRadius.get());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        CLUSTERS.clear();
+    }
+}
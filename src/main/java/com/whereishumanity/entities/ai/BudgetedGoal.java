@@ -0,0 +1,82 @@
+package com.whereishumanity.entities.ai;
+
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.ai.goal.Goal;
+
+/**
+ * Enveloppe d'un goal qui limite la fréquence d'évaluation de sa condition de démarrage
+ * Le goal encapsulé n'est interrogé qu'une fois tous les {@code evaluationInterval} ticks,
+ * ce qui borne son coût lorsqu'il est inactif.
+ */
+public class BudgetedGoal extends Goal {
+    private final Mob mob;
+    private final Goal goal;
+    private final int evaluationInterval;
+    private long nextEvaluationTime;
+
+    /**
+     * Constructeur
+     * @param mob L'entité qui utilise ce goal
+     * @param goal Le goal encapsulé
+     * @param evaluationInterval Intervalle minimal entre deux évaluations (en ticks)
+     */
+    public BudgetedGoal(Mob mob, Goal goal, int evaluationInterval) {
+        this.mob = mob;
+        this.goal = goal;
+        this.evaluationInterval = evaluationInterval;
+        this.setFlags(goal.getFlags());
+
+        // Décaler la première évaluation pour éviter que tous les zombies évaluent au même tick
+        this.nextEvaluationTime = evaluationInterval > 1 ? mob.getRandom().nextInt(evaluationInterval) : 0;
+    }
+
+    @Override
+    public boolean canUse() {
+        if (evaluationInterval > 1) {
+            long gameTime = mob.level().getGameTime();
+            if (gameTime < nextEvaluationTime) {
+                return false;
+            }
+            nextEvaluationTime = gameTime + evaluationInterval;
+        }
+        return goal.canUse();
+    }
+
+    @Override
+    public boolean canContinueToUse() {
+        return goal.canContinueToUse();
+    }
+
+    @Override
+    public boolean isInterruptable() {
+        return goal.isInterruptable();
+    }
+
+    @Override
+    public void start() {
+        goal.start();
+    }
+
+    @Override
+    public void stop() {
+        goal.stop();
+    }
+
+    @Override
+    public void tick() {
+        goal.tick();
+    }
+
+    @Override
+    public boolean requiresUpdateEveryTick() {
+        return goal.requiresUpdateEveryTick();
+    }
+
+    /**
+     * Retourne le goal encapsulé
+     * @return Le goal d'origine
+     */
+    public Goal getGoal() {
+        return goal;
+    }
+}
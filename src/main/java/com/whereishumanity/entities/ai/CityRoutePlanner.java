@@ -0,0 +1,545 @@
+package com.whereishumanity.entities.ai;
+
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.worldgen.RoadGraph;
+import com.whereishumanity.worldgen.UrbanGridGenerator;
+import com.whereishumanity.worldgen.UrbanGridGenerator.CellType;
+import com.whereishumanity.worldgen.UrbanLayoutService;
+import it.unimi.dsi.fastutil.longs.Long2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ExplosionEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Planification d'itinéraires à l'échelle de la ville
+ * Les longs déplacements sont d'abord planifiés sur le graphe routier des plans urbains
+ * (une intersection toutes les {@link UrbanLayoutService#CELL_SIZE} cases), puis parcourus
+ * d'intersection en intersection avec de courts chemins vanilla. Seuls les trajets entre deux
+ * cellules d'une ville déjà générée sont planifiés : ailleurs, aucune route n'a été construite.
+ * Les recherches sont avancées à la fin de chaque tick serveur, dans un budget d'intersections
+ * explorées, et ne lisent que les plans existants. Les itinéraires sont mis en cache par couple
+ * d'intersections et invalidés dès qu'un bloc de route change dans une région traversée.
+ */
+@Mod.EventBusSubscriber(modid = WhereIsHumanity.MOD_ID)
+public class CityRoutePlanner {
+
+    // Nombre maximal d'itinéraires en cache par dimension
+    private static final int MAX_CACHED_ROUTES = 256;
+
+    // Nombre maximal d'intersections explorées par recherche
+    private static final int MAX_EXPANDED_NODES = 8192;
+
+    // Nombre d'intersections explorées par tick serveur, toutes recherches confondues
+    private static final int EXPANSIONS_PER_TICK = 1024;
+
+    // Nombre maximal de recherches en attente par dimension
+    private static final int MAX_PENDING_SEARCHES = 64;
+
+    // Décalage du point de passage dans l'intersection (la plus étroite des routes fait 2 blocs)
+    private static final int WAYPOINT_OFFSET = 1;
+
+    private static final int REGION_CELLS = UrbanLayoutService.REGION_CELLS;
+    private static final int CELL_SIZE = UrbanLayoutService.CELL_SIZE;
+
+    // Itinéraires par dimension
+    private static final Map<ResourceKey<Level>, LevelRoutes> ROUTES = new HashMap<>();
+
+    /**
+     * Itinéraire entre deux intersections
+     */
+    public static class Route {
+        private final long[] nodes;   // Intersections (ChunkPos.asLong(x, z)), vide si aucun chemin
+        private final long[] regions; // Régions explorées pendant la recherche
+        private final int[] versions; // Version de chaque région au moment de la recherche
+
+        private Route(long[] nodes, long[] regions, int[] versions) {
+            this.nodes = nodes;
+            this.regions = regions;
+            this.versions = versions;
+        }
+
+        public boolean isEmpty() {
+            return nodes.length == 0;
+        }
+
+        public int size() {
+            return nodes.length;
+        }
+
+        public long getNode(int index) {
+            return nodes[index];
+        }
+
+        /**
+         * Position du point de passage d'une intersection (l'Y est à déterminer par l'appelant)
+         */
+        public BlockPos getWaypoint(int index, int y) {
+            return new BlockPos(ChunkPos.getX(nodes[index]) * CELL_SIZE + WAYPOINT_OFFSET, y,
+                    ChunkPos.getZ(nodes[index]) * CELL_SIZE + WAYPOINT_OFFSET);
+        }
+
+        private boolean uses(long segment) {
+            for (int i = 1; i < nodes.length; i++) {
+                if (segmentKey(nodes[i - 1], nodes[i]) == segment) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Demande d'itinéraire, terminée immédiatement (itinéraire en cache) ou au fil des ticks
+     */
+    public static class RouteRequest {
+        private Route route;
+        private boolean done;
+
+        private void complete(Route route) {
+            this.route = route;
+            this.done = true;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Itinéraire trouvé, ou null si la recherche n'est pas terminée ou n'a trouvé aucun chemin
+         */
+        public Route getRoute() {
+            return route == null || route.isEmpty() ? null : route;
+        }
+    }
+
+    private record RouteKey(long from, long to) {
+    }
+
+    private record OpenNode(long node, float priority) {
+    }
+
+    /**
+     * Itinéraires et état du réseau d'une dimension
+     */
+    public static class LevelRoutes {
+        private final UrbanLayoutService layouts;
+        private final Map<RouteKey, Route> cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteKey, Route> eldest) {
+                return size() > MAX_CACHED_ROUTES;
+            }
+        };
+
+        // Version de chaque région, incrémentée à chaque changement de bloc
+        private final Long2IntOpenHashMap regionVersions = new Long2IntOpenHashMap();
+
+        // Segments signalés infranchissables, avec la version de leur région à ce moment
+        private final Long2IntOpenHashMap blockedSegments = new Long2IntOpenHashMap();
+
+        // Recherches en cours, dans l'ordre des demandes
+        private final Map<RouteKey, Search> pending = new LinkedHashMap<>();
+
+        private long hits = 0;
+        private long misses = 0;
+
+        private LevelRoutes(UrbanLayoutService layouts) {
+            this.layouts = layouts;
+        }
+
+        private int getVersion(long region) {
+            return regionVersions.get(region);
+        }
+
+        private boolean isValid(Route route) {
+            for (int i = 0; i < route.regions.length; i++) {
+                if (getVersion(route.regions[i]) != route.versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean isBlocked(long segment) {
+            if (!blockedSegments.containsKey(segment)) {
+                return false;
+            }
+            // Un changement de bloc dans la région a pu rouvrir le passage
+            return blockedSegments.get(segment) == getVersion(segmentRegion(segment));
+        }
+
+        public int getCachedRouteCount() {
+            return cache.size();
+        }
+
+        public int getBlockedSegmentCount() {
+            return blockedSegments.size();
+        }
+
+        public int getPendingSearchCount() {
+            return pending.size();
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+    }
+
+    /**
+     * Demande un itinéraire routier entre deux positions
+     * Un itinéraire en cache est rendu immédiatement ; sinon la recherche est avancée à la fin des
+     * ticks suivants et la demande se termine plus tard.
+     * @param level Le niveau
+     * @param from Position de départ
+     * @param to Position d'arrivée
+     * @return La demande, ou null si le trajet ne relève pas du réseau routier (hors d'une ville
+     *         générée, même intersection, trop de recherches en attente)
+     */
+    public static RouteRequest requestRoute(ServerLevel level, BlockPos from, BlockPos to) {
+        long start = nearestNode(from);
+        long goal = nearestNode(to);
+        if (start == goal) {
+            return null;
+        }
+
+        LevelRoutes routes = getRoutes(level);
+        if (!isInCity(routes.layouts, from) || !isInCity(routes.layouts, to)) {
+            return null;
+        }
+
+        RouteKey key = new RouteKey(start, goal);
+        Route route = routes.cache.get(key);
+        if (route != null && routes.isValid(route)) {
+            routes.hits++;
+            RouteRequest request = new RouteRequest();
+            request.complete(route);
+            return request;
+        }
+
+        // Une recherche déjà en cours pour ce couple d'intersections est partagée
+        Search search = routes.pending.get(key);
+        if (search == null) {
+            if (routes.pending.size() >= MAX_PENDING_SEARCHES) {
+                return null;
+            }
+            routes.misses++;
+            search = new Search(routes, start, goal);
+            routes.pending.put(key, search);
+        }
+        return search.request;
+    }
+
+    /**
+     * Avance les recherches en attente dans le budget du tick
+     * @param event Événement de tick serveur
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+
+        int budget = EXPANSIONS_PER_TICK;
+        for (LevelRoutes routes : ROUTES.values()) {
+            Iterator<Map.Entry<RouteKey, Search>> iterator = routes.pending.entrySet().iterator();
+            while (budget > 0 && iterator.hasNext()) {
+                Map.Entry<RouteKey, Search> entry = iterator.next();
+                Search search = entry.getValue();
+                budget -= search.step(budget);
+                if (search.result != null) {
+                    iterator.remove();
+                    routes.cache.put(entry.getKey(), search.result);
+                    search.request.complete(search.result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Signale qu'un segment de route n'a pas pu être parcouru (barricade, effondrement...)
+     * Le segment est ignoré par les recherches jusqu'au prochain changement de bloc dans sa région.
+     * @param level Le niveau
+     * @param fromNode Intersection de départ du segment
+     * @param toNode Intersection d'arrivée du segment
+     */
+    public static void markBlocked(ServerLevel level, long fromNode, long toNode) {
+        LevelRoutes routes = getRoutes(level);
+        long segment = segmentKey(fromNode, toNode);
+        routes.blockedSegments.put(segment, routes.getVersion(segmentRegion(segment)));
+        routes.cache.values().removeIf(route -> route.uses(segment));
+    }
+
+    /**
+     * Intersection la plus proche d'une position
+     */
+    public static long nearestNode(BlockPos pos) {
+        return ChunkPos.asLong(Math.floorDiv(pos.getX() + CELL_SIZE / 2, CELL_SIZE),
+                Math.floorDiv(pos.getZ() + CELL_SIZE / 2, CELL_SIZE));
+    }
+
+    public static Map<ResourceKey<Level>, LevelRoutes> getLevelRoutes() {
+        return ROUTES;
+    }
+
+    /**
+     * Vérifie qu'une position se trouve dans une cellule urbaine d'une région déjà générée
+     */
+    private static boolean isInCity(UrbanLayoutService layouts, BlockPos pos) {
+        CellType cellType = layouts.findCellAt(pos.getX(), pos.getZ());
+        return cellType != null && cellType != CellType.WILDERNESS;
+    }
+
+    private static LevelRoutes getRoutes(ServerLevel level) {
+        return ROUTES.computeIfAbsent(level.dimension(), key -> new LevelRoutes(UrbanLayoutService.forLevel(level)));
+    }
+
+    /**
+     * Clé d'un segment : la cellule qui le porte et son orientation (bit de poids faible)
+     */
+    private static long segmentKey(long a, long b) {
+        int ax = ChunkPos.getX(a);
+        int az = ChunkPos.getZ(a);
+        int bx = ChunkPos.getX(b);
+        int bz = ChunkPos.getZ(b);
+        if (az == bz) {
+            return ChunkPos.asLong(Math.min(ax, bx), az) << 1;
+        }
+        return ChunkPos.asLong(ax, Math.min(az, bz)) << 1 | 1;
+    }
+
+    private static long segmentRegion(long segment) {
+        long cell = segment >> 1;
+        return ChunkPos.asLong(Math.floorDiv(ChunkPos.getX(cell), REGION_CELLS), Math.floorDiv(ChunkPos.getZ(cell), REGION_CELLS));
+    }
+
+    private static long regionOf(BlockPos pos) {
+        return ChunkPos.asLong(Math.floorDiv(pos.getX(), UrbanLayoutService.REGION_BLOCKS),
+                Math.floorDiv(pos.getZ(), UrbanLayoutService.REGION_BLOCKS));
+    }
+
+    /**
+     * Invalide les itinéraires de la région d'un bloc modifié, s'il se trouve sur une voie ou un
+     * carrefour du plan (les autres blocs ne changent pas le réseau routier)
+     * @return true si la région a été invalidée
+     */
+    private static boolean invalidate(ServerLevel level, BlockPos pos) {
+        LevelRoutes routes = ROUTES.get(level.dimension());
+        if (routes == null || routes.layouts.findRoadAt(pos.getX(), pos.getZ()) == null) {
+            return false;
+        }
+        routes.regionVersions.addTo(regionOf(pos), 1);
+        return true;
+    }
+
+    @SubscribeEvent
+    public static void onBlockBreak(BlockEvent.BreakEvent event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            invalidate(level, event.getPos());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onBlockPlace(BlockEvent.EntityPlaceEvent event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            invalidate(level, event.getPos());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onExplosion(ExplosionEvent.Detonate event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            // Une seule invalidation par région touchée
+            LongOpenHashSet invalidated = new LongOpenHashSet();
+            for (BlockPos pos : event.getAffectedBlocks()) {
+                if (!invalidated.contains(regionOf(pos)) && invalidate(level, pos)) {
+                    invalidated.add(regionOf(pos));
+                }
+            }
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        ROUTES.clear();
+    }
+
+    /**
+     * Recherche A* sur les graphes routiers des régions, avancée par tranches d'un tick à l'autre
+     * Les intersections situées sur la bordure d'une région appartiennent aussi à la région voisine :
+     * leurs arêtes sont lues dans les deux graphes. Les régions sans plan sont ignorées.
+     */
+    private static class Search {
+        private final LevelRoutes routes;
+        private final RouteRequest request = new RouteRequest();
+        private final long goal;
+        private final int goalX;
+        private final int goalZ;
+        private final int minRegionX;
+        private final int minRegionZ;
+        private final int maxRegionX;
+        private final int maxRegionZ;
+
+        private final Long2FloatOpenHashMap distance = new Long2FloatOpenHashMap();
+        private final Long2LongOpenHashMap previous = new Long2LongOpenHashMap();
+        private final LongOpenHashSet closed = new LongOpenHashSet();
+        private final Long2IntOpenHashMap regionVersions = new Long2IntOpenHashMap(); // Version de chaque région à sa première lecture
+        private final PriorityQueue<OpenNode> open = new PriorityQueue<>(Comparator.comparingDouble(OpenNode::priority));
+        private int expanded = 0;
+
+        // Itinéraire calculé, null tant que la recherche n'est pas terminée
+        private Route result;
+
+        Search(LevelRoutes routes, long start, long goal) {
+            this.routes = routes;
+            this.goal = goal;
+            this.goalX = ChunkPos.getX(goal);
+            this.goalZ = ChunkPos.getZ(goal);
+
+            // Limiter la recherche aux régions englobant le départ et l'arrivée, plus une de marge
+            int startX = ChunkPos.getX(start);
+            int startZ = ChunkPos.getZ(start);
+            this.minRegionX = Math.floorDiv(Math.min(startX, goalX), REGION_CELLS) - 1;
+            this.minRegionZ = Math.floorDiv(Math.min(startZ, goalZ), REGION_CELLS) - 1;
+            this.maxRegionX = Math.floorDiv(Math.max(startX, goalX), REGION_CELLS) + 1;
+            this.maxRegionZ = Math.floorDiv(Math.max(startZ, goalZ), REGION_CELLS) + 1;
+
+            distance.defaultReturnValue(Float.POSITIVE_INFINITY);
+            distance.put(start, 0);
+            open.add(new OpenNode(start, heuristic(start)));
+        }
+
+        /**
+         * Avance la recherche
+         * @param budget Nombre maximal d'intersections à explorer
+         * @return Nombre d'intersections explorées
+         */
+        int step(int budget) {
+            int used = 0;
+            while (used < budget) {
+                if (open.isEmpty() || expanded >= MAX_EXPANDED_NODES) {
+                    finish(new long[0]);
+                    return used;
+                }
+
+                long node = open.poll().node();
+                if (!closed.add(node)) continue; // Entrée périmée
+                if (node == goal) {
+                    finish(buildPath(node));
+                    return used;
+                }
+                expanded++;
+                used++;
+
+                int x = ChunkPos.getX(node);
+                int z = ChunkPos.getZ(node);
+                int regionX = Math.floorDiv(x, REGION_CELLS);
+                int regionZ = Math.floorDiv(z, REGION_CELLS);
+                int localX = x - regionX * REGION_CELLS;
+                int localZ = z - regionZ * REGION_CELLS;
+                float nodeDistance = distance.get(node);
+
+                relax(node, nodeDistance, regionX, regionZ, localX, localZ);
+                if (localX == 0) {
+                    relax(node, nodeDistance, regionX - 1, regionZ, REGION_CELLS, localZ);
+                }
+                if (localZ == 0) {
+                    relax(node, nodeDistance, regionX, regionZ - 1, localX, REGION_CELLS);
+                }
+                if (localX == 0 && localZ == 0) {
+                    relax(node, nodeDistance, regionX - 1, regionZ - 1, REGION_CELLS, REGION_CELLS);
+                }
+            }
+            return used;
+        }
+
+        private void finish(long[] nodes) {
+            long[] regionKeys = regionVersions.keySet().toLongArray();
+            int[] versions = new int[regionKeys.length];
+            for (int i = 0; i < regionKeys.length; i++) {
+                versions[i] = regionVersions.get(regionKeys[i]);
+            }
+            result = new Route(nodes, regionKeys, versions);
+        }
+
+        /**
+         * Relâche les arêtes d'une intersection lues dans le graphe d'une région
+         */
+        private void relax(long node, float nodeDistance, int regionX, int regionZ, int localX, int localZ) {
+            if (regionX < minRegionX || regionX > maxRegionX || regionZ < minRegionZ || regionZ > maxRegionZ) {
+                return;
+            }
+
+            long region = ChunkPos.asLong(regionX, regionZ);
+            if (!regionVersions.containsKey(region)) {
+                regionVersions.put(region, routes.getVersion(region));
+            }
+
+            // Lecture seule : une région encore jamais générée n'a pas de routes
+            UrbanGridGenerator layout = routes.layouts.findRegion(regionX, regionZ);
+            if (layout == null) {
+                return;
+            }
+            RoadGraph graph = layout.getRoadGraph();
+            int graphNode = graph.getNode(localX, localZ);
+
+            for (int edge = graph.getFirstEdge(graphNode); edge < graph.getEdgeEnd(graphNode); edge++) {
+                int target = graph.getEdgeTarget(edge);
+                long neighbor = ChunkPos.asLong(regionX * REGION_CELLS + graph.getNodeX(target),
+                        regionZ * REGION_CELLS + graph.getNodeZ(target));
+                if (closed.contains(neighbor) || routes.isBlocked(segmentKey(node, neighbor))) continue;
+
+                float candidate = nodeDistance + graph.getEdgeCost(edge);
+                if (candidate < distance.get(neighbor)) {
+                    distance.put(neighbor, candidate);
+                    previous.put(neighbor, node);
+                    open.add(new OpenNode(neighbor, candidate + heuristic(neighbor)));
+                }
+            }
+        }
+
+        private float heuristic(long node) {
+            int dx = Math.abs(ChunkPos.getX(node) - goalX);
+            int dz = Math.abs(ChunkPos.getZ(node) - goalZ);
+            return (dx + dz) * CELL_SIZE * RoadGraph.getMinimumCostPerBlock();
+        }
+
+        private long[] buildPath(long node) {
+            LongArrayList path = new LongArrayList();
+            path.add(node);
+            while (previous.containsKey(node)) {
+                node = previous.get(node);
+                path.add(node);
+            }
+
+            long[] nodes = path.toLongArray();
+            for (int i = 0, j = nodes.length - 1; i < j; i++, j--) {
+                long tmp = nodes[i];
+                nodes[i] = nodes[j];
+                nodes[j] = tmp;
+            }
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.whereishumanity.entities.ai;
+
+import com.whereishumanity.entities.SmartZombieEntity;
+import net.minecraft.world.entity.ai.goal.Goal;
+import net.minecraft.world.entity.ai.goal.GoalSelector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Profil de goals d'une variante de zombie
+ * Chaque goal déclare un intervalle d'évaluation et un coût estimé par évaluation.
+ * Le coût amorti du profil (somme des coûts divisés par les intervalles) est vérifié
+ * à la construction contre le budget par tick de la variante, pour qu'un ajout de
+ * comportement ne multiplie pas silencieusement le coût de chaque zombie.
+ */
+public class GoalProfile {
+
+    /**
+     * Déclaration d'un goal dans un profil
+     */
+    public static class Entry {
+        private final String name;
+        private final int priority;
+        private final Function<SmartZombieEntity, Goal> factory;
+        private final int evaluationInterval;
+        private final int cost;
+        private final boolean targetGoal;
+
+        private Entry(String name, int priority, Function<SmartZombieEntity, Goal> factory,
+                      int evaluationInterval, int cost, boolean targetGoal) {
+            this.name = name;
+            this.priority = priority;
+            this.factory = factory;
+            this.evaluationInterval = evaluationInterval;
+            this.cost = cost;
+            this.targetGoal = targetGoal;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        public int getEvaluationInterval() {
+            return evaluationInterval;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+
+        public boolean isTargetGoal() {
+            return targetGoal;
+        }
+
+        /**
+         * Coût moyen par tick de ce goal
+         */
+        public double getAmortizedCost() {
+            return (double) cost / evaluationInterval;
+        }
+    }
+
+    private final String name;
+    private final double tickBudget;
+    private final List<Entry> entries;
+    private final double amortizedCost;
+
+    private GoalProfile(String name, double tickBudget, List<Entry> entries) {
+        this.name = name;
+        this.tickBudget = tickBudget;
+        this.entries = Collections.unmodifiableList(entries);
+
+        double cost = 0;
+        for (Entry entry : entries) {
+            cost += entry.getAmortizedCost();
+        }
+        this.amortizedCost = cost;
+
+        if (amortizedCost > tickBudget) {
+            throw new IllegalStateException("Le profil de goals '" + name + "' dépasse son budget: coût amorti " +
+                    String.format("%.2f", amortizedCost) + " > " + tickBudget + " par tick");
+        }
+    }
+
+    /**
+     * Enregistre les goals du profil sur un zombie
+     * @param zombie Le zombie concerné
+     * @param goalSelector Sélecteur des goals de comportement
+     * @param targetSelector Sélecteur des goals de ciblage
+     */
+    public void apply(SmartZombieEntity zombie, GoalSelector goalSelector, GoalSelector targetSelector) {
+        for (Entry entry : entries) {
+            Goal goal = entry.factory.apply(zombie);
+            if (entry.evaluationInterval > 1) {
+                goal = new BudgetedGoal(zombie, goal, entry.evaluationInterval);
+            }
+
+            if (entry.targetGoal) {
+                targetSelector.addGoal(entry.priority, goal);
+            } else {
+                goalSelector.addGoal(entry.priority, goal);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getTickBudget() {
+        return tickBudget;
+    }
+
+    public double getAmortizedCost() {
+        return amortizedCost;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Crée un constructeur de profil
+     * @param name Nom du profil
+     * @param tickBudget Coût moyen maximal par tick
+     * @return Le constructeur
+     */
+    public static Builder builder(String name, double tickBudget) {
+        return new Builder(name, tickBudget);
+    }
+
+    /**
+     * Constructeur de profil de goals
+     */
+    public static class Builder {
+        private final String name;
+        private final double tickBudget;
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Builder(String name, double tickBudget) {
+            this.name = name;
+            this.tickBudget = tickBudget;
+        }
+
+        /**
+         * Ajoute un goal de comportement
+         * @param name Nom du goal (pour les journaux et les métriques)
+         * @param priority Priorité du goal
+         * @param factory Fabrique du goal
+         * @param evaluationInterval Intervalle d'évaluation (en ticks)
+         * @param cost Coût estimé d'une évaluation
+         * @return Ce constructeur
+         */
+        public Builder goal(String name, int priority, Function<SmartZombieEntity, Goal> factory, int evaluationInterval, int cost) {
+            entries.add(new Entry(name, priority, factory, evaluationInterval, cost, false));
+            return this;
+        }
+
+        /**
+         * Ajoute un goal de ciblage
+         * @param name Nom du goal
+         * @param priority Priorité du goal
+         * @param factory Fabrique du goal
+         * @param evaluationInterval Intervalle d'évaluation (en ticks)
+         * @param cost Coût estimé d'une évaluation
+         * @return Ce constructeur
+         */
+        public Builder targetGoal(String name, int priority, Function<SmartZombieEntity, Goal> factory, int evaluationInterval, int cost) {
+            entries.add(new Entry(name, priority, factory, evaluationInterval, cost, true));
+            return this;
+        }
+
+        /**
+         * Copie les goals d'un autre constructeur
+         * @param other Constructeur source
+         * @return Ce constructeur
+         */
+        public Builder include(Builder other) {
+            entries.addAll(other.entries);
+            return this;
+        }
+
+        public GoalProfile build() {
+            return new GoalProfile(name, tickBudget, new ArrayList<>(entries));
+        }
+    }
+}
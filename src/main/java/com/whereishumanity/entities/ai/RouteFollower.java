@@ -0,0 +1,164 @@
+package com.whereishumanity.entities.ai;
+
+import com.whereishumanity.config.ModConfig;
+import com.whereishumanity.entities.SmartZombieEntity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+/**
+ * Suivi d'un itinéraire urbain par un zombie
+ * Pour une destination lointaine, le zombie vise successivement les intersections de l'itinéraire
+ * calculé par {@link CityRoutePlanner} ; chaque étape ne demande qu'un court chemin vanilla.
+ * Pour une destination proche, la destination est visée directement, de même que pendant le
+ * calcul de l'itinéraire.
+ */
+public class RouteFollower {
+    // Distance horizontale (au carré) à laquelle une intersection est considérée comme atteinte
+    private static final double WAYPOINT_REACHED_DISTANCE_SQ = 9.0;
+
+    // Nombre de replanifications autorisées par destination après un segment infranchissable
+    private static final int MAX_REPLANS = 3;
+
+    private final SmartZombieEntity zombie;
+    private BlockPos destination;
+    private CityRoutePlanner.RouteRequest request;
+    private CityRoutePlanner.Route route;
+    private boolean newRoute;
+    private int waypointIndex;
+    private int replans;
+
+    /**
+     * Constructeur
+     * @param zombie Le zombie qui suit l'itinéraire
+     */
+    public RouteFollower(SmartZombieEntity zombie) {
+        this.zombie = zombie;
+    }
+
+    /**
+     * Prépare le déplacement vers une destination
+     * @param destination La destination finale
+     */
+    public void setDestination(BlockPos destination) {
+        this.destination = destination.immutable();
+        this.replans = 0;
+        plan();
+    }
+
+    private void plan() {
+        this.request = null;
+        this.route = null;
+        this.newRoute = false;
+        this.waypointIndex = 0;
+
+        if (!ModConfig.COMMON.cityRoutingEnabled.get() || !(zombie.level() instanceof ServerLevel level)) {
+            return;
+        }
+
+        // Les trajets courts restent confiés au pathfinding vanilla
+        double dx = destination.getX() - zombie.getX();
+        double dz = destination.getZ() - zombie.getZ();
+        double minDistance = ModConfig.COMMON.cityRoutingMinDistance.get();
+        if (dx * dx + dz * dz < minDistance * minDistance) {
+            return;
+        }
+
+        this.request = CityRoutePlanner.requestRoute(level, zombie.blockPosition(), destination);
+        pollRequest();
+    }
+
+    /**
+     * Récupère l'itinéraire si sa recherche vient de se terminer
+     */
+    private void pollRequest() {
+        if (request != null && request.isDone()) {
+            this.route = request.getRoute();
+            this.newRoute = route != null;
+            this.waypointIndex = 0;
+            this.request = null;
+        }
+    }
+
+    /**
+     * Prochaine position à viser : l'intersection courante de l'itinéraire, ou la destination
+     * Les intersections déjà atteintes sont passées.
+     * @return La position à viser
+     */
+    public BlockPos getNextTarget() {
+        this.newRoute = false;
+        while (isFollowingRoute()) {
+            BlockPos waypoint = route.getWaypoint(waypointIndex, zombie.getBlockY());
+            double dx = waypoint.getX() + 0.5 - zombie.getX();
+            double dz = waypoint.getZ() + 0.5 - zombie.getZ();
+            if (dx * dx + dz * dz > WAYPOINT_REACHED_DISTANCE_SQ) {
+                return withSurfaceY(waypoint);
+            }
+            waypointIndex++;
+        }
+        return destination;
+    }
+
+    /**
+     * Signale qu'aucun chemin local n'a été trouvé vers la position renvoyée par {@link #getNextTarget()}
+     * Le segment en cours est marqué infranchissable et l'itinéraire est recalculé.
+     */
+    public void reportUnreachable() {
+        if (!isFollowingRoute() || !(zombie.level() instanceof ServerLevel level)) {
+            return;
+        }
+
+        if (waypointIndex > 0) {
+            CityRoutePlanner.markBlocked(level, route.getNode(waypointIndex - 1), route.getNode(waypointIndex));
+        }
+
+        if (replans++ < MAX_REPLANS) {
+            plan();
+        } else {
+            // Abandonner l'itinéraire : viser directement la destination
+            this.route = null;
+        }
+    }
+
+    /**
+     * Vérifie s'il reste des intersections à atteindre avant la destination
+     */
+    public boolean isFollowingRoute() {
+        pollRequest();
+        return route != null && waypointIndex < route.size();
+    }
+
+    /**
+     * Vérifie si un itinéraire est encore en cours de calcul
+     */
+    public boolean isAwaitingRoute() {
+        pollRequest();
+        return request != null;
+    }
+
+    /**
+     * Vérifie si un itinéraire est arrivé depuis le dernier appel à {@link #getNextTarget()}
+     * Le déplacement en cours (vers la destination) doit alors être remplacé.
+     */
+    public boolean hasNewRoute() {
+        pollRequest();
+        return newRoute;
+    }
+
+    public void clear() {
+        this.destination = null;
+        this.request = null;
+        this.route = null;
+        this.newRoute = false;
+    }
+
+    /**
+     * Place un point de passage à la surface si son chunk est chargé
+     */
+    private BlockPos withSurfaceY(BlockPos waypoint) {
+        if (!zombie.level().hasChunkAt(waypoint)) {
+            return waypoint;
+        }
+        return waypoint.atY(zombie.level().getHeight(Heightmap.Types.MOTION_BLOCKING_NO_LEAVES, waypoint.getX(), waypoint.getZ()));
+    }
+}
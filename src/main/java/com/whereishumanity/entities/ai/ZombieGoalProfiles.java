@@ -0,0 +1,72 @@
+package com.whereishumanity.entities.ai;
+
+import com.whereishumanity.config.ModConfig;
+import com.whereishumanity.entities.ai.goals.AlertOthersGoal;
+import com.whereishumanity.entities.ai.goals.BreakBlocksGoal;
+import com.whereishumanity.entities.ai.goals.FollowSoundGoal;
+import net.minecraft.world.entity.ai.goal.LookAtPlayerGoal;
+import net.minecraft.world.entity.ai.goal.MeleeAttackGoal;
+import net.minecraft.world.entity.ai.goal.MoveThroughVillageGoal;
+import net.minecraft.world.entity.ai.goal.RandomLookAroundGoal;
+import net.minecraft.world.entity.ai.goal.RandomStrollGoal;
+import net.minecraft.world.entity.ai.goal.target.HurtByTargetGoal;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Table des profils de goals de chaque variante de zombie
+ * Les intervalles sont exprimés en ticks, les coûts en unités arbitraires
+ * (1 = test simple, 2 = requête d'entités ou calcul de chemin court, 4+ = requêtes du monde répétées)
+ */
+public class ZombieGoalProfiles {
+
+    // Intervalle d'évaluation du bris de blocs pour les variantes autres que la brute
+    private static final int THROTTLED_BREAK_INTERVAL = 10;
+
+    // Goals de comportement communs à toutes les variantes, hors suivi des sons
+    private static final GoalProfile.Builder COMMON = GoalProfile.builder("common", 0)
+            .goal("melee_attack", 1, zombie -> new MeleeAttackGoal(zombie, 1.0D, true), 1, 2)
+            .goal("move_through_village", 3, zombie -> new MoveThroughVillageGoal(zombie, 1.0D, false, 4, () -> false), 20, 4)
+            .goal("random_stroll", 4, zombie -> new RandomStrollGoal(zombie, 0.8D), 1, 1)
+            .goal("look_at_player", 5, zombie -> new LookAtPlayerGoal(zombie, Player.class, 8.0F), 2, 2)
+            .goal("random_look_around", 6, RandomLookAroundGoal::new, 1, 1)
+            // Objectifs de ciblage - aucun ciblage visuel automatique
+            // Les zombies ne peuvent pas voir les joueurs automatiquement, ils doivent les entendre ou les sentir
+            .targetGoal("hurt_by_target", 1, HurtByTargetGoal::new, 1, 1);
+
+    /**
+     * Zombie intelligent de base : enquête sur les sons, brise des blocs occasionnellement
+     */
+    public static final GoalProfile SMART = GoalProfile.builder("smart_zombie", 9.0)
+            .include(COMMON)
+            .goal("investigate_sound", 2, zombie -> new ZombieInvestigateSoundGoal(zombie, 1.0D), 2, 2)
+            .goal("break_blocks", 0, zombie -> new BreakBlocksGoal(zombie, 1.0F), THROTTLED_BREAK_INTERVAL, 4)
+            .build();
+
+    /**
+     * Coureur : se précipite directement vers les sons plutôt que d'enquêter
+     */
+    public static final GoalProfile RUNNER = GoalProfile.builder("runner_zombie", 9.0)
+            .include(COMMON)
+            .goal("follow_sound", 2, zombie -> new FollowSoundGoal(zombie, 1.2D), 1, 2)
+            .goal("break_blocks", 0, zombie -> new BreakBlocksGoal(zombie, 1.0F), THROTTLED_BREAK_INTERVAL, 4)
+            .build();
+
+    /**
+     * Brute : seule variante à évaluer le bris de blocs à chaque tick
+     */
+    public static final GoalProfile BRUTE = GoalProfile.builder("brute_zombie", 12.0)
+            .include(COMMON)
+            .goal("investigate_sound", 2, zombie -> new ZombieInvestigateSoundGoal(zombie, 1.0D), 2, 2)
+            .goal("break_blocks", 0, zombie -> new BreakBlocksGoal(zombie, 1.0F), 1, 4)
+            .build();
+
+    /**
+     * Hurleur : seule variante à alerter activement les autres zombies
+     */
+    public static final GoalProfile SCREAMER = GoalProfile.builder("screamer_zombie", 10.0)
+            .include(COMMON)
+            .goal("investigate_sound", 2, zombie -> new ZombieInvestigateSoundGoal(zombie, 1.0D), 2, 2)
+            .goal("alert_others", 0, zombie -> new AlertOthersGoal(zombie, ModConfig.COMMON.zombieAlertRadius.get()), 5, 6)
+            .goal("break_blocks", 0, zombie -> new BreakBlocksGoal(zombie, 1.0F), THROTTLED_BREAK_INTERVAL, 4)
+            .build();
+}
@@ -1,19 +1,29 @@
 package com.whereishumanity.entities.ai;
 
 import com.whereishumanity.entities.SmartZombieEntity;
+import com.whereishumanity.sound.ScentTrailSystem;
+import com.whereishumanity.sound.SoundDetectionSystem;
+import com.whereishumanity.world.PerformanceGovernor;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.pathfinder.Path;
 
 import java.util.EnumSet;
+import java.util.UUID;
 
 /**
  * Goal pour faire en sorte que les zombies aillent enquêter sur les sons qu'ils entendent
  */
 public class ZombieInvestigateSoundGoal extends Goal {
+    // Rayon dans lequel le zombie cherche une piste olfactive une fois sur place
+    private static final double SCENT_SEARCH_RANGE = 6.0;
+    
     private final SmartZombieEntity zombie;
+    private final ScentTrailSystem.ScentMatch scentMatch = new ScentTrailSystem.ScentMatch();
+    private float lastScentIntensity;
     private final double speedModifier;
+    private final RouteFollower route;
     private Path path;
     private BlockPos targetPos;
     private int timeAtTarget;
@@ -27,6 +37,7 @@ public class ZombieInvestigateSoundGoal extends Goal {
     public ZombieInvestigateSoundGoal(SmartZombieEntity zombie, double speedModifier) {
         this.zombie = zombie;
         this.speedModifier = speedModifier;
+        this.route = new RouteFollower(zombie);
         this.setFlags(EnumSet.of(Goal.Flag.MOVE));
     }
 
@@ -50,9 +61,15 @@ public class ZombieInvestigateSoundGoal extends Goal {
         // Si le zombie a entendu un son, il doit l'investiguer
         BlockPos soundPos = this.zombie.getTargetSound();
         if (soundPos != null) {
+            // Budget de calcul de chemins épuisé pour ce tick : réessayer plus tard
+            if (!PerformanceGovernor.tryConsumePathBudget()) {
+                return false;
+            }
+            
             targetPos = soundPos;
-            // Calculer un chemin vers la position du son
-            this.path = this.zombie.getNavigation().createPath(targetPos.getX(), targetPos.getY(), targetPos.getZ(), 0);
+            // Calculer un chemin vers la position du son (ou vers la première intersection si elle est loin)
+            this.route.setDestination(targetPos);
+            this.path = this.zombie.getNavigation().createPath(this.route.getNextTarget(), 0);
             return this.path != null;
         }
         
@@ -71,7 +88,7 @@ public class ZombieInvestigateSoundGoal extends Goal {
         }
         
         // Si le chemin est invalide ou si il n'y a plus de son à investiguer
-        if (this.path != null && !this.path.isDone() && this.zombie.getSoundTrackingCooldown() > 0 && this.timeAtTarget < 100) {
+        if (this.path != null && (!this.path.isDone() || this.route.isFollowingRoute() || this.route.isAwaitingRoute()) && this.zombie.getSoundTrackingCooldown() > 0 && this.timeAtTarget < 100) {
             return true;
         }
         
@@ -85,6 +102,7 @@ public class ZombieInvestigateSoundGoal extends Goal {
     public void start() {
         this.zombie.getNavigation().moveTo(this.path, this.speedModifier);
         this.timeAtTarget = 0;
+        this.lastScentIntensity = 0.0F;
     }
 
     /**
@@ -94,6 +112,7 @@ public class ZombieInvestigateSoundGoal extends Goal {
     public void stop() {
         this.targetPos = null;
         this.path = null;
+        this.route.clear();
         this.zombie.getNavigation().stop();
         this.searchDelay = 10 + this.zombie.getRandom().nextInt(20);
     }
@@ -105,6 +124,14 @@ public class ZombieInvestigateSoundGoal extends Goal {
     public void tick() {
         // Si on est proche de la position cible, on commence à chercher autour
         if (this.targetPos != null) {
+            // Étape suivante de l'itinéraire urbain une fois l'intersection courante atteinte,
+            // ou première intersection dès que l'itinéraire a été calculé
+            if ((this.route.hasNewRoute() || (this.route.isFollowingRoute() && this.zombie.getNavigation().isDone()))
+                    && PerformanceGovernor.tryConsumePathBudget()) {
+                moveToNextWaypoint();
+                return;
+            }
+            
             double distanceSquared = this.zombie.blockPosition().distSqr(this.targetPos);
             
             if (distanceSquared <= 3.0) {
@@ -121,7 +148,7 @@ public class ZombieInvestigateSoundGoal extends Goal {
                     );
                     
                     // Si on est resté assez longtemps à chercher, changer légèrement de position
-                    if (this.timeAtTarget >= 60) { // 3 secondes
+                    if (this.timeAtTarget >= 60 && PerformanceGovernor.tryConsumePathBudget()) { // 3 secondes
                         BlockPos newPos = this.targetPos.offset(
                             this.zombie.getRandom().nextInt(5) - 2,
                             0,
@@ -138,14 +165,9 @@ public class ZombieInvestigateSoundGoal extends Goal {
                     }
                 }
                 
-                // Vérifier si on peut sentir un joueur accroupi à proximité
-                double smellRange = 3.5; // Distance de détection olfactive
-                for (Player player : this.zombie.level().getEntitiesOfClass(Player.class, this.zombie.getBoundingBox().inflate(smellRange))) {
-                    if (player.isShiftKeyDown()) {
-                        // Si on trouve un joueur accroupi à proximité, l'attaquer
-                        this.zombie.setTarget(player);
-                        break;
-                    }
+                // Chercher une piste olfactive plus fraîche que la dernière suivie
+                if (this.timeAtTarget % ScentTrailSystem.SAMPLE_INTERVAL == 0) {
+                    followScent();
                 }
             } else if (distanceSquared <= 25.0 && this.zombie.getNavigation().isDone()) {
                 // Si on est proche mais que le pathfinding est bloqué, on regarde dans la direction du son
@@ -157,4 +179,57 @@ public class ZombieInvestigateSoundGoal extends Goal {
             }
         }
     }
+    
+    /**
+     * Calcule le chemin vers la prochaine intersection de l'itinéraire (ou vers le son)
+     */
+    private void moveToNextWaypoint() {
+        Path next = this.zombie.getNavigation().createPath(this.route.getNextTarget(), 0);
+        if (next == null) {
+            // Intersection inaccessible : le segment est signalé et l'itinéraire recalculé
+            this.route.reportUnreachable();
+            next = this.zombie.getNavigation().createPath(this.route.getNextTarget(), 0);
+        }
+        if (next != null) {
+            this.path = next;
+            this.zombie.getNavigation().moveTo(this.path, this.speedModifier);
+        }
+    }
+    
+    /**
+     * Suit la piste olfactive du joueur suivi, en remontant vers les échantillons les plus frais
+     */
+    private void followScent() {
+        UUID trackedPlayer = this.zombie.getTrackedPlayer();
+        if (trackedPlayer == null) {
+            return;
+        }
+        
+        // Le joueur n'est détecté que s'il est réellement à portée, jamais par sa seule piste
+        Player player = this.zombie.level().getPlayerByUUID(trackedPlayer);
+        if (player != null && player.isAlive() && !player.isSpectator()
+                && this.zombie.distanceTo(player) <= SoundDetectionSystem.SNEAK_DETECTION_DISTANCE) {
+            this.zombie.setTarget(player);
+            return;
+        }
+        
+        float minIntensity = Math.max(SoundDetectionSystem.MIN_SCENT_INTENSITY, this.lastScentIntensity);
+        if (!ScentTrailSystem.findNearestScent(this.zombie.level(), trackedPlayer,
+                this.zombie.getX(), this.zombie.getY(), this.zombie.getZ(),
+                SCENT_SEARCH_RANGE, minIntensity, this.scentMatch)) {
+            return;
+        }
+        
+        // Sinon, avancer vers l'échantillon suivant de la piste
+        if (this.scentMatch.intensity > this.lastScentIntensity && PerformanceGovernor.tryConsumePathBudget()) {
+            this.lastScentIntensity = this.scentMatch.intensity;
+            this.targetPos = this.scentMatch.pos.immutable();
+            this.route.clear();
+            this.path = this.zombie.getNavigation().createPath(this.targetPos, 0);
+            if (this.path != null) {
+                this.zombie.getNavigation().moveTo(this.path, this.speedModifier);
+                this.timeAtTarget = 0;
+            }
+        }
+    }
 }
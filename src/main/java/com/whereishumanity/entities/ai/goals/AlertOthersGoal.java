@@ -19,7 +19,7 @@ public class AlertOthersGoal extends Goal {
     
     private final SmartZombieEntity zombie;
     private final double alertRadius;
-    private int alertCooldown = 0;
+    private long nextAlertTime = 0;
     private static final int BASE_COOLDOWN = 60; // 3 secondes entre les alertes
     
     public AlertOthersGoal(SmartZombieEntity zombie, double alertRadius) {
@@ -33,7 +33,7 @@ public class AlertOthersGoal extends Goal {
         // Vérifier si le zombie a une cible, est en alerte, et si le cooldown d'alerte est écoulé
         return zombie.getTarget() != null && 
                zombie.isAlerted() && 
-               alertCooldown <= 0 &&
+               zombie.level().getGameTime() >= nextAlertTime &&
                zombie.getRandom().nextInt(10) == 0; // Chance aléatoire pour éviter que tous les zombies hurlent en même temps
     }
     
@@ -68,23 +68,8 @@ public class AlertOthersGoal extends Goal {
         
         // Définir le cooldown avant la prochaine alerte
         // Les Screamer ont un cooldown plus court
-        if (zombie instanceof ScreamerZombieEntity) {
-            alertCooldown = BASE_COOLDOWN / 2;
-        } else {
-            alertCooldown = BASE_COOLDOWN;
-        }
-    }
-    
-    @Override
-    public void tick() {
-        // Réduire le cooldown d'alerte
-        if (alertCooldown > 0) {
-            alertCooldown--;
-        }
-    }
-    
-    @Override
-    public boolean requiresUpdateEveryTick() {
-        return true;
+        // (basé sur le temps de jeu pour continuer à s'écouler quand le goal est inactif)
+        int cooldown = zombie instanceof ScreamerZombieEntity ? BASE_COOLDOWN / 2 : BASE_COOLDOWN;
+        nextAlertTime = zombie.level().getGameTime() + cooldown;
     }
 }
\ No newline at end of file
@@ -78,11 +78,14 @@ public class BreakBlocksGoal extends Goal {
     
     @Override
     public void stop() {
+        // Arrêter l'animation de cassage (avant d'oublier la position du bloc)
+        if (targetPos != null) {
+            zombie.level().destroyBlockProgress(zombie.getId(), targetPos, -1);
+        }
+        
         this.targetPos = null;
         this.breakingTime = 0;
-        
-        // Arrêter l'animation de cassage
-        zombie.level().destroyBlockProgress(zombie.getId(), targetPos, -1);
+        this.lastBreakProgress = -1;
     }
     
     @Override
@@ -1,6 +1,8 @@
 package com.whereishumanity.entities.ai.goals;
 
 import com.whereishumanity.entities.SmartZombieEntity;
+import com.whereishumanity.entities.ai.RouteFollower;
+import com.whereishumanity.world.PerformanceGovernor;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.ai.goal.Goal;
 import net.minecraft.world.entity.ai.navigation.PathNavigation;
@@ -14,6 +16,7 @@ public class FollowSoundGoal extends Goal {
     
     private final SmartZombieEntity zombie;
     private final double speedModifier;
+    private final RouteFollower route;
     private BlockPos soundSource;
     private int timeToRecalcPath;
     private final int recalcDelay = 5; // Recalculer le chemin toutes les 5 ticks (0.25s)
@@ -21,6 +24,7 @@ public class FollowSoundGoal extends Goal {
     public FollowSoundGoal(SmartZombieEntity zombie, double speedModifier) {
         this.zombie = zombie;
         this.speedModifier = speedModifier;
+        this.route = new RouteFollower(zombie);
         this.setFlags(EnumSet.of(Goal.Flag.MOVE));
     }
     
@@ -36,20 +40,16 @@ public class FollowSoundGoal extends Goal {
         this.soundSource = zombie.getTargetSound();
         this.timeToRecalcPath = 0;
         
-        // Commencer à se déplacer vers la source du son
-        PathNavigation navigation = zombie.getNavigation();
-        navigation.moveTo(
-            soundSource.getX() + 0.5, 
-            soundSource.getY() + 0.5, 
-            soundSource.getZ() + 0.5, 
-            speedModifier
-        );
+        // Commencer à se déplacer vers la source du son (par le réseau routier si elle est loin)
+        route.setDestination(soundSource);
+        moveToNextTarget();
     }
     
     @Override
     public void stop() {
         // Si la source sonore disparaît ou si on trouve une cible visuelle, arrêter de suivre le son
         this.soundSource = null;
+        route.clear();
         zombie.getNavigation().stop();
     }
     
@@ -58,7 +58,7 @@ public class FollowSoundGoal extends Goal {
         // Continuer tant qu'on a une source sonore et pas de cible visuelle
         return zombie.getTargetSound() != null && 
                (zombie.getTarget() == null || !zombie.getTarget().isAlive()) &&
-               !zombie.getNavigation().isDone();
+               (!zombie.getNavigation().isDone() || route.isFollowingRoute() || route.isAwaitingRoute());
     }
     
     @Override
@@ -70,10 +70,11 @@ public class FollowSoundGoal extends Goal {
         if (!targetSound.equals(this.soundSource)) {
             this.soundSource = targetSound;
             this.timeToRecalcPath = 0;
+            route.setDestination(targetSound);
         }
         
-        // Recalculer le chemin périodiquement
-        if (--timeToRecalcPath <= 0) {
+        // Recalculer le chemin périodiquement, ou dès que l'itinéraire urbain est prêt
+        if (--timeToRecalcPath <= 0 || route.hasNewRoute()) {
             timeToRecalcPath = recalcDelay;
             
             // Vérifier si on est proche de la source du son
@@ -88,14 +89,9 @@ public class FollowSoundGoal extends Goal {
                     soundSource.getY() + 0.5, 
                     soundSource.getZ() + 0.5
                 );
-            } else {
+            } else if (PerformanceGovernor.tryConsumePathBudget()) {
                 // Continuer à se déplacer vers la source du son
-                zombie.getNavigation().moveTo(
-                    soundSource.getX() + 0.5, 
-                    soundSource.getY() + 0.5, 
-                    soundSource.getZ() + 0.5, 
-                    speedModifier
-                );
+                moveToNextTarget();
             }
         }
         
@@ -108,4 +104,23 @@ public class FollowSoundGoal extends Goal {
             );
         }
     }
+    
+    /**
+     * Se déplace vers la prochaine intersection de l'itinéraire, ou directement vers la source du son
+     */
+    private void moveToNextTarget() {
+        BlockPos target = route.getNextTarget();
+        PathNavigation navigation = zombie.getNavigation();
+        boolean moving = navigation.moveTo(
+            target.getX() + 0.5, 
+            target.getY() + 0.5, 
+            target.getZ() + 0.5, 
+            speedModifier
+        );
+        
+        // Intersection inaccessible : signaler le segment et viser la suivante (ou la source) au prochain calcul
+        if (!moving && route.isFollowingRoute()) {
+            route.reportUnreachable();
+        }
+    }
 }
\ No newline at end of file
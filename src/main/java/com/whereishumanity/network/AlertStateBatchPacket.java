@@ -0,0 +1,49 @@
+package com.whereishumanity.network;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.BitSet;
+import java.util.function.Supplier;
+
+/**
+ * Paquet regroupant les changements d'état d'alerte des zombies d'un chunk
+ * Un seul paquet est envoyé par chunk et par tick, quel que soit le nombre de zombies concernés
+ */
+public class AlertStateBatchPacket {
+    private final int[] entityIds;
+    private final BitSet alerted;
+
+    /**
+     * Constructeur
+     * @param entityIds Identifiants réseau des zombies
+     * @param alerted États d'alerte (bit i = état du zombie entityIds[i])
+     */
+    public AlertStateBatchPacket(int[] entityIds, BitSet alerted) {
+        this.entityIds = entityIds;
+        this.alerted = alerted;
+    }
+
+    public static void encode(AlertStateBatchPacket packet, FriendlyByteBuf buf) {
+        buf.writeVarIntArray(packet.entityIds);
+        buf.writeBitSet(packet.alerted);
+    }
+
+    public static AlertStateBatchPacket decode(FriendlyByteBuf buf) {
+        return new AlertStateBatchPacket(buf.readVarIntArray(), buf.readBitSet());
+    }
+
+    public static void handle(AlertStateBatchPacket packet, Supplier<NetworkEvent.Context> context) {
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> ClientPacketHandler.handleAlertStates(packet));
+    }
+
+    public int[] getEntityIds() {
+        return entityIds;
+    }
+
+    public boolean isAlerted(int index) {
+        return alerted.get(index);
+    }
+}
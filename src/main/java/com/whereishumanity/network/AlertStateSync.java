@@ -0,0 +1,104 @@
+package com.whereishumanity.network;
+
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.entities.SmartZombieEntity;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.network.PacketDistributor;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Synchronisation groupée de l'état d'alerte des zombies
+ * Les changements d'état sont collectés pendant le tick, puis envoyés en fin de tick
+ * sous la forme d'un seul paquet par chunk aux joueurs qui suivent ce chunk.
+ */
+@Mod.EventBusSubscriber(modid = WhereIsHumanity.MOD_ID)
+public class AlertStateSync {
+
+    // Zombies dont l'état d'alerte a changé depuis le dernier envoi
+    private static final Set<SmartZombieEntity> DIRTY = new LinkedHashSet<>();
+
+    /**
+     * Signale un changement d'état d'alerte à synchroniser
+     * @param zombie Le zombie dont l'état a changé
+     */
+    public static void markDirty(SmartZombieEntity zombie) {
+        DIRTY.add(zombie);
+    }
+
+    /**
+     * Envoie les changements collectés pendant le tick
+     * @param event Événement de tick serveur
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || DIRTY.isEmpty()) return;
+
+        // Regrouper les zombies par dimension puis par chunk
+        Map<ServerLevel, Long2ObjectOpenHashMap<List<SmartZombieEntity>>> byLevel = new HashMap<>();
+        for (SmartZombieEntity zombie : DIRTY) {
+            // Un zombie qui a changé d'état puis est revenu à son état initial n'a rien à envoyer
+            if (!zombie.consumeAlertDirty() || zombie.isRemoved() || !zombie.isAddedToWorld()) continue;
+            if (!(zombie.level() instanceof ServerLevel serverLevel)) continue;
+
+            byLevel.computeIfAbsent(serverLevel, level -> new Long2ObjectOpenHashMap<>())
+                    .computeIfAbsent(zombie.chunkPosition().toLong(), key -> new ObjectArrayList<>())
+                    .add(zombie);
+        }
+        DIRTY.clear();
+
+        byLevel.forEach((level, chunks) -> {
+            for (Long2ObjectMap.Entry<List<SmartZombieEntity>> entry : chunks.long2ObjectEntrySet()) {
+                ChunkPos chunkPos = new ChunkPos(entry.getLongKey());
+                LevelChunk chunk = level.getChunkSource().getChunkNow(chunkPos.x, chunkPos.z);
+                if (chunk == null) continue;
+
+                ModNetwork.CHANNEL.send(PacketDistributor.TRACKING_CHUNK.with(() -> chunk), createPacket(entry.getValue()));
+            }
+        });
+    }
+
+    /**
+     * Envoie l'état d'un zombie alerté au joueur qui commence à le suivre
+     * @param event Événement de début de suivi d'une entité
+     */
+    @SubscribeEvent
+    public static void onStartTracking(PlayerEvent.StartTracking event) {
+        if (event.getTarget() instanceof SmartZombieEntity zombie && zombie.isAlerted()
+                && event.getEntity() instanceof ServerPlayer player) {
+            ModNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), createPacket(List.of(zombie)));
+        }
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        DIRTY.clear();
+    }
+
+    private static AlertStateBatchPacket createPacket(List<SmartZombieEntity> zombies) {
+        int[] entityIds = new int[zombies.size()];
+        BitSet alerted = new BitSet(zombies.size());
+        for (int i = 0; i < zombies.size(); i++) {
+            SmartZombieEntity zombie = zombies.get(i);
+            entityIds[i] = zombie.getId();
+            alerted.set(i, zombie.isAlerted());
+        }
+        return new AlertStateBatchPacket(entityIds, alerted);
+    }
+}
@@ -0,0 +1,30 @@
+package com.whereishumanity.network;
+
+import com.whereishumanity.entities.SmartZombieEntity;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * Traitement des paquets côté client
+ * Cette classe ne doit être chargée que sur le client
+ */
+public class ClientPacketHandler {
+
+    /**
+     * Applique un lot de changements d'état d'alerte
+     * @param packet Le paquet reçu
+     */
+    public static void handleAlertStates(AlertStateBatchPacket packet) {
+        ClientLevel level = Minecraft.getInstance().level;
+        if (level == null) return;
+
+        int[] entityIds = packet.getEntityIds();
+        for (int i = 0; i < entityIds.length; i++) {
+            Entity entity = level.getEntity(entityIds[i]);
+            if (entity instanceof SmartZombieEntity zombie) {
+                zombie.setAlerted(packet.isAlerted(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.whereishumanity.network;
+
+import com.whereishumanity.WhereIsHumanity;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.simple.SimpleChannel;
+
+/**
+ * Canal réseau du mod "Where is Humanity"
+ * Cette classe gère l'enregistrement de tous les paquets échangés entre le serveur et les clients
+ */
+public class ModNetwork {
+    // Version du protocole (à incrémenter à chaque changement de format des paquets)
+    private static final String PROTOCOL_VERSION = "1";
+
+    public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
+            new ResourceLocation(WhereIsHumanity.MOD_ID, "main"),
+            () -> PROTOCOL_VERSION,
+            PROTOCOL_VERSION::equals,
+            PROTOCOL_VERSION::equals
+    );
+
+    /**
+     * Enregistre tous les paquets du mod
+     */
+    public static void register() {
+        int id = 0;
+
+        CHANNEL.messageBuilder(AlertStateBatchPacket.class, id++, NetworkDirection.PLAY_TO_CLIENT)
+                .encoder(AlertStateBatchPacket::encode)
+                .decoder(AlertStateBatchPacket::decode)
+                .consumerMainThread(AlertStateBatchPacket::handle)
+                .add();
+
+        WhereIsHumanity.LOGGER.info("ModNetwork: {} paquets enregistrés", id);
+    }
+}
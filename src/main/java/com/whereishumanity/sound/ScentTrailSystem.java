@@ -0,0 +1,228 @@
+package com.whereishumanity.sound;
+
+import com.whereishumanity.WhereIsHumanity;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Système de pistes olfactives laissées par les joueurs
+ * Chaque joueur possède un tampon circulaire de taille fixe contenant ses positions récentes,
+ * dont l'intensité décroît avec le temps. Les zombies peuvent ainsi suivre un joueur accroupi
+ * même lorsqu'il est sorti de leur portée de détection immédiate.
+ */
+@Mod.EventBusSubscriber(modid = WhereIsHumanity.MOD_ID)
+public class ScentTrailSystem {
+
+    // Nombre d'échantillons conservés par joueur
+    public static final int TRAIL_LENGTH = 32;
+
+    // Intervalle d'échantillonnage (en ticks)
+    public static final int SAMPLE_INTERVAL = 10;
+
+    // Durée de vie d'un échantillon avant disparition complète (en ticks)
+    public static final int SCENT_DURATION = TRAIL_LENGTH * SAMPLE_INTERVAL; // 16 secondes
+
+    // Distance minimale (au carré) parcourue avant d'enregistrer un nouvel échantillon
+    private static final int MIN_SAMPLE_DISTANCE_SQR = 1;
+
+    // Pistes actives par joueur
+    private static final Map<UUID, ScentTrail> TRAILS = new HashMap<>();
+
+    /**
+     * Piste olfactive d'un joueur : tampon circulaire de positions primitives
+     * Aucune allocation n'est faite après la construction
+     */
+    public static class ScentTrail {
+        private final UUID owner;
+        private final int[] xs = new int[TRAIL_LENGTH];
+        private final int[] ys = new int[TRAIL_LENGTH];
+        private final int[] zs = new int[TRAIL_LENGTH];
+        private final long[] times = new long[TRAIL_LENGTH];
+        private int head = 0; // Prochain emplacement d'écriture
+        private int size = 0;
+        private Level level;
+
+        // Boîte englobante des échantillons, utilisée comme index spatial grossier
+        private int minX, minY, minZ, maxX, maxY, maxZ;
+
+        public ScentTrail(UUID owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Ajoute un échantillon de position à la piste
+         * @param level Le niveau où se trouve le joueur
+         * @param pos Position du joueur
+         * @param gameTime Temps de jeu actuel
+         */
+        void sample(Level level, BlockPos pos, long gameTime) {
+            // Changement de dimension : l'ancienne piste n'a plus de sens
+            if (this.level != level) {
+                this.level = level;
+                this.size = 0;
+                this.head = 0;
+            }
+
+            // Ignorer les échantillons trop proches du précédent (joueur immobile)
+            if (size > 0) {
+                int last = (head - 1 + TRAIL_LENGTH) % TRAIL_LENGTH;
+                int dx = pos.getX() - xs[last];
+                int dy = pos.getY() - ys[last];
+                int dz = pos.getZ() - zs[last];
+                if (dx * dx + dy * dy + dz * dz < MIN_SAMPLE_DISTANCE_SQR) {
+                    // Rafraîchir l'odeur sur place
+                    times[last] = gameTime;
+                    return;
+                }
+            }
+
+            xs[head] = pos.getX();
+            ys[head] = pos.getY();
+            zs[head] = pos.getZ();
+            times[head] = gameTime;
+            head = (head + 1) % TRAIL_LENGTH;
+            if (size < TRAIL_LENGTH) {
+                size++;
+            }
+
+            recomputeBounds();
+        }
+
+        /**
+         * Recalcule la boîte englobante de la piste, en O(longueur de la piste)
+         */
+        private void recomputeBounds() {
+            minX = minY = minZ = Integer.MAX_VALUE;
+            maxX = maxY = maxZ = Integer.MIN_VALUE;
+            for (int i = 0; i < size; i++) {
+                minX = Math.min(minX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                minZ = Math.min(minZ, zs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                maxY = Math.max(maxY, ys[i]);
+                maxZ = Math.max(maxZ, zs[i]);
+            }
+        }
+
+        /**
+         * Vérifie si la sphère de recherche peut intersecter la piste
+         */
+        private boolean mayContain(double x, double y, double z, double radius) {
+            return size > 0
+                    && x + radius >= minX && x - radius <= maxX + 1
+                    && y + radius >= minY && y - radius <= maxY + 1
+                    && z + radius >= minZ && z - radius <= maxZ + 1;
+        }
+
+        /**
+         * Calcule l'intensité d'un échantillon (1.0 = frais, 0.0 = disparu)
+         */
+        private float intensityOf(int index, long gameTime) {
+            long age = gameTime - times[index];
+            if (age >= SCENT_DURATION) {
+                return 0.0F;
+            }
+            return 1.0F - (float) age / SCENT_DURATION;
+        }
+
+        public UUID getOwner() {
+            return owner;
+        }
+    }
+
+    /**
+     * Résultat réutilisable d'une recherche d'odeur, pour éviter toute allocation
+     */
+    public static class ScentMatch {
+        public final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        public UUID owner;
+        public float intensity;
+    }
+
+    /**
+     * Cherche l'odeur fraîche la plus proche d'une position sur la piste d'un joueur donné
+     * Sert uniquement à orienter un zombie qui suit déjà ce joueur : une odeur ne rend jamais
+     * le joueur détectable.
+     * @param level Le niveau de recherche
+     * @param owner Joueur dont la piste est suivie
+     * @param x Coordonnée X de recherche
+     * @param y Coordonnée Y de recherche
+     * @param z Coordonnée Z de recherche
+     * @param radius Rayon de recherche (en blocs)
+     * @param minIntensity Intensité minimale pour qu'une odeur soit prise en compte
+     * @param result Résultat à remplir (réutilisé par l'appelant)
+     * @return true si une odeur a été trouvée
+     */
+    public static boolean findNearestScent(Level level, UUID owner, double x, double y, double z, double radius,
+                                           float minIntensity, ScentMatch result) {
+        ScentTrail trail = TRAILS.get(owner);
+        if (trail == null || trail.level != level || !trail.mayContain(x, y, z, radius)) {
+            return false;
+        }
+
+        long gameTime = level.getGameTime();
+        double bestDistSqr = radius * radius;
+        boolean found = false;
+
+        for (int i = 0; i < trail.size; i++) {
+            float intensity = trail.intensityOf(i, gameTime);
+            if (intensity < minIntensity) {
+                continue;
+            }
+
+            double dx = trail.xs[i] + 0.5 - x;
+            double dy = trail.ys[i] + 0.5 - y;
+            double dz = trail.zs[i] + 0.5 - z;
+            double distSqr = dx * dx + dy * dy + dz * dz;
+
+            // À distance égale, préférer l'odeur la plus fraîche
+            if (distSqr < bestDistSqr || (found && distSqr == bestDistSqr && intensity > result.intensity)) {
+                bestDistSqr = distSqr;
+                result.pos.set(trail.xs[i], trail.ys[i], trail.zs[i]);
+                result.owner = trail.owner;
+                result.intensity = intensity;
+                found = true;
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Échantillonne la position des joueurs côté serveur
+     * @param event Événement de tick du joueur
+     */
+    @SubscribeEvent
+    public static void onPlayerTick(TickEvent.PlayerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || !(event.player.level() instanceof ServerLevel level)) {
+            return;
+        }
+
+        Player player = event.player;
+        if (player.isSpectator() || player.tickCount % SAMPLE_INTERVAL != 0) {
+            return;
+        }
+
+        TRAILS.computeIfAbsent(player.getUUID(), ScentTrail::new)
+              .sample(level, player.blockPosition(), level.getGameTime());
+    }
+
+    /**
+     * Supprime la piste d'un joueur qui se déconnecte
+     * @param event Événement de déconnexion
+     */
+    @SubscribeEvent
+    public static void onPlayerLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+        TRAILS.remove(event.getEntity().getUUID());
+    }
+}
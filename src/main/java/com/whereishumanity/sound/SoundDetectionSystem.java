@@ -3,6 +3,7 @@ package com.whereishumanity.sound;
 import com.whereishumanity.WhereIsHumanity;
 import com.whereishumanity.config.ModConfig;
 import com.whereishumanity.entities.SmartZombieEntity;
+import com.whereishumanity.world.PerformanceGovernor;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.sounds.SoundEvents;
@@ -38,7 +39,10 @@ public class SoundDetectionSystem {
     private static final Map<String, List<SoundEvent>> ACTIVE_SOUNDS = new HashMap<>();
     
     // Seuil de distance pour détecter un joueur accroupi (en blocs)
-    private static final double SNEAK_DETECTION_DISTANCE = 3.5;
+    public static final double SNEAK_DETECTION_DISTANCE = 3.5;
+    
+    // Intensité minimale d'une piste olfactive pour qu'elle trahisse un joueur accroupi
+    public static final float MIN_SCENT_INTENSITY = 0.5F;
     
     // Modificateurs pour la course
     private static final double SPRINT_SOUND_MULTIPLIER = 2.0;
@@ -143,6 +147,9 @@ public class SoundDetectionSystem {
             default -> 8;
         };
         
+        // Réduire le rayon lorsque le serveur est surchargé
+        radius = Math.max(1, (int)(radius * PerformanceGovernor.getRadiusScale()));
+        
         // Si la source est un joueur qui court, augmenter le rayon de détection
         if (soundEvent.getSource() instanceof Player player && player.isSprinting()) {
             radius = (int)(radius * SPRINT_SOUND_MULTIPLIER);
@@ -165,10 +172,10 @@ public class SoundDetectionSystem {
             // Vérifier la ligne de vue si nécessaire pour les sons faibles
             if (soundEvent.getSoundLevel() == 1) {
                 if (hasLineOfSight(level, zombie.blockPosition(), soundEvent.getPosition())) {
-                    zombie.onSoundDetected(soundEvent.getPosition(), soundEvent.getSoundLevel());
+                    zombie.onSoundDetected(soundEvent.getPosition(), soundEvent.getSoundLevel(), soundEvent.getSource());
                 }
             } else {
-                zombie.onSoundDetected(soundEvent.getPosition(), soundEvent.getSoundLevel());
+                zombie.onSoundDetected(soundEvent.getPosition(), soundEvent.getSoundLevel(), soundEvent.getSource());
             }
         }
     }
@@ -241,7 +248,8 @@ public class SoundDetectionSystem {
         // Calculer la distance entre le zombie et le joueur
         double distance = zombie.distanceTo(player);
         
-        // Le joueur est détectable par l'odeur uniquement si il est très proche
+        // Le joueur est détectable par l'odeur uniquement s'il est très proche
+        // (la piste olfactive sert à orienter la poursuite, pas à détecter le joueur)
         return distance <= SNEAK_DETECTION_DISTANCE;
     }
     
@@ -0,0 +1,191 @@
+package com.whereishumanity.world;
+
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.config.ModConfig;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Arrays;
+
+/**
+ * Gouverneur adaptatif de la charge du mod
+ * Mesure le temps moyen par tick du serveur (MSPT) et, lorsqu'il dépasse un seuil, réduit
+ * progressivement les rayons de détection, la portée de l'IA détaillée, la taille des groupes
+ * de spawn et le budget de calcul de chemins. Les réglages sont restaurés cran par cran
+ * lorsque la charge redescend.
+ */
+@Mod.EventBusSubscriber(modid = WhereIsHumanity.MOD_ID)
+public class PerformanceGovernor {
+
+    // Facteurs appliqués à chaque niveau de réduction (0 = aucun, 4 = maximal)
+    private static final double[] RADIUS_SCALE = {1.0, 0.85, 0.7, 0.55, 0.4};
+    private static final double[] AI_DETAIL_RANGE_SCALE = {1.0, 0.8, 0.6, 0.45, 0.3};
+    private static final double[] SPAWN_SCALE = {1.0, 0.85, 0.7, 0.5, 0.35};
+    private static final int[] PATH_BUDGET = {64, 48, 32, 16, 8};
+    public static final int MAX_LEVEL = RADIUS_SCALE.length - 1;
+
+    // Fenêtre glissante de mesure (5 secondes)
+    private static final int WINDOW_SIZE = 100;
+    private static final long[] TICK_NANOS = new long[WINDOW_SIZE];
+    private static int windowIndex = 0;
+    private static int windowFill = 0;
+    private static long windowTotal = 0;
+    private static long tickStart = 0;
+
+    // Intervalle d'évaluation et délai minimal avant de restaurer un cran (en ticks)
+    private static final int EVALUATION_INTERVAL = 20;
+    private static final int RESTORE_DELAY = 200;
+
+    // Délai minimal entre deux réductions : la fenêtre doit avoir été renouvelée depuis la précédente,
+    // sinon le pic qui l'a déclenchée suffirait à descendre jusqu'au niveau maximal
+    private static final int STEP_UP_DELAY = WINDOW_SIZE;
+
+    // Écart appliqué lorsque les seuils configurés sont égaux
+    private static final double MIN_HYSTERESIS = 0.8;
+
+    private static boolean thresholdsWarned = false;
+
+    private static int level = 0;
+    private static int ticksSinceChange = 0;
+    private static int tickCounter = 0;
+    private static int pathBudgetRemaining = PATH_BUDGET[0];
+
+    /**
+     * Mesure la durée de chaque tick serveur et ajuste le niveau de réduction
+     * @param event Événement de tick serveur
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase == TickEvent.Phase.START) {
+            tickStart = System.nanoTime();
+            pathBudgetRemaining = PATH_BUDGET[level];
+            return;
+        }
+
+        if (tickStart == 0) return;
+
+        // Mettre à jour la moyenne glissante
+        long duration = System.nanoTime() - tickStart;
+        windowTotal += duration - TICK_NANOS[windowIndex];
+        TICK_NANOS[windowIndex] = duration;
+        windowIndex = (windowIndex + 1) % WINDOW_SIZE;
+        if (windowFill < WINDOW_SIZE) {
+            windowFill++;
+        }
+
+        ticksSinceChange++;
+        if (++tickCounter % EVALUATION_INTERVAL != 0) {
+            return;
+        }
+
+        if (!ModConfig.COMMON.adaptiveGovernorEnabled.get()) {
+            if (level != 0) {
+                setLevel(0, getAverageMspt());
+            }
+            return;
+        }
+
+        double highMspt = ModConfig.COMMON.governorHighMspt.get();
+        double lowMspt = ModConfig.COMMON.governorLowMspt.get();
+        if (lowMspt >= highMspt) {
+            // Seuils inversés ou égaux : le gouverneur oscillerait à chaque évaluation
+            if (!thresholdsWarned) {
+                WhereIsHumanity.LOGGER.warn("Gouverneur: governorLowMspt ({}) doit être inférieur à governorHighMspt ({}), seuils corrigés",
+                        lowMspt, highMspt);
+                thresholdsWarned = true;
+            }
+            double swapped = lowMspt;
+            lowMspt = Math.min(highMspt, swapped * MIN_HYSTERESIS);
+            highMspt = swapped;
+        }
+
+        double mspt = getAverageMspt();
+        if (mspt > highMspt && level < MAX_LEVEL && (level == 0 || ticksSinceChange >= STEP_UP_DELAY)) {
+            setLevel(level + 1, mspt);
+        } else if (mspt < lowMspt && level > 0 && ticksSinceChange >= RESTORE_DELAY) {
+            setLevel(level - 1, mspt);
+        }
+    }
+
+    private static void setLevel(int newLevel, double mspt) {
+        if (newLevel > level) {
+            WhereIsHumanity.LOGGER.info("Gouverneur: charge élevée ({} ms/tick), réduction au niveau {}/{}",
+                    String.format("%.1f", mspt), newLevel, MAX_LEVEL);
+        } else {
+            WhereIsHumanity.LOGGER.info("Gouverneur: charge normale ({} ms/tick), restauration au niveau {}/{}",
+                    String.format("%.1f", mspt), newLevel, MAX_LEVEL);
+        }
+        level = newLevel;
+        ticksSinceChange = 0;
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        level = 0;
+        ticksSinceChange = 0;
+        tickCounter = 0;
+        tickStart = 0;
+        thresholdsWarned = false;
+        windowIndex = 0;
+        windowFill = 0;
+        windowTotal = 0;
+        Arrays.fill(TICK_NANOS, 0);
+    }
+
+    /**
+     * Temps moyen par tick sur la fenêtre glissante
+     * @return MSPT moyen en millisecondes
+     */
+    public static double getAverageMspt() {
+        return windowFill == 0 ? 0.0 : windowTotal / (double) windowFill / 1_000_000.0;
+    }
+
+    /**
+     * Niveau de réduction actuel (0 = aucun)
+     */
+    public static int getLevel() {
+        return level;
+    }
+
+    /**
+     * Facteur à appliquer aux rayons de détection sonore et d'alerte
+     */
+    public static double getRadiusScale() {
+        return RADIUS_SCALE[level];
+    }
+
+    /**
+     * Facteur à appliquer à la portée dans laquelle les zombies exécutent leur IA complète
+     */
+    public static double getAiDetailRangeScale() {
+        return AI_DETAIL_RANGE_SCALE[level];
+    }
+
+    /**
+     * Proportion des spawns naturels de zombies conservés
+     */
+    public static double getSpawnScale() {
+        return SPAWN_SCALE[level];
+    }
+
+    /**
+     * Consomme une unité du budget de calcul de chemins du tick courant
+     * @return true si un chemin peut être calculé ce tick-ci
+     */
+    public static boolean tryConsumePathBudget() {
+        if (pathBudgetRemaining <= 0) {
+            return false;
+        }
+        pathBudgetRemaining--;
+        return true;
+    }
+
+    /**
+     * Budget de calcul de chemins par tick au niveau actuel
+     */
+    public static int getPathBudget() {
+        return PATH_BUDGET[level];
+    }
+}
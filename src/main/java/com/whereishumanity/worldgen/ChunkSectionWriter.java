@@ -0,0 +1,212 @@
+package com.whereishumanity.worldgen;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+import java.util.Map;
+
+/**
+ * Écriture groupée de blocs pendant la génération du monde
+ * Les écritures sont mises en attente par section de chunk puis appliquées d'un coup par
+ * {@link #flush()} : une acquisition par section, une mise à jour des heightmaps par colonne
+ * et un seul marquage du chunk comme modifié. Les chunks déjà chargés dans le monde (ou déjà
+ * éclairés) passent par {@code setBlock} pour conserver les mises à jour de lumière et de voisinage.
+ */
+public class ChunkSectionWriter {
+
+    private static final int SECTION_VOLUME = 16 * 16 * 16;
+
+    private final WorldGenLevel level;
+    private final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+
+    // Écritures en attente par chunk, dans l'ordre de première écriture
+    private final Long2ObjectLinkedOpenHashMap<PendingChunk> pending = new Long2ObjectLinkedOpenHashMap<>();
+
+    private int writtenBlocks = 0;
+
+    /**
+     * Écritures en attente d'un chunk, par index Y de section
+     */
+    private static class PendingChunk {
+        final int chunkX;
+        final int chunkZ;
+        final Int2ObjectOpenHashMap<BlockState[]> sections = new Int2ObjectOpenHashMap<>();
+
+        // Sections écrites les plus haute et basse, pour parcourir les colonnes de haut en bas
+        int minSectionY = Integer.MAX_VALUE;
+        int maxSectionY = Integer.MIN_VALUE;
+
+        PendingChunk(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    /**
+     * Constructeur
+     * @param level Le niveau en cours de génération
+     */
+    public ChunkSectionWriter(WorldGenLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Met une écriture en attente (la dernière écriture d'une position l'emporte)
+     */
+    public void setBlock(int x, int y, int z, BlockState state) {
+        int chunkX = SectionPos.blockToSectionCoord(x);
+        int chunkZ = SectionPos.blockToSectionCoord(z);
+        int sectionY = SectionPos.blockToSectionCoord(y);
+
+        long chunkKey = ChunkPos.asLong(chunkX, chunkZ);
+        PendingChunk chunk = pending.get(chunkKey);
+        if (chunk == null) {
+            chunk = new PendingChunk(chunkX, chunkZ);
+            pending.put(chunkKey, chunk);
+        }
+
+        BlockState[] states = chunk.sections.get(sectionY);
+        if (states == null) {
+            states = new BlockState[SECTION_VOLUME];
+            chunk.sections.put(sectionY, states);
+            chunk.minSectionY = Math.min(chunk.minSectionY, sectionY);
+            chunk.maxSectionY = Math.max(chunk.maxSectionY, sectionY);
+        }
+        states[index(x & 15, y & 15, z & 15)] = state;
+    }
+
+    /**
+     * Applique toutes les écritures en attente
+     * @return Nombre de blocs écrits
+     */
+    public int flush() {
+        int written = 0;
+        for (PendingChunk chunk : pending.values()) {
+            written += flushChunk(chunk);
+        }
+        pending.clear();
+        writtenBlocks += written;
+        return written;
+    }
+
+    /**
+     * Nombre total de blocs écrits depuis la création de l'écrivain
+     */
+    public int getWrittenBlocks() {
+        return writtenBlocks;
+    }
+
+    private int flushChunk(PendingChunk pendingChunk) {
+        int baseX = SectionPos.sectionToBlockCoord(pendingChunk.chunkX);
+        int baseZ = SectionPos.sectionToBlockCoord(pendingChunk.chunkZ);
+
+        // Hors de la zone modifiable de la région en cours de génération : abandonner le chunk
+        if (!level.ensureCanWrite(mutablePos.set(baseX, level.getMinBuildHeight(), baseZ))) {
+            return 0;
+        }
+
+        ChunkAccess chunk = level.getChunk(pendingChunk.chunkX, pendingChunk.chunkZ);
+        if (chunk instanceof LevelChunk || chunk.getStatus().isOrAfter(ChunkStatus.INITIALIZE_LIGHT)) {
+            return flushWithSetBlock(pendingChunk, baseX, baseZ);
+        }
+
+        int written = 0;
+        for (Int2ObjectMap.Entry<BlockState[]> entry : pendingChunk.sections.int2ObjectEntrySet()) {
+            int sectionY = entry.getIntKey();
+            int sectionIndex = chunk.getSectionIndexFromSectionY(sectionY);
+            if (sectionIndex < 0 || sectionIndex >= chunk.getSectionsCount()) continue;
+
+            BlockState[] states = entry.getValue();
+            int baseY = SectionPos.sectionToBlockCoord(sectionY);
+            LevelChunkSection section = chunk.getSection(sectionIndex);
+            section.acquire();
+            try {
+                for (int i = 0; i < SECTION_VOLUME; i++) {
+                    BlockState state = states[i];
+                    if (state == null) continue;
+
+                    int x = i >> 8;
+                    int y = (i >> 4) & 15;
+                    int z = i & 15;
+                    BlockState previous = section.setBlockState(x, y, z, state, false);
+                    if (previous.hasBlockEntity() && !state.hasBlockEntity()) {
+                        chunk.removeBlockEntity(mutablePos.set(baseX + x, baseY + y, baseZ + z));
+                    }
+                    written++;
+                }
+            } finally {
+                section.release();
+            }
+        }
+
+        updateHeightmaps(chunk, pendingChunk);
+        chunk.setUnsaved(true);
+        return written;
+    }
+
+    /**
+     * Écriture bloc par bloc, pour les chunks qui ne sont plus en cours de génération
+     */
+    private int flushWithSetBlock(PendingChunk pendingChunk, int baseX, int baseZ) {
+        int written = 0;
+        for (Int2ObjectMap.Entry<BlockState[]> entry : pendingChunk.sections.int2ObjectEntrySet()) {
+            BlockState[] states = entry.getValue();
+            int baseY = SectionPos.sectionToBlockCoord(entry.getIntKey());
+            for (int i = 0; i < SECTION_VOLUME; i++) {
+                if (states[i] != null && level.setBlock(mutablePos.set(baseX + (i >> 8), baseY + ((i >> 4) & 15), baseZ + (i & 15)), states[i], 2)) {
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Met à jour les heightmaps colonne par colonne
+     * Chaque colonne est parcourue de haut en bas jusqu'au premier bloc qui compte pour la heightmap :
+     * les écritures situées en dessous ne peuvent plus la modifier.
+     */
+    private static void updateHeightmaps(ChunkAccess chunk, PendingChunk pendingChunk) {
+        for (Map.Entry<Heightmap.Types, Heightmap> entry : chunk.getHeightmaps()) {
+            Heightmap heightmap = entry.getValue();
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    updateColumn(heightmap, entry.getKey(), pendingChunk, x, z);
+                }
+            }
+        }
+    }
+
+    private static void updateColumn(Heightmap heightmap, Heightmap.Types type, PendingChunk pendingChunk, int x, int z) {
+        for (int sectionY = pendingChunk.maxSectionY; sectionY >= pendingChunk.minSectionY; sectionY--) {
+            BlockState[] states = pendingChunk.sections.get(sectionY);
+            if (states == null) continue;
+
+            int baseY = SectionPos.sectionToBlockCoord(sectionY);
+            for (int y = 15; y >= 0; y--) {
+                BlockState state = states[index(x, y, z)];
+                if (state == null) continue;
+
+                heightmap.update(x, baseY + y, z, state);
+                if (type.isOpaque().test(state)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static int index(int x, int y, int z) {
+        return x << 8 | y << 4 | z;
+    }
+}
@@ -0,0 +1,41 @@
+package com.whereishumanity.worldgen;
+
+/**
+ * Bruit positionnel de dégradation (routes, ruines)
+ * Chaque échantillon est un hachage de (graine du monde, canal, x, z) : aucun état, aucune
+ * allocation, et le même bloc obtient toujours la même valeur, quel que soit l'ordre de génération
+ * ou le nombre de régénérations. Les motifs de dégradation sont des seuils appliqués à ce bruit.
+ */
+public final class DecayNoise {
+
+    // Canaux indépendants (une même position donne des valeurs non corrélées d'un canal à l'autre)
+    public static final int CHANNEL_ROAD_SURFACE = 1;
+    public static final int CHANNEL_ROAD_HOLES = 2;
+
+    // Sel distinguant ce bruit des tirages des plans urbains
+    private static final long DECAY_SALT = 0x5EED_DECA_7000L;
+
+    private DecayNoise() {
+    }
+
+    /**
+     * Valeur du bruit à une position
+     * @param seed Graine du monde
+     * @param channel Canal de dégradation
+     * @param x Coordonnée X du bloc
+     * @param z Coordonnée Z du bloc
+     * @return Valeur uniforme dans [0, 1)
+     */
+    public static float sample(long seed, int channel, int x, int z) {
+        long hash = PositionalRandom.mix(PositionalRandom.mix(seed, DECAY_SALT, channel), x, z);
+        return (hash >>> 40) * 0x1.0p-24f;
+    }
+
+    /**
+     * Vérifie si le bruit à une position passe sous un seuil
+     * @param threshold Seuil (proportion des positions concernées)
+     */
+    public static boolean isBelow(long seed, int channel, int x, int z, float threshold) {
+        return sample(seed, channel, x, z) < threshold;
+    }
+}
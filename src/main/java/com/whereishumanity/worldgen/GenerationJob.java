@@ -0,0 +1,350 @@
+package com.whereishumanity.worldgen;
+
+import com.whereishumanity.WhereIsHumanity;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.core.SectionPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Génération incrémentale d'une zone urbaine
+ * Le plan de la génération est découpé en étapes courtes (une rangée de routes, un bâtiment) que le
+ * {@link GenerationJobManager} exécute au fil des ticks, dans la limite du budget de temps configuré.
+ * Une étape peut dépendre d'une préparation faite en arrière-plan : elle n'est exécutée qu'une fois
+ * celle-ci terminée. La progression est signalée à l'émetteur de la commande tous les 10 %.
+ *
+ * Les chunks touchés par les prochaines étapes sont chargés en avance par des tickets, de façon
+ * asynchrone : une étape n'est exécutée que lorsque tous ses chunks sont chargés, et le thread
+ * serveur ne charge ni ne génère jamais un chunk de façon synchrone pendant une génération. Les
+ * tickets d'une étape sont libérés dès qu'elle a été exécutée.
+ */
+public class GenerationJob {
+
+    // Intervalle de signalement de la progression (en pourcents)
+    private static final int REPORT_INTERVAL_PERCENT = 10;
+
+    // Ticket de chargement des chunks d'une génération (niveau 33 : chunk complet, sans tick)
+    private static final TicketType<ChunkPos> CHUNK_TICKET = TicketType.create("whereishumanity:generation",
+            Comparator.comparingLong(ChunkPos::toLong));
+
+    /**
+     * Étape de génération, exécutée sur le thread serveur
+     */
+    @FunctionalInterface
+    public interface Step {
+        void run(ServerLevel level) throws Exception;
+
+        /**
+         * Vérifie si l'étape peut être exécutée sans attendre (préparation terminée)
+         */
+        default boolean isReady() {
+            return true;
+        }
+
+        /**
+         * Chunks dans lesquels l'étape écrit, consultés une fois l'étape prête
+         */
+        default LongSet getChunks() {
+            return LongSets.EMPTY_SET;
+        }
+
+        /**
+         * Étape exécutée seulement une fois sa préparation en arrière-plan terminée
+         * @param preparation Préparation (par exemple le décodage d'un template)
+         * @param step L'étape, qui peut lire le résultat de la préparation sans bloquer
+         * @return L'étape différée
+         */
+        static Step after(CompletableFuture<?> preparation, Step step) {
+            return new Step() {
+                @Override
+                public void run(ServerLevel level) throws Exception {
+                    step.run(level);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return preparation.isDone() && step.isReady();
+                }
+
+                @Override
+                public LongSet getChunks() {
+                    return step.getChunks();
+                }
+            };
+        }
+
+        /**
+         * Étape écrivant dans des chunks connus, qui seront chargés avant son exécution
+         * @param chunks Calcul des chunks touchés (appelé une fois l'étape prête)
+         * @param step L'étape
+         * @return L'étape accompagnée de ses chunks
+         */
+        static Step inChunks(Supplier<LongSet> chunks, Step step) {
+            return new Step() {
+                @Override
+                public void run(ServerLevel level) throws Exception {
+                    step.run(level);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return step.isReady();
+                }
+
+                @Override
+                public LongSet getChunks() {
+                    return chunks.get();
+                }
+            };
+        }
+    }
+
+    public enum State {
+        RUNNING,
+        PAUSED,
+        CANCELLED,
+        COMPLETED
+    }
+
+    private final String description;
+    private final ServerLevel level;
+    private final CommandSourceStack source;
+    private final List<Step> steps = new ArrayList<>();
+    private String completionMessage;
+
+    // Chunks demandés pour les étapes à venir, et nombre d'étapes utilisant chaque chunk demandé
+    private final Int2ObjectOpenHashMap<LongSet> stepChunks = new Int2ObjectOpenHashMap<>();
+    private final Long2IntOpenHashMap chunkTickets = new Long2IntOpenHashMap();
+    private int requestedSteps = 0;
+
+    private int id;
+    private State state = State.RUNNING;
+    private int nextStep = 0;
+    private int failedSteps = 0;
+    private long elapsedNanos = 0;
+    private int lastReportedPercent = 0;
+
+    /**
+     * Constructeur
+     * @param description Description affichée par /wih generate status
+     * @param level Le niveau où générer
+     * @param source Émetteur de la commande, qui reçoit la progression
+     */
+    public GenerationJob(String description, ServerLevel level, CommandSourceStack source) {
+        this.description = description;
+        this.level = level;
+        this.source = source;
+        this.completionMessage = description + " terminée";
+    }
+
+    /**
+     * Ajoute une étape à la fin du plan
+     * @param step L'étape
+     */
+    public void addStep(Step step) {
+        steps.add(step);
+    }
+
+    /**
+     * Message envoyé à l'émetteur lorsque toutes les étapes ont été exécutées
+     */
+    public void setCompletionMessage(String completionMessage) {
+        this.completionMessage = completionMessage;
+    }
+
+    /**
+     * Exécute l'étape suivante du plan
+     * Une étape en échec est journalisée et comptée, sans interrompre la génération.
+     */
+    void runNextStep() {
+        long start = System.nanoTime();
+        try {
+            steps.get(nextStep).run(level);
+        } catch (Exception e) {
+            failedSteps++;
+            WhereIsHumanity.LOGGER.error("Génération #{}: échec de l'étape {}", id, nextStep, e);
+        }
+        steps.set(nextStep, null); // Libérer l'étape exécutée
+        releaseChunks(stepChunks.remove(nextStep));
+        nextStep++;
+        elapsedNanos += System.nanoTime() - start;
+
+        if (nextStep >= steps.size()) {
+            state = State.COMPLETED;
+            releaseAllChunks();
+            String failures = failedSteps > 0 ? " (" + failedSteps + " étapes en échec)" : "";
+            source.sendSuccess(() -> Component.literal(completionMessage + failures + " en " +
+                    String.format("%.1f", elapsedNanos / 1_000_000_000.0) + " s de calcul"), true);
+            return;
+        }
+
+        int percent = getProgressPercent();
+        if (percent >= lastReportedPercent + REPORT_INTERVAL_PERCENT) {
+            lastReportedPercent = percent - percent % REPORT_INTERVAL_PERCENT;
+            source.sendSuccess(() -> Component.literal("Génération #" + id + ": " + percent + " %"), false);
+        }
+    }
+
+    /**
+     * Vérifie si l'étape suivante est prête et ses chunks chargés ; sinon la génération attend sans
+     * consommer de budget
+     */
+    public boolean isNextStepReady() {
+        if (nextStep >= steps.size()) {
+            return true;
+        }
+        if (nextStep >= requestedSteps || !steps.get(nextStep).isReady()) {
+            return false;
+        }
+        ServerChunkCache chunkSource = level.getChunkSource();
+        for (long chunk : stepChunks.get(nextStep)) {
+            if (chunkSource.getChunkNow(ChunkPos.getX(chunk), ChunkPos.getZ(chunk)) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Demande le chargement des chunks des prochaines étapes, en avance sur l'étape courante
+     * Les étapes sont parcourues dans l'ordre jusqu'à la première qui n'est pas prête, ou jusqu'à
+     * ce que le nombre de chunks demandés dépasse la limite (l'étape courante est toujours servie).
+     * @param maxChunks Nombre maximal de chunks retenus par la génération
+     */
+    void requestChunks(int maxChunks) {
+        ServerChunkCache chunkSource = level.getChunkSource();
+        requestedSteps = Math.max(requestedSteps, nextStep);
+        while (requestedSteps < steps.size()) {
+            Step step = steps.get(requestedSteps);
+            if (!step.isReady()) {
+                break;
+            }
+            LongSet chunks = step.getChunks();
+            if (requestedSteps > nextStep && chunkTickets.size() + chunks.size() > maxChunks) {
+                break;
+            }
+            for (long chunk : chunks) {
+                if (chunkTickets.addTo(chunk, 1) == 0) {
+                    ChunkPos pos = new ChunkPos(chunk);
+                    chunkSource.addRegionTicket(CHUNK_TICKET, pos, 0, pos);
+                }
+            }
+            stepChunks.put(requestedSteps, chunks);
+            requestedSteps++;
+        }
+    }
+
+    /**
+     * Libère tous les tickets de la génération (pause, annulation ou fin)
+     * Les chunks seront redemandés à la reprise.
+     */
+    void releaseAllChunks() {
+        ServerChunkCache chunkSource = level.getChunkSource();
+        for (long chunk : chunkTickets.keySet()) {
+            ChunkPos pos = new ChunkPos(chunk);
+            chunkSource.removeRegionTicket(CHUNK_TICKET, pos, 0, pos);
+        }
+        chunkTickets.clear();
+        stepChunks.clear();
+        requestedSteps = nextStep;
+    }
+
+    /**
+     * Libère les tickets d'une étape exécutée, sauf pour les chunks encore utilisés par une étape à venir
+     */
+    private void releaseChunks(LongSet chunks) {
+        if (chunks == null) {
+            return;
+        }
+        ServerChunkCache chunkSource = level.getChunkSource();
+        for (long chunk : chunks) {
+            if (chunkTickets.addTo(chunk, -1) == 1) {
+                chunkTickets.remove(chunk);
+                ChunkPos pos = new ChunkPos(chunk);
+                chunkSource.removeRegionTicket(CHUNK_TICKET, pos, 0, pos);
+            }
+        }
+    }
+
+    /**
+     * Chunks couverts par une zone de blocs, élargie d'un bloc pour les mises à jour de forme en bordure
+     * @param minX Coordonnée X minimale (incluse)
+     * @param minZ Coordonnée Z minimale (incluse)
+     * @param maxX Coordonnée X maximale (incluse)
+     * @param maxZ Coordonnée Z maximale (incluse)
+     * @return Positions des chunks (ChunkPos.toLong)
+     */
+    public static LongSet chunksCovering(int minX, int minZ, int maxX, int maxZ) {
+        LongSet chunks = new LongOpenHashSet();
+        int maxChunkX = SectionPos.blockToSectionCoord(maxX + 1);
+        int maxChunkZ = SectionPos.blockToSectionCoord(maxZ + 1);
+        for (int chunkX = SectionPos.blockToSectionCoord(minX - 1); chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = SectionPos.blockToSectionCoord(minZ - 1); chunkZ <= maxChunkZ; chunkZ++) {
+                chunks.add(ChunkPos.asLong(chunkX, chunkZ));
+            }
+        }
+        return chunks;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.CANCELLED;
+    }
+
+    public int getProgressPercent() {
+        return steps.isEmpty() ? 100 : (int) (nextStep * 100L / steps.size());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public ServerLevel getLevel() {
+        return level;
+    }
+
+    public int getCompletedSteps() {
+        return nextStep;
+    }
+
+    public int getTotalSteps() {
+        return steps.size();
+    }
+
+    public int getFailedSteps() {
+        return failedSteps;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
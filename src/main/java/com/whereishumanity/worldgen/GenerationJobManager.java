@@ -0,0 +1,162 @@
+package com.whereishumanity.worldgen;
+
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.config.ModConfig;
+import com.whereishumanity.worldgen.GenerationJob.State;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exécution des générations incrémentales sous un budget de temps par tick
+ * À chaque tick serveur, les générations actives exécutent leurs étapes à tour de rôle, une étape
+ * chacune, jusqu'à épuisement du budget {@code generationTickBudgetMs} : plusieurs générations
+ * simultanées avancent au même rythme, et le tick n'est jamais bloqué plus longtemps que le budget
+ * et la durée d'une étape. Le premier servi change à chaque tick. Une génération dont l'étape
+ * suivante attend une préparation en arrière-plan ou le chargement de ses chunks est sautée sans
+ * consommer de budget. Avant chaque tour, chaque génération active demande les chunks de ses
+ * prochaines étapes (au plus {@code generationPreloadChunks} chunks retenus par génération) ; une
+ * génération en pause ou annulée rend ses chunks.
+ *
+ * Les générations ne sont pas enregistrées : celles en cours à l'arrêt du serveur sont abandonnées.
+ */
+@Mod.EventBusSubscriber(modid = WhereIsHumanity.MOD_ID)
+public class GenerationJobManager {
+
+    // Générations en cours ou en pause, par identifiant (dans l'ordre de lancement)
+    private static final Map<Integer, GenerationJob> JOBS = new LinkedHashMap<>();
+    private static int nextId = 1;
+    private static int turn = 0;
+
+    /**
+     * Lance une génération
+     * @param job La génération, avec toutes ses étapes
+     * @return Identifiant de la génération
+     */
+    public static int submit(GenerationJob job) {
+        int id = nextId++;
+        job.setId(id);
+        if (job.getTotalSteps() == 0) {
+            job.setState(State.COMPLETED);
+            return id;
+        }
+        JOBS.put(id, job);
+        WhereIsHumanity.LOGGER.info("Génération #{} lancée: {} ({} étapes)", id, job.getDescription(), job.getTotalSteps());
+        return id;
+    }
+
+    /**
+     * Générations en cours ou en pause
+     */
+    public static Collection<GenerationJob> getJobs() {
+        return Collections.unmodifiableCollection(JOBS.values());
+    }
+
+    /**
+     * Met une génération en pause
+     * @param id Identifiant de la génération
+     * @return false si la génération n'existe pas
+     */
+    public static boolean pause(int id) {
+        GenerationJob job = JOBS.get(id);
+        if (job == null) {
+            return false;
+        }
+        job.setState(State.PAUSED);
+        job.releaseAllChunks();
+        return true;
+    }
+
+    /**
+     * Reprend une génération en pause
+     * @param id Identifiant de la génération
+     * @return false si la génération n'existe pas
+     */
+    public static boolean resume(int id) {
+        GenerationJob job = JOBS.get(id);
+        if (job == null) {
+            return false;
+        }
+        job.setState(State.RUNNING);
+        return true;
+    }
+
+    /**
+     * Annule une génération (les étapes déjà exécutées restent en place)
+     * @param id Identifiant de la génération
+     * @return false si la génération n'existe pas
+     */
+    public static boolean cancel(int id) {
+        GenerationJob job = JOBS.remove(id);
+        if (job == null) {
+            return false;
+        }
+        job.setState(State.CANCELLED);
+        job.releaseAllChunks();
+        WhereIsHumanity.LOGGER.info("Génération #{} annulée à {} %", id, job.getProgressPercent());
+        return true;
+    }
+
+    /**
+     * Exécute les étapes des générations actives dans la limite du budget du tick
+     * @param event Événement de tick serveur
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || JOBS.isEmpty()) {
+            return;
+        }
+
+        int preloadChunks = ModConfig.COMMON.generationPreloadChunks.get();
+        List<GenerationJob> active = new ArrayList<>();
+        for (GenerationJob job : JOBS.values()) {
+            if (job.getState() != State.RUNNING) {
+                continue;
+            }
+            job.requestChunks(preloadChunks);
+            if (job.isNextStepReady()) {
+                active.add(job);
+            }
+        }
+        if (active.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + ModConfig.COMMON.generationTickBudgetMs.get() * 1_000_000L;
+        int index = Math.floorMod(turn++, active.size());
+        do {
+            GenerationJob job = active.get(index);
+            job.runNextStep();
+            if (job.isFinished() || !job.isNextStepReady()) {
+                // Terminée, ou en attente d'une préparation : elle ne reçoit plus de temps à ce tick
+                if (job.isFinished()) {
+                    JOBS.remove(job.getId());
+                }
+                active.remove(index);
+                if (active.isEmpty()) {
+                    return;
+                }
+            } else {
+                index++;
+            }
+            index %= active.size();
+        } while (System.nanoTime() < deadline);
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        if (!JOBS.isEmpty()) {
+            WhereIsHumanity.LOGGER.warn("{} génération(s) abandonnée(s) à l'arrêt du serveur", JOBS.size());
+        }
+        JOBS.clear(); // Les tickets disparaissent avec les niveaux
+        turn = 0;
+    }
+}
@@ -0,0 +1,90 @@
+package com.whereishumanity.worldgen;
+
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Plan figé d'une génération lancée par commande
+ * Le plan décrit entièrement ce qui sera écrit dans le monde (tracé des routes, position, template,
+ * rotation et emprise de chaque bâtiment) sans y toucher : il est calculé hors du thread serveur à
+ * partir d'une graine, puis consommé étape par étape par une {@link GenerationJob}. Les tirages étant
+ * positionnels, une même graine donne toujours le même plan ; deux plans se comparent avec
+ * {@code equals}.
+ *
+ * @param seed Graine dont le plan est dérivé
+ * @param roadRows Rangées de routes, dans l'ordre d'application
+ * @param placements Bâtiments, dans l'ordre d'application
+ */
+public record GenerationPlan(long seed, List<RoadRow> roadRows, List<Placement> placements) {
+
+    public GenerationPlan {
+        roadRows = List.copyOf(roadRows);
+        placements = List.copyOf(placements);
+    }
+
+    /**
+     * Bloc de route, en coordonnées du monde (la hauteur est lue sur le terrain à l'application)
+     * @param x Coordonnée X du bloc
+     * @param z Coordonnée Z du bloc
+     * @param intersection true pour un carrefour
+     */
+    public record RoadBlock(int x, int z, boolean intersection) {
+    }
+
+    /**
+     * Rangée de routes appliquée en une étape, avec l'emprise de ses blocs
+     */
+    public record RoadRow(List<RoadBlock> blocks, int minX, int minZ, int maxX, int maxZ) {
+
+        public RoadRow {
+            blocks = List.copyOf(blocks);
+        }
+
+        /**
+         * Construit une rangée en calculant son emprise
+         * @param blocks Blocs de la rangée (au moins un)
+         */
+        public static RoadRow of(List<RoadBlock> blocks) {
+            int minX = Integer.MAX_VALUE;
+            int minZ = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE;
+            int maxZ = Integer.MIN_VALUE;
+            for (RoadBlock block : blocks) {
+                minX = Math.min(minX, block.x());
+                minZ = Math.min(minZ, block.z());
+                maxX = Math.max(maxX, block.x());
+                maxZ = Math.max(maxZ, block.z());
+            }
+            return new RoadRow(blocks, minX, minZ, maxX, maxZ);
+        }
+
+        /**
+         * Chunks touchés par la rangée
+         */
+        public LongSet getChunks() {
+            return GenerationJob.chunksCovering(minX, minZ, maxX, maxZ);
+        }
+    }
+
+    /**
+     * Bâtiment à placer
+     * @param pos Position du template (la hauteur est déterminée par le terrain à l'application)
+     * @param template Chemin du fichier NBT, qui identifie le template
+     * @param rotation Rotation appliquée au template
+     * @param footprint Emprise du template une fois tourné
+     */
+    public record Placement(BlockPos pos, Path template, Rotation rotation, BoundingBox footprint) {
+
+        /**
+         * Chunks touchés par le bâtiment
+         */
+        public LongSet getChunks() {
+            return GenerationJob.chunksCovering(footprint.minX(), footprint.minZ(), footprint.maxX(), footprint.maxZ());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.whereishumanity.worldgen;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelReader;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.levelgen.Heightmap;
+
+import java.util.Arrays;
+
+/**
+ * Copie des heightmaps de surface des chunks d'une zone
+ * La heightmap d'un chunk est copiée une seule fois dans un tableau de 256 entiers à sa première
+ * consultation ; les lectures suivantes ne touchent plus au monde. Les hauteurs renvoyées sont,
+ * comme {@code Level.getHeight}, la première position libre au-dessus de la surface.
+ *
+ * La copie n'est pas mise à jour par les écritures : elle décrit le terrain avant génération.
+ */
+public class HeightmapSnapshot {
+
+    private final LevelReader level;
+    private final Heightmap.Types type;
+    private final Long2ObjectOpenHashMap<int[]> chunks = new Long2ObjectOpenHashMap<>();
+
+    /**
+     * Constructeur
+     * @param level Le niveau (ou la région en cours de génération)
+     * @param type Type de heightmap copié
+     */
+    public HeightmapSnapshot(LevelReader level, Heightmap.Types type) {
+        this.level = level;
+        this.type = type;
+    }
+
+    /**
+     * Hauteur de la surface à une position
+     * @param x Coordonnée X du bloc
+     * @param z Coordonnée Z du bloc
+     * @return Première position Y libre au-dessus de la surface
+     */
+    public int getHeight(int x, int z) {
+        return getChunkHeights(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z))[(x & 15) << 4 | (z & 15)];
+    }
+
+    /**
+     * Mesure le terrain sous une emprise rectangulaire, en un seul passage
+     * @param minX Coordonnée X minimale (incluse)
+     * @param minZ Coordonnée Z minimale (incluse)
+     * @param maxX Coordonnée X maximale (incluse)
+     * @param maxZ Coordonnée Z maximale (incluse)
+     * @return Les hauteurs de l'emprise et leurs minimum, maximum et médiane
+     */
+    public Footprint measure(int minX, int minZ, int maxX, int maxZ) {
+        int sizeX = maxX - minX + 1;
+        int sizeZ = maxZ - minZ + 1;
+        int[] heights = new int[sizeX * sizeZ];
+
+        int minHeight = Integer.MAX_VALUE;
+        int maxHeight = Integer.MIN_VALUE;
+        for (int dx = 0; dx < sizeX; dx++) {
+            for (int dz = 0; dz < sizeZ; dz++) {
+                int height = getHeight(minX + dx, minZ + dz);
+                heights[dx * sizeZ + dz] = height;
+                minHeight = Math.min(minHeight, height);
+                maxHeight = Math.max(maxHeight, height);
+            }
+        }
+
+        int[] sorted = heights.clone();
+        Arrays.sort(sorted);
+        return new Footprint(minX, minZ, sizeX, sizeZ, heights, minHeight, maxHeight, sorted[sorted.length / 2]);
+    }
+
+    private int[] getChunkHeights(int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        int[] heights = chunks.get(key);
+        if (heights == null) {
+            heights = new int[256];
+            ChunkAccess chunk = level.getChunk(chunkX, chunkZ);
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    heights[x << 4 | z] = chunk.getHeight(type, x, z) + 1;
+                }
+            }
+            chunks.put(key, heights);
+        }
+        return heights;
+    }
+
+    /**
+     * Hauteurs du terrain sous une emprise
+     */
+    public static class Footprint {
+        private final int minX;
+        private final int minZ;
+        private final int sizeX;
+        private final int sizeZ;
+        private final int[] heights;
+        private final int minHeight;
+        private final int maxHeight;
+        private final int median;
+
+        private Footprint(int minX, int minZ, int sizeX, int sizeZ, int[] heights, int minHeight, int maxHeight, int median) {
+            this.minX = minX;
+            this.minZ = minZ;
+            this.sizeX = sizeX;
+            this.sizeZ = sizeZ;
+            this.heights = heights;
+            this.minHeight = minHeight;
+            this.maxHeight = maxHeight;
+            this.median = median;
+        }
+
+        /**
+         * Hauteur d'une colonne de l'emprise
+         * @param x Coordonnée X du bloc (dans l'emprise)
+         * @param z Coordonnée Z du bloc (dans l'emprise)
+         */
+        public int getHeight(int x, int z) {
+            return heights[(x - minX) * sizeZ + (z - minZ)];
+        }
+
+        public int getMinX() {
+            return minX;
+        }
+
+        public int getMinZ() {
+            return minZ;
+        }
+
+        public int getMaxX() {
+            return minX + sizeX - 1;
+        }
+
+        public int getMaxZ() {
+            return minZ + sizeZ - 1;
+        }
+
+        public int getMinHeight() {
+            return minHeight;
+        }
+
+        public int getMaxHeight() {
+            return maxHeight;
+        }
+
+        /**
+         * Hauteur médiane : le niveau qui demande le moins de remblai et de déblai
+         */
+        public int getMedian() {
+            return median;
+        }
+    }
+}
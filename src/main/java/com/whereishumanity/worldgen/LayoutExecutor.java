@@ -0,0 +1,66 @@
+package com.whereishumanity.worldgen;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Pool de threads de la génération des plans urbains
+ * Les plans sont produits par des tâches indépendantes (une par région, ou une par rangée de
+ * cellules pour les grandes grilles) ; grâce à {@link PositionalRandom}, le résultat est identique
+ * quel que soit le nombre de threads. Le pool décode aussi à l'avance les templates des générations
+ * lancées par commande.
+ */
+public class LayoutExecutor {
+
+    // Nombre de cellules à partir duquel les rangées d'une même grille sont traitées en parallèle
+    private static final int ROW_PARALLEL_THRESHOLD = 64 * 64;
+
+    private static final ForkJoinPool POOL = createPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * Pool partagé de génération des plans
+     */
+    public static ForkJoinPool getPool() {
+        return POOL;
+    }
+
+    /**
+     * Crée un pool dédié (utilisé par le banc d'essai pour comparer les nombres de threads)
+     * @param parallelism Nombre de threads
+     * @return Le pool
+     */
+    public static ForkJoinPool createPool(int parallelism) {
+        return new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("WIH-Layout-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Exécute une action pour chaque rangée d'une grille
+     * Les petites grilles sont traitées séquentiellement ; les grandes sont réparties sur le pool
+     * courant (ou le pool partagé si l'appel vient d'un autre thread).
+     * @param rows Nombre de rangées
+     * @param cells Nombre total de cellules de la grille
+     * @param action Action appliquée à chaque index de rangée ; ne doit écrire que dans sa rangée
+     */
+    static void forEachRow(int rows, int cells, IntConsumer action) {
+        if (cells < ROW_PARALLEL_THRESHOLD) {
+            for (int row = 0; row < rows; row++) {
+                action.accept(row);
+            }
+            return;
+        }
+
+        if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+            // Déjà dans un pool : le flux parallèle utilise ce même pool
+            IntStream.range(0, rows).parallel().forEach(action);
+        } else {
+            POOL.submit(() -> IntStream.range(0, rows).parallel().forEach(action)).join();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.whereishumanity.worldgen;
+
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.levelgen.SingleThreadedRandomSource;
+
+/**
+ * Aléatoire positionnel pour la génération des plans urbains
+ * Chaque tirage est dérivé de (graine, phase, position) plutôt que d'un flux partagé : le résultat
+ * ne dépend donc ni de l'ordre d'évaluation des cellules, ni du nombre de threads utilisés.
+ */
+public final class PositionalRandom {
+
+    // Phases de génération (chaque phase a son propre espace de tirages)
+    public static final int PHASE_HORIZONTAL_ROAD_DAMAGE = 1;
+    public static final int PHASE_VERTICAL_ROAD_DAMAGE = 2;
+    public static final int PHASE_CELL_TYPES = 3;
+    public static final int PHASE_SPECIAL_BUILDINGS = 4;
+    public static final int PHASE_CITY_TEMPLATES = 5;
+    public static final int PHASE_COMMAND_BUILDINGS = 6;
+
+    private PositionalRandom() {
+    }
+
+    /**
+     * Graine du plan d'une région
+     * @param worldSeed Graine du monde
+     * @param regionX Coordonnée X de la région
+     * @param regionZ Coordonnée Z de la région
+     * @return Graine de la région
+     */
+    public static long regionSeed(long worldSeed, int regionX, int regionZ) {
+        return mix(worldSeed, regionX, regionZ);
+    }
+
+    /**
+     * Graine d'un tirage positionnel
+     * @param seed Graine du plan (déjà dérivée de la région)
+     * @param phase Phase de génération
+     * @param x Index X de la cellule ou du segment
+     * @param z Index Z de la cellule ou du segment
+     * @return Graine du tirage
+     */
+    public static long hash(long seed, int phase, int x, int z) {
+        return mix(mix(seed, phase, 0), x, z);
+    }
+
+    /**
+     * Crée une source aléatoire réutilisable par un seul thread (voir {@link #reseed})
+     */
+    public static RandomSource create() {
+        return new SingleThreadedRandomSource(0L);
+    }
+
+    /**
+     * Repositionne une source aléatoire sur un tirage positionnel, sans allocation
+     * @return La source passée en paramètre
+     */
+    public static RandomSource reseed(RandomSource random, long seed, int phase, int x, int z) {
+        random.setSeed(hash(seed, phase, x, z));
+        return random;
+    }
+
+    /**
+     * Mélange une graine et deux coordonnées (finaliseur SplitMix64)
+     */
+    public static long mix(long seed, long a, long b) {
+        long h = seed ^ (a * 0x9E3779B97F4A7C15L) ^ (b * 0xC2B2AE3D27D4EB4FL);
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
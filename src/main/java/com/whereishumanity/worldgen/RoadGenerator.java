@@ -1,7 +1,6 @@
 package com.whereishumanity.worldgen;
 
 import com.whereishumanity.WhereIsHumanity;
-import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.block.Block;
@@ -10,9 +9,6 @@ import net.minecraft.world.level.block.SlabBlock;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.block.state.properties.SlabType;
 import net.minecraft.world.level.chunk.ChunkGenerator;
-import net.minecraft.world.level.levelgen.Heightmap;
-
-import java.util.Random;
 
 /**
  * Générateur de routes en béton noir pour les environnements urbains
@@ -30,16 +26,23 @@ public class RoadGenerator {
     private static final int BOULEVARD_WIDTH = 4;   // Boulevard
     private static final int STREET_WIDTH = 2;      // Rue résidentielle
     
+    // Motifs de dégradation : proportion de blocs en poudre de béton et de trous selon l'état
+    private static final float SLIGHT_DAMAGE_POWDER_THRESHOLD = 0.3f;
+    private static final float HEAVY_DAMAGE_POWDER_THRESHOLD = 0.7f;
+    private static final float HEAVY_DAMAGE_HOLE_THRESHOLD = 0.3f;
+    
     /**
      * Génère une route horizontale
      * @param level Le niveau où générer la route
+     * @param writer Écrivain groupé des blocs (vidé par l'appelant)
+     * @param heights Copie des hauteurs du terrain
      * @param chunkPos Position du chunk
      * @param startX Coordonnée X de départ
      * @param z Coordonnée Z
      * @param roadType Type de route
      * @param roadState État de dégradation
      */
-    public static void generateHorizontalRoad(WorldGenLevel level, ChunkPos chunkPos, int startX, int z, 
+    public static void generateHorizontalRoad(WorldGenLevel level, ChunkSectionWriter writer, HeightmapSnapshot heights, ChunkPos chunkPos, int startX, int z, 
                                              UrbanGridGenerator.RoadType roadType, 
                                              UrbanGridGenerator.RoadType roadState) {
         // Si la route est détruite, ne rien générer
@@ -50,41 +53,13 @@ public class RoadGenerator {
         // Obtenir la largeur selon le type de route
         int width = getRoadWidth(roadType);
         
-        // Déterminer la position Y (hauteur)
-        int y = getTerrainHeight(level, startX, z);
+        // Déterminer la position Y (hauteur) et la graine du bruit de dégradation
+        long seed = level.getSeed();
+        int y = heights.getHeight(startX, z);
         
         // Générer la route (béton noir simple)
         for (int x = startX; x < startX + width; x++) {
-            BlockPos roadPos = new BlockPos(x, y, z);
-            
-            // Si la route est endommagée, ajouter des variations
-            if (roadState == UrbanGridGenerator.RoadType.HEAVILY_DAMAGED) {
-                // Routes très endommagées: alternance de béton normal et de poudre de béton
-                boolean useDamagedBlock = new Random().nextFloat() < 0.7f;
-                level.setBlock(roadPos, useDamagedBlock ? 
-                        DAMAGED_ROAD_BLOCK.defaultBlockState() : 
-                        ROAD_BLOCK.defaultBlockState(), 2);
-                
-                // Ajouter des trous aléatoires
-                if (new Random().nextFloat() < 0.3f) {
-                    // Ne rien placer (laisser un trou)
-                    continue;
-                }
-            } 
-            else if (roadState == UrbanGridGenerator.RoadType.SLIGHTLY_DAMAGED) {
-                // Routes légèrement endommagées: principalement du béton avec quelques blocs de poudre
-                boolean useDamagedBlock = new Random().nextFloat() < 0.3f;
-                level.setBlock(roadPos, useDamagedBlock ? 
-                        DAMAGED_ROAD_BLOCK.defaultBlockState() : 
-                        ROAD_BLOCK.defaultBlockState(), 2);
-            }
-            else {
-                // Routes intactes: béton noir ordinaire
-                level.setBlock(roadPos, ROAD_BLOCK.defaultBlockState(), 2);
-            }
-            
-            // Ajouter un bloc de fondation en dessous de la route
-            level.setBlock(roadPos.below(), Blocks.GRAVEL.defaultBlockState(), 2);
+            placeRoadBlock(writer, seed, x, y, z, roadState);
         }
         
         // Ajouter des bordures de trottoir pour les boulevards et autoroutes
@@ -96,23 +71,25 @@ public class RoadGenerator {
             }
             
             // Bordure gauche
-            level.setBlock(new BlockPos(startX - 1, y, z), curbState, 2);
+            writer.setBlock(startX - 1, y, z, curbState);
             
             // Bordure droite
-            level.setBlock(new BlockPos(startX + width, y, z), curbState, 2);
+            writer.setBlock(startX + width, y, z, curbState);
         }
     }
     
     /**
      * Génère une route verticale
      * @param level Le niveau où générer la route
+     * @param writer Écrivain groupé des blocs (vidé par l'appelant)
+     * @param heights Copie des hauteurs du terrain
      * @param chunkPos Position du chunk
      * @param x Coordonnée X
      * @param startZ Coordonnée Z de départ
      * @param roadType Type de route
      * @param roadState État de dégradation
      */
-    public static void generateVerticalRoad(WorldGenLevel level, ChunkPos chunkPos, int x, int startZ, 
+    public static void generateVerticalRoad(WorldGenLevel level, ChunkSectionWriter writer, HeightmapSnapshot heights, ChunkPos chunkPos, int x, int startZ, 
                                           UrbanGridGenerator.RoadType roadType, 
                                           UrbanGridGenerator.RoadType roadState) {
         // Si la route est détruite, ne rien générer
@@ -123,41 +100,13 @@ public class RoadGenerator {
         // Obtenir la largeur selon le type de route
         int width = getRoadWidth(roadType);
         
-        // Déterminer la position Y (hauteur)
-        int y = getTerrainHeight(level, x, startZ);
+        // Déterminer la position Y (hauteur) et la graine du bruit de dégradation
+        long seed = level.getSeed();
+        int y = heights.getHeight(x, startZ);
         
         // Générer la route (béton noir simple)
         for (int z = startZ; z < startZ + width; z++) {
-            BlockPos roadPos = new BlockPos(x, y, z);
-            
-            // Si la route est endommagée, ajouter des variations
-            if (roadState == UrbanGridGenerator.RoadType.HEAVILY_DAMAGED) {
-                // Routes très endommagées: alternance de béton normal et de poudre de béton
-                boolean useDamagedBlock = new Random().nextFloat() < 0.7f;
-                level.setBlock(roadPos, useDamagedBlock ? 
-                        DAMAGED_ROAD_BLOCK.defaultBlockState() : 
-                        ROAD_BLOCK.defaultBlockState(), 2);
-                
-                // Ajouter des trous aléatoires
-                if (new Random().nextFloat() < 0.3f) {
-                    // Ne rien placer (laisser un trou)
-                    continue;
-                }
-            } 
-            else if (roadState == UrbanGridGenerator.RoadType.SLIGHTLY_DAMAGED) {
-                // Routes légèrement endommagées: principalement du béton avec quelques blocs de poudre
-                boolean useDamagedBlock = new Random().nextFloat() < 0.3f;
-                level.setBlock(roadPos, useDamagedBlock ? 
-                        DAMAGED_ROAD_BLOCK.defaultBlockState() : 
-                        ROAD_BLOCK.defaultBlockState(), 2);
-            }
-            else {
-                // Routes intactes: béton noir ordinaire
-                level.setBlock(roadPos, ROAD_BLOCK.defaultBlockState(), 2);
-            }
-            
-            // Ajouter un bloc de fondation en dessous de la route
-            level.setBlock(roadPos.below(), Blocks.GRAVEL.defaultBlockState(), 2);
+            placeRoadBlock(writer, seed, x, y, z, roadState);
         }
         
         // Ajouter des bordures de trottoir pour les boulevards et autoroutes
@@ -169,16 +118,18 @@ public class RoadGenerator {
             }
             
             // Bordure supérieure
-            level.setBlock(new BlockPos(x, y, startZ - 1), curbState, 2);
+            writer.setBlock(x, y, startZ - 1, curbState);
             
             // Bordure inférieure
-            level.setBlock(new BlockPos(x, y, startZ + width), curbState, 2);
+            writer.setBlock(x, y, startZ + width, curbState);
         }
     }
     
     /**
      * Génère une intersection de routes
      * @param level Le niveau où générer l'intersection
+     * @param writer Écrivain groupé des blocs (vidé par l'appelant)
+     * @param heights Copie des hauteurs du terrain
      * @param chunkPos Position du chunk
      * @param x Coordonnée X
      * @param z Coordonnée Z
@@ -186,7 +137,7 @@ public class RoadGenerator {
      * @param verticalType Type de route verticale
      * @param state État de dégradation
      */
-    public static void generateIntersection(WorldGenLevel level, ChunkPos chunkPos, int x, int z,
+    public static void generateIntersection(WorldGenLevel level, ChunkSectionWriter writer, HeightmapSnapshot heights, ChunkPos chunkPos, int x, int z,
                                           UrbanGridGenerator.RoadType horizontalType,
                                           UrbanGridGenerator.RoadType verticalType,
                                           UrbanGridGenerator.RoadType state) {
@@ -199,52 +150,149 @@ public class RoadGenerator {
         int horizontalWidth = getRoadWidth(horizontalType);
         int verticalWidth = getRoadWidth(verticalType);
         
-        // Déterminer la position Y (hauteur)
-        int y = getTerrainHeight(level, x, z);
+        // Déterminer la position Y (hauteur) et la graine du bruit de dégradation
+        long seed = level.getSeed();
+        int y = heights.getHeight(x, z);
         
         // Générer l'intersection (rectangle de béton noir)
         for (int dx = 0; dx < horizontalWidth; dx++) {
             for (int dz = 0; dz < verticalWidth; dz++) {
-                BlockPos intersectionPos = new BlockPos(x + dx, y, z + dz);
-                
-                // Si l'intersection est endommagée, ajouter des variations
-                if (state == UrbanGridGenerator.RoadType.HEAVILY_DAMAGED) {
-                    // Intersections très endommagées: alternance de béton normal et de poudre de béton
-                    boolean useDamagedBlock = new Random().nextFloat() < 0.7f;
-                    level.setBlock(intersectionPos, useDamagedBlock ? 
-                            DAMAGED_ROAD_BLOCK.defaultBlockState() : 
-                            ROAD_BLOCK.defaultBlockState(), 2);
-                    
-                    // Ajouter des trous aléatoires
-                    if (new Random().nextFloat() < 0.3f) {
-                        // Ne rien placer (laisser un trou)
-                        continue;
-                    }
-                } 
-                else if (state == UrbanGridGenerator.RoadType.SLIGHTLY_DAMAGED) {
-                    // Intersections légèrement endommagées: principalement du béton avec quelques blocs de poudre
-                    boolean useDamagedBlock = new Random().nextFloat() < 0.3f;
-                    level.setBlock(intersectionPos, useDamagedBlock ? 
-                            DAMAGED_ROAD_BLOCK.defaultBlockState() : 
-                            ROAD_BLOCK.defaultBlockState(), 2);
-                }
-                else {
-                    // Intersections intactes: béton noir ordinaire
-                    level.setBlock(intersectionPos, ROAD_BLOCK.defaultBlockState(), 2);
-                }
-                
-                // Ajouter un bloc de fondation en dessous de l'intersection
-                level.setBlock(intersectionPos.below(), Blocks.GRAVEL.defaultBlockState(), 2);
+                placeRoadBlock(writer, seed, x + dx, y, z + dz, state);
             }
         }
     }
     
+    /**
+     * Génère les routes d'une cellule du plan urbain alignée sur un chunk
+     * La route verticale de la cellule occupe le bord ouest du chunk et sa route horizontale le bord
+     * nord ; les bordures des routes des cellules voisines (est et sud) sont posées sur la dernière
+     * colonne et la dernière rangée du chunk. Aucun bloc n'est écrit hors du chunk : son contenu ne
+     * dépend que du plan et de son propre terrain.
+     * @param level Le niveau où générer les routes
+     * @param writer Écrivain groupé des blocs (vidé par l'appelant)
+     * @param heights Copie des hauteurs du terrain
+     * @param chunkPos Position du chunk (la cellule)
+     * @param layout Plan de la région contenant la cellule
+     * @param cellX Index X de la cellule dans la région
+     * @param cellZ Index Z de la cellule dans la région
+     */
+    public static void generateCellRoads(WorldGenLevel level, ChunkSectionWriter writer, HeightmapSnapshot heights, ChunkPos chunkPos,
+                                         UrbanGridGenerator layout, int cellX, int cellZ) {
+        long seed = level.getSeed();
+        int minX = chunkPos.getMinBlockX();
+        int minZ = chunkPos.getMinBlockZ();
+
+        UrbanGridGenerator.RoadType verticalType = layout.getVerticalRoadType(cellX, cellZ);
+        UrbanGridGenerator.RoadType verticalState = layout.getVerticalRoadState(cellX, cellZ);
+        UrbanGridGenerator.RoadType horizontalType = layout.getHorizontalRoadType(cellX, cellZ);
+        UrbanGridGenerator.RoadType horizontalState = layout.getHorizontalRoadState(cellX, cellZ);
+
+        // Une route détruite n'occupe aucune voie
+        int verticalWidth = verticalState == UrbanGridGenerator.RoadType.DESTROYED ? 0 : getRoadWidth(verticalType);
+        int horizontalWidth = horizontalState == UrbanGridGenerator.RoadType.DESTROYED ? 0 : getRoadWidth(horizontalType);
+
+        // Bordures intérieures des routes de la cellule, puis bordures extérieures des routes voisines
+        for (int i = 0; i < 16; i++) {
+            if (hasCurbs(verticalType, verticalState)) {
+                placeCurb(writer, heights, minX, minZ, verticalWidth, i, verticalWidth, horizontalWidth);
+            }
+            if (hasCurbs(horizontalType, horizontalState)) {
+                placeCurb(writer, heights, minX, minZ, i, horizontalWidth, verticalWidth, horizontalWidth);
+            }
+            if (hasCurbs(layout.getVerticalRoadType(cellX + 1, cellZ), layout.getVerticalRoadState(cellX + 1, cellZ))) {
+                placeCurb(writer, heights, minX, minZ, 15, i, verticalWidth, horizontalWidth);
+            }
+            if (hasCurbs(layout.getHorizontalRoadType(cellX, cellZ + 1), layout.getHorizontalRoadState(cellX, cellZ + 1))) {
+                placeCurb(writer, heights, minX, minZ, i, 15, verticalWidth, horizontalWidth);
+            }
+        }
+
+        // Route horizontale, colonne par colonne pour suivre le terrain (elle couvre l'intersection)
+        for (int dx = 0; dx < 16; dx++) {
+            int y = heights.getHeight(minX + dx, minZ);
+            for (int dz = 0; dz < horizontalWidth; dz++) {
+                placeRoadBlock(writer, seed, minX + dx, y, minZ + dz, horizontalState);
+            }
+        }
+
+        // Route verticale, rangée par rangée après l'intersection
+        for (int dz = horizontalWidth; dz < 16; dz++) {
+            int y = heights.getHeight(minX, minZ + dz);
+            for (int dx = 0; dx < verticalWidth; dx++) {
+                placeRoadBlock(writer, seed, minX + dx, y, minZ + dz, verticalState);
+            }
+        }
+    }
+
+    /**
+     * Vérifie si une route porte des bordures de trottoir (boulevards et autoroutes praticables)
+     */
+    public static boolean hasCurbs(UrbanGridGenerator.RoadType roadType, UrbanGridGenerator.RoadType roadState) {
+        return roadState != UrbanGridGenerator.RoadType.DESTROYED
+                && (roadType == UrbanGridGenerator.RoadType.BOULEVARD || roadType == UrbanGridGenerator.RoadType.HIGHWAY);
+    }
+
+    /**
+     * Place une bordure dans un chunk, sauf sur les voies des routes de la cellule
+     * @param localX Position X dans le chunk
+     * @param localZ Position Z dans le chunk
+     * @param verticalWidth Largeur de la voie verticale (bord ouest)
+     * @param horizontalWidth Largeur de la voie horizontale (bord nord)
+     */
+    private static void placeCurb(ChunkSectionWriter writer, HeightmapSnapshot heights, int minX, int minZ,
+                                  int localX, int localZ, int verticalWidth, int horizontalWidth) {
+        if (localX < verticalWidth || localZ < horizontalWidth) {
+            return;
+        }
+
+        BlockState curbState = CURB_BLOCK.defaultBlockState();
+        if (CURB_BLOCK instanceof SlabBlock) {
+            curbState = curbState.setValue(SlabBlock.TYPE, SlabType.TOP);
+        }
+        int x = minX + localX;
+        int z = minZ + localZ;
+        writer.setBlock(x, heights.getHeight(x, z), z, curbState);
+    }
+
+    /**
+     * Place un bloc de route et sa fondation de gravier selon l'état de dégradation
+     * Les variations proviennent du bruit positionnel : le même bloc est toujours dégradé de la même façon.
+     * @param writer Écrivain groupé des blocs
+     * @param seed Graine du monde
+     * @param x Coordonnée X
+     * @param y Coordonnée Y de la surface de la route
+     * @param z Coordonnée Z
+     * @param roadState État de dégradation
+     */
+    private static void placeRoadBlock(ChunkSectionWriter writer, long seed, int x, int y, int z,
+                                       UrbanGridGenerator.RoadType roadState) {
+        float powderThreshold = 0.0f;
+        if (roadState == UrbanGridGenerator.RoadType.HEAVILY_DAMAGED) {
+            // Routes très endommagées: trous aléatoires (le terrain d'origine est laissé en place)
+            if (DecayNoise.isBelow(seed, DecayNoise.CHANNEL_ROAD_HOLES, x, z, HEAVY_DAMAGE_HOLE_THRESHOLD)) {
+                return;
+            }
+            powderThreshold = HEAVY_DAMAGE_POWDER_THRESHOLD;
+        } else if (roadState == UrbanGridGenerator.RoadType.SLIGHTLY_DAMAGED) {
+            powderThreshold = SLIGHT_DAMAGE_POWDER_THRESHOLD;
+        }
+        
+        // Alternance de béton normal et de poudre de béton selon l'état
+        boolean useDamagedBlock = DecayNoise.isBelow(seed, DecayNoise.CHANNEL_ROAD_SURFACE, x, z, powderThreshold);
+        writer.setBlock(x, y, z, useDamagedBlock ? 
+                DAMAGED_ROAD_BLOCK.defaultBlockState() : 
+                ROAD_BLOCK.defaultBlockState());
+        
+        // Ajouter un bloc de fondation en dessous de la route
+        writer.setBlock(x, y - 1, z, Blocks.GRAVEL.defaultBlockState());
+    }
+    
     /**
      * Obtient la largeur d'une route selon son type
      * @param roadType Type de route
      * @return Largeur en blocs
      */
-    private static int getRoadWidth(UrbanGridGenerator.RoadType roadType) {
+    public static int getRoadWidth(UrbanGridGenerator.RoadType roadType) {
         return switch(roadType) {
             case HIGHWAY -> HIGHWAY_WIDTH;
             case BOULEVARD -> BOULEVARD_WIDTH;
@@ -252,17 +300,4 @@ public class RoadGenerator {
             default -> STREET_WIDTH;
         };
     }
-    
-    /**
-     * Détermine la hauteur du terrain à une position donnée
-     * @param level Le niveau
-     * @param x Coordonnée X
-     * @param z Coordonnée Z
-     * @return Hauteur Y
-     */
-    private static int getTerrainHeight(WorldGenLevel level, int x, int z) {
-        // On pourrait utiliser la heightmap, mais pour simplifier, on utilise une valeur fixe
-        // Dans une implémentation complète, on adapterait la route au terrain
-        return level.getHeight(Heightmap.Types.WORLD_SURFACE_WG, x, z);
-    }
 }
@@ -0,0 +1,330 @@
+package com.whereishumanity.worldgen;
+
+import com.whereishumanity.worldgen.UrbanGridGenerator.RoadType;
+
+import java.util.Arrays;
+
+/**
+ * Graphe du réseau routier d'un plan urbain
+ * Les nœuds sont les intersections de la grille ((gridWidth + 1) × (gridLength + 1)), les arêtes
+ * sont les segments de route praticables. Le graphe est stocké au format CSR (tableaux d'offsets,
+ * de cibles et de coûts) pour rester compact et parcourable sans allocation par arête.
+ */
+public class RoadGraph {
+
+    // Coût relatif au mètre selon le type de route (les grands axes sont plus rapides)
+    private static final float HIGHWAY_FACTOR = 0.6f;
+    private static final float BOULEVARD_FACTOR = 0.8f;
+    private static final float STREET_FACTOR = 1.0f;
+    private static final float ALLEY_FACTOR = 1.2f;
+
+    // Coût relatif selon l'état (les routes détruites sont impraticables et absentes du graphe)
+    private static final float SLIGHT_DAMAGE_FACTOR = 1.2f;
+    private static final float HEAVY_DAMAGE_FACTOR = 2.0f;
+
+    private final int width;  // Nombre d'intersections en X
+    private final int length; // Nombre d'intersections en Z
+    private final int cellSize;
+
+    // Format CSR : les arêtes du nœud n sont dans [offsets[n], offsets[n + 1])
+    private final int[] offsets;
+    private final int[] targets;
+    private final float[] costs;
+
+    private RoadGraph(int width, int length, int cellSize, int[] offsets, int[] targets, float[] costs) {
+        this.width = width;
+        this.length = length;
+        this.cellSize = cellSize;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.costs = costs;
+    }
+
+    /**
+     * Construit le graphe d'un plan urbain
+     * @param layout Le plan
+     * @return Le graphe routier
+     */
+    public static RoadGraph build(UrbanGridGenerator layout) {
+        int gridWidth = layout.getGridWidth();
+        int gridLength = layout.getGridLength();
+        int cellSize = layout.getGridBlockSize();
+        int width = gridWidth + 1;
+        int length = gridLength + 1;
+        int nodeCount = width * length;
+
+        // Premier passage : degré de chaque nœud
+        int[] offsets = new int[nodeCount + 1];
+        for (int x = 0; x < gridWidth; x++) {
+            for (int z = 0; z <= gridLength; z++) {
+                if (layout.getHorizontalRoadState(x, z) != RoadType.DESTROYED) {
+                    offsets[x * length + z + 1]++;
+                    offsets[(x + 1) * length + z + 1]++;
+                }
+            }
+        }
+        for (int x = 0; x <= gridWidth; x++) {
+            for (int z = 0; z < gridLength; z++) {
+                if (layout.getVerticalRoadState(x, z) != RoadType.DESTROYED) {
+                    offsets[x * length + z + 1]++;
+                    offsets[x * length + z + 2]++;
+                }
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+
+        // Second passage : remplissage des arêtes (dans les deux sens)
+        int[] targets = new int[offsets[nodeCount]];
+        float[] costs = new float[offsets[nodeCount]];
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        for (int x = 0; x < gridWidth; x++) {
+            for (int z = 0; z <= gridLength; z++) {
+                RoadType state = layout.getHorizontalRoadState(x, z);
+                if (state != RoadType.DESTROYED) {
+                    float cost = cellSize * typeFactor(layout.getHorizontalRoadType(x, z)) * stateFactor(state);
+                    addEdge(x * length + z, (x + 1) * length + z, cost, next, targets, costs);
+                }
+            }
+        }
+        for (int x = 0; x <= gridWidth; x++) {
+            for (int z = 0; z < gridLength; z++) {
+                RoadType state = layout.getVerticalRoadState(x, z);
+                if (state != RoadType.DESTROYED) {
+                    float cost = cellSize * typeFactor(layout.getVerticalRoadType(x, z)) * stateFactor(state);
+                    addEdge(x * length + z, x * length + z + 1, cost, next, targets, costs);
+                }
+            }
+        }
+
+        return new RoadGraph(width, length, cellSize, offsets, targets, costs);
+    }
+
+    private static void addEdge(int a, int b, float cost, int[] next, int[] targets, float[] costs) {
+        targets[next[a]] = b;
+        costs[next[a]++] = cost;
+        targets[next[b]] = a;
+        costs[next[b]++] = cost;
+    }
+
+    private static float typeFactor(RoadType roadType) {
+        return switch (roadType) {
+            case HIGHWAY -> HIGHWAY_FACTOR;
+            case BOULEVARD -> BOULEVARD_FACTOR;
+            case ALLEY -> ALLEY_FACTOR;
+            default -> STREET_FACTOR;
+        };
+    }
+
+    private static float stateFactor(RoadType roadState) {
+        return switch (roadState) {
+            case SLIGHTLY_DAMAGED -> SLIGHT_DAMAGE_FACTOR;
+            case HEAVILY_DAMAGED -> HEAVY_DAMAGE_FACTOR;
+            default -> 1.0f;
+        };
+    }
+
+    /**
+     * Cherche le chemin le moins coûteux entre deux intersections (A*)
+     * L'heuristique (distance de Manhattan au coût de l'autoroute) est admissible : le chemin est optimal.
+     * @param from Nœud de départ
+     * @param to Nœud d'arrivée
+     * @return Les nœuds du chemin, départ et arrivée inclus, ou null si aucun chemin n'existe
+     */
+    public int[] findPath(int from, int to) {
+        int nodeCount = getNodeCount();
+        float[] distance = new float[nodeCount];
+        int[] previous = new int[nodeCount];
+        boolean[] closed = new boolean[nodeCount];
+        Arrays.fill(distance, Float.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+
+        NodeHeap open = new NodeHeap(Math.min(nodeCount, 64));
+        distance[from] = 0;
+        open.push(from, heuristic(from, to));
+
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (closed[node]) continue; // Entrée périmée (le nœud a été réinséré avec une meilleure priorité)
+            if (node == to) {
+                return buildPath(previous, from, to);
+            }
+            closed[node] = true;
+
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                int target = targets[edge];
+                if (closed[target]) continue;
+
+                float candidate = distance[node] + costs[edge];
+                if (candidate < distance[target]) {
+                    distance[target] = candidate;
+                    previous[target] = node;
+                    open.push(target, candidate + heuristic(target, to));
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private float heuristic(int node, int target) {
+        int dx = Math.abs(getNodeX(node) - getNodeX(target));
+        int dz = Math.abs(getNodeZ(node) - getNodeZ(target));
+        return (dx + dz) * cellSize * HIGHWAY_FACTOR;
+    }
+
+    private static int[] buildPath(int[] previous, int from, int to) {
+        int count = 1;
+        for (int node = to; node != from; node = previous[node]) {
+            count++;
+        }
+
+        int[] path = new int[count];
+        int node = to;
+        for (int i = count - 1; i >= 0; i--) {
+            path[i] = node;
+            node = previous[node];
+        }
+        return path;
+    }
+
+    /**
+     * Coût total d'un chemin renvoyé par {@link #findPath}
+     */
+    public float getPathCost(int[] path) {
+        float total = 0;
+        for (int i = 1; i < path.length; i++) {
+            for (int edge = offsets[path[i - 1]]; edge < offsets[path[i - 1] + 1]; edge++) {
+                if (targets[edge] == path[i]) {
+                    total += costs[edge];
+                    break;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Identifiant de l'intersection (x, z)
+     * @param x Index X de l'intersection (0 à gridWidth)
+     * @param z Index Z de l'intersection (0 à gridLength)
+     */
+    public int getNode(int x, int z) {
+        return x * length + z;
+    }
+
+    public int getNodeX(int node) {
+        return node / length;
+    }
+
+    public int getNodeZ(int node) {
+        return node % length;
+    }
+
+    /**
+     * Première arête partant d'une intersection
+     */
+    public int getFirstEdge(int node) {
+        return offsets[node];
+    }
+
+    /**
+     * Fin (exclue) des arêtes partant d'une intersection
+     */
+    public int getEdgeEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    public int getEdgeTarget(int edge) {
+        return targets[edge];
+    }
+
+    public float getEdgeCost(int edge) {
+        return costs[edge];
+    }
+
+    /**
+     * Coût minimal d'un bloc de route (autoroute intacte), pour les heuristiques admissibles
+     */
+    public static float getMinimumCostPerBlock() {
+        return HIGHWAY_FACTOR;
+    }
+
+    /**
+     * Nombre de routes praticables partant d'une intersection
+     */
+    public int getDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public int getNodeCount() {
+        return width * length;
+    }
+
+    public int getEdgeCount() {
+        return targets.length / 2;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * File de priorité binaire sur tableaux primitifs
+     */
+    private static class NodeHeap {
+        private int[] nodes;
+        private float[] priorities;
+        private int size = 0;
+
+        NodeHeap(int capacity) {
+            nodes = new int[capacity];
+            priorities = new float[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int node, float priority) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                priorities = Arrays.copyOf(priorities, size * 2);
+            }
+
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (priorities[parent] <= priority) break;
+                nodes[i] = nodes[parent];
+                priorities[i] = priorities[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            priorities[i] = priority;
+        }
+
+        int pop() {
+            int result = nodes[0];
+            int lastNode = nodes[--size];
+            float lastPriority = priorities[size];
+
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && priorities[child + 1] < priorities[child]) {
+                    child++;
+                }
+                if (lastPriority <= priorities[child]) break;
+                nodes[i] = nodes[child];
+                priorities[i] = priorities[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            priorities[i] = lastPriority;
+            return result;
+        }
+    }
+}
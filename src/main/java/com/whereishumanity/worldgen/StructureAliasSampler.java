@@ -0,0 +1,124 @@
+package com.whereishumanity.worldgen;
+
+import com.whereishumanity.worldgen.structures.StructureType;
+import net.minecraft.util.RandomSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tirage pondéré de structures par la méthode des alias de Walker
+ * Les tables sont construites une seule fois ; chaque tirage coûte deux nombres aléatoires,
+ * sans allocation, et dépend uniquement de l'ordre dans lequel les structures ont été ajoutées.
+ */
+public class StructureAliasSampler {
+    private final StructureType[] outcomes;
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    private StructureAliasSampler(StructureType[] outcomes, int[] weights) {
+        int count = outcomes.length;
+        this.outcomes = outcomes;
+        this.probabilities = new double[count];
+        this.aliases = new int[count];
+
+        long totalWeight = 0;
+        for (int weight : weights) {
+            totalWeight += weight;
+        }
+
+        // Probabilités normalisées pour une moyenne de 1 par case
+        double[] scaled = new double[count];
+        int[] small = new int[count];
+        int[] large = new int[count];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < count; i++) {
+            scaled[i] = (double) weights[i] * count / totalWeight;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Algorithme de Vose : chaque case pauvre est complétée par une case riche
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Les cases restantes sont pleines (aux erreurs d'arrondi près)
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probabilities[index] = 1.0;
+            aliases[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probabilities[index] = 1.0;
+            aliases[index] = index;
+        }
+    }
+
+    /**
+     * Tire une structure
+     * @param random Source aléatoire
+     * @return La structure tirée
+     */
+    public StructureType sample(RandomSource random) {
+        int index = random.nextInt(outcomes.length);
+        return random.nextDouble() < probabilities[index] ? outcomes[index] : outcomes[aliases[index]];
+    }
+
+    /**
+     * Crée un constructeur de sampler
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Constructeur de sampler ; l'ordre d'ajout fixe l'ordre des tables
+     */
+    public static class Builder {
+        private final List<StructureType> outcomes = new ArrayList<>();
+        private final List<Integer> weights = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Ajoute une structure avec son poids (ignorée si le poids est nul)
+         * @param structureType La structure
+         * @param weight Son poids
+         * @return Ce constructeur
+         */
+        public Builder add(StructureType structureType, int weight) {
+            if (weight > 0) {
+                outcomes.add(structureType);
+                weights.add(weight);
+            }
+            return this;
+        }
+
+        public StructureAliasSampler build() {
+            if (outcomes.isEmpty()) {
+                throw new IllegalStateException("Un sampler de structures doit contenir au moins une structure");
+            }
+            return new StructureAliasSampler(
+                    outcomes.toArray(new StructureType[0]),
+                    weights.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.whereishumanity.worldgen;
+
+import net.minecraft.util.Mth;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.synth.ImprovedNoise;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Champ de densité urbaine à basse fréquence
+ * Un bruit de Perlin dérivé de la graine du monde décide, de façon continue à travers le monde,
+ * où s'étendent les villes, où se trouvent leurs centres et comment elles s'éclaircissent vers la
+ * périphérie. Le bruit n'est évalué que sur un réseau grossier (une valeur toutes les
+ * {@link #SAMPLE_STEP} cellules) ; les échantillons d'une région sont conservés dans un cache LRU et
+ * la densité d'une cellule est interpolée entre les quatre échantillons voisins. Le réseau est global :
+ * deux régions voisines partagent les échantillons de leur frontière, le champ est donc continu.
+ */
+public class UrbanDensityField {
+
+    // Densité en dessous de laquelle une cellule est hors de toute ville
+    public static final float WILDERNESS_THRESHOLD = 0.3f;
+
+    // Pas du réseau d'échantillonnage (en cellules)
+    public static final int SAMPLE_STEP = 4;
+
+    private static final int REGION_CELLS = UrbanLayoutService.REGION_CELLS;
+    private static final int SAMPLES_PER_SIDE = REGION_CELLS / SAMPLE_STEP + 1;
+
+    // Fréquence du bruit (en cellules) : une ville s'étend sur une à deux régions
+    private static final double FREQUENCY = 1.0 / 48.0;
+
+    // Sel distinguant ce bruit des autres tirages de la graine du monde
+    private static final long DENSITY_SALT = 0x0DE5_1770L;
+
+    // Nombre maximal de régions dont les échantillons sont gardés en mémoire
+    private static final int MAX_CACHED_REGIONS = 256;
+
+    private final ImprovedNoise noise;
+    private final Map<Long, float[]> samples = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, float[]> eldest) {
+            return size() > MAX_CACHED_REGIONS;
+        }
+    };
+
+    /**
+     * Constructeur
+     * @param worldSeed Graine du monde
+     */
+    public UrbanDensityField(long worldSeed) {
+        this.noise = new ImprovedNoise(RandomSource.create(PositionalRandom.mix(worldSeed, DENSITY_SALT, 0)));
+    }
+
+    /**
+     * Densité urbaine d'une cellule
+     * @param cellX Coordonnée X globale de la cellule
+     * @param cellZ Coordonnée Z globale de la cellule
+     * @return Densité entre 0 (nature) et 1 (cœur d'une métropole)
+     */
+    public float getCellDensity(int cellX, int cellZ) {
+        int regionX = Math.floorDiv(cellX, REGION_CELLS);
+        int regionZ = Math.floorDiv(cellZ, REGION_CELLS);
+        return interpolate(getRegionSamples(regionX, regionZ), cellX - regionX * REGION_CELLS, cellZ - regionZ * REGION_CELLS);
+    }
+
+    /**
+     * Densités de toutes les cellules d'une région
+     * @param regionX Coordonnée X de la région
+     * @param regionZ Coordonnée Z de la région
+     * @return Densités indexées par x * REGION_CELLS + z, comme les cellules d'un plan
+     */
+    public float[] getRegionDensities(int regionX, int regionZ) {
+        float[] regionSamples = getRegionSamples(regionX, regionZ);
+        float[] densities = new float[REGION_CELLS * REGION_CELLS];
+        for (int x = 0; x < REGION_CELLS; x++) {
+            for (int z = 0; z < REGION_CELLS; z++) {
+                densities[x * REGION_CELLS + z] = interpolate(regionSamples, x, z);
+            }
+        }
+        return densities;
+    }
+
+    /**
+     * Vérifie si une cellule est hors de toute ville
+     * @param cellX Coordonnée X globale de la cellule
+     * @param cellZ Coordonnée Z globale de la cellule
+     */
+    public boolean isWilderness(int cellX, int cellZ) {
+        return getCellDensity(cellX, cellZ) < WILDERNESS_THRESHOLD;
+    }
+
+    /**
+     * Échantillons du réseau grossier couvrant une région (bords inclus), calculés une seule fois
+     */
+    private float[] getRegionSamples(int regionX, int regionZ) {
+        long key = ChunkPos.asLong(regionX, regionZ);
+        synchronized (samples) {
+            float[] cached = samples.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Hors du verrou : le calcul est déterministe, un calcul en double est sans conséquence
+        float[] computed = new float[SAMPLES_PER_SIDE * SAMPLES_PER_SIDE];
+        int originX = regionX * REGION_CELLS;
+        int originZ = regionZ * REGION_CELLS;
+        for (int i = 0; i < SAMPLES_PER_SIDE; i++) {
+            for (int j = 0; j < SAMPLES_PER_SIDE; j++) {
+                computed[i * SAMPLES_PER_SIDE + j] = sample(originX + i * SAMPLE_STEP, originZ + j * SAMPLE_STEP);
+            }
+        }
+
+        synchronized (samples) {
+            float[] existing = samples.putIfAbsent(key, computed);
+            return existing != null ? existing : computed;
+        }
+    }
+
+    /**
+     * Évalue le bruit en un point du réseau : une octave principale et une octave de détail
+     * qui découpe les contours des villes
+     */
+    private float sample(int cellX, int cellZ) {
+        double x = cellX * FREQUENCY;
+        double z = cellZ * FREQUENCY;
+        double value = noise.noise(x, 0.0, z) + 0.5 * noise.noise(x * 2.0 + 17.0, 0.0, z * 2.0 + 17.0);
+        return Mth.clamp(0.45f + (float) value * 0.75f, 0.0f, 1.0f);
+    }
+
+    /**
+     * Interpolation bilinéaire entre les quatre échantillons entourant une cellule de la région
+     */
+    private static float interpolate(float[] regionSamples, int cellX, int cellZ) {
+        int i = cellX / SAMPLE_STEP;
+        int j = cellZ / SAMPLE_STEP;
+        float fx = (float) (cellX % SAMPLE_STEP) / SAMPLE_STEP;
+        float fz = (float) (cellZ % SAMPLE_STEP) / SAMPLE_STEP;
+        return (float) Mth.lerp2(fx, fz,
+                regionSamples[i * SAMPLES_PER_SIDE + j],
+                regionSamples[(i + 1) * SAMPLES_PER_SIDE + j],
+                regionSamples[i * SAMPLES_PER_SIDE + j + 1],
+                regionSamples[(i + 1) * SAMPLES_PER_SIDE + j + 1]);
+    }
+}
@@ -2,11 +2,10 @@ package com.whereishumanity.worldgen;
 
 import com.whereishumanity.WhereIsHumanity;
 import com.whereishumanity.worldgen.structures.StructureType;
-import net.minecraft.core.BlockPos;
 import net.minecraft.util.RandomSource;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * Générateur de villes basé sur une grille orthogonale
@@ -17,6 +16,14 @@ public class UrbanGridGenerator {
     // Paramètres de grille
     private static final int DEFAULT_GRID_BLOCK_SIZE = 16; // Taille par défaut d'un bloc de grille en blocs Minecraft
     
+    // Tables de décodage des ordinaux stockés dans les tableaux compacts
+    private static final CellType[] CELL_TYPES = CellType.values();
+    private static final RoadType[] ROAD_TYPES = RoadType.values();
+    private static final StructureType[] STRUCTURE_TYPES = StructureType.values();
+    
+    // Tables de tirage des structures, indexées par [BiomeType][CellType] (null pour SPECIAL)
+    private static final StructureAliasSampler[][] STRUCTURE_SAMPLERS = createStructureSamplers();
+    
     // Type de biome pour adapter la génération
     private final BiomeType biomeType;
     
@@ -27,16 +34,30 @@ public class UrbanGridGenerator {
     // Taille d'un bloc de grille
     private final int gridBlockSize;
     
-    // Grille de cellules (structures, routes, etc.)
-    private final CityCell[][] cityGrid;
+    // Grille de cellules stockée à plat (index = x * gridLength + z)
+    private final byte[] cellTypes;        // Ordinal du CellType
+    private final short[] structureTypes;  // Ordinal du StructureType + 1 (0 = aucune structure)
+    private final int[] multiBlockOrigins; // Index de la cellule d'origine (-1 = pas dans une structure multi-blocs)
     
-    // Maillage routier
-    private final RoadType[][] horizontalRoads;
-    private final RoadType[][] verticalRoads;
+    // Maillage routier, un octet par segment : type de route sur les 4 bits faibles, état sur les 4 bits forts
+    private final byte[] horizontalRoads;  // index = x * (gridLength + 1) + z
+    private final byte[] verticalRoads;    // index = x * gridLength + z
     
     // Seed de génération
     private final long seed;
-    private final RandomSource random;
+    
+    // Densité urbaine de chaque cellule, utilisée pendant la génération (null = zonage par distance au centre)
+    private final float[] cellDensities;
+    
+    // Position globale (en cellules) de la cellule (0, 0) d'une région d'un plan découpé en régions
+    private final int originX;
+    private final int originZ;
+    
+    // true pour une région d'un plan découpé : pas de périphérique propre à la région
+    private final boolean regionTile;
+    
+    // Graphe routier, construit à la première demande
+    private volatile RoadGraph roadGraph;
     
     /**
      * Constructeur principal
@@ -47,22 +68,86 @@ public class UrbanGridGenerator {
      * @param seed Graine de génération
      */
     public UrbanGridGenerator(BiomeType biomeType, int gridWidth, int gridLength, int gridBlockSize, long seed) {
+        this(biomeType, gridWidth, gridLength, gridBlockSize, seed, null);
+    }
+    
+    /**
+     * Constructeur d'un plan dont le zonage suit le champ de densité urbaine
+     * @param biomeType Type de biome urbain
+     * @param gridWidth Largeur de la grille en cellules
+     * @param gridLength Longueur de la grille en cellules
+     * @param gridBlockSize Taille d'un bloc de grille en blocs Minecraft
+     * @param seed Graine de génération
+     * @param cellDensities Densité de chaque cellule (index = x * gridLength + z), ou null pour un zonage par distance au centre
+     */
+    public UrbanGridGenerator(BiomeType biomeType, int gridWidth, int gridLength, int gridBlockSize, long seed, float[] cellDensities) {
+        this(biomeType, gridWidth, gridLength, gridBlockSize, seed, cellDensities, 0, 0, false);
+    }
+    
+    /**
+     * Constructeur d'une région d'un plan découpé en régions
+     * Les avenues sont placées selon les coordonnées globales des cellules, si bien qu'elles se
+     * prolongent d'une région à l'autre, et la région n'a pas de périphérique propre.
+     * @param biomeType Type de biome urbain
+     * @param gridWidth Largeur de la région en cellules
+     * @param gridLength Longueur de la région en cellules
+     * @param gridBlockSize Taille d'un bloc de grille en blocs Minecraft
+     * @param seed Graine de génération
+     * @param cellDensities Densité de chaque cellule (index = x * gridLength + z)
+     * @param originX Coordonnée X globale (en cellules) de la première cellule de la région
+     * @param originZ Coordonnée Z globale (en cellules) de la première cellule de la région
+     */
+    public UrbanGridGenerator(BiomeType biomeType, int gridWidth, int gridLength, int gridBlockSize, long seed, float[] cellDensities,
+                              int originX, int originZ) {
+        this(biomeType, gridWidth, gridLength, gridBlockSize, seed, cellDensities, originX, originZ, true);
+    }
+    
+    private UrbanGridGenerator(BiomeType biomeType, int gridWidth, int gridLength, int gridBlockSize, long seed, float[] cellDensities,
+                               int originX, int originZ, boolean regionTile) {
         this.biomeType = biomeType;
         this.gridWidth = gridWidth;
         this.gridLength = gridLength;
         this.gridBlockSize = gridBlockSize;
         this.seed = seed;
-        this.random = RandomSource.create(seed);
+        this.cellDensities = cellDensities;
+        this.originX = originX;
+        this.originZ = originZ;
+        this.regionTile = regionTile;
         
         // Initialiser les grilles
-        this.cityGrid = new CityCell[gridWidth][gridLength];
-        this.horizontalRoads = new RoadType[gridWidth][gridLength + 1];
-        this.verticalRoads = new RoadType[gridWidth + 1][gridLength];
+        this.cellTypes = new byte[gridWidth * gridLength];
+        this.structureTypes = new short[gridWidth * gridLength];
+        this.multiBlockOrigins = new int[gridWidth * gridLength];
+        this.horizontalRoads = new byte[gridWidth * (gridLength + 1)];
+        this.verticalRoads = new byte[(gridWidth + 1) * gridLength];
+        Arrays.fill(multiBlockOrigins, -1);
         
         // Générer le plan de la ville
         generateCityLayout();
     }
     
+    /**
+     * Constructeur d'un plan déjà généré (relu depuis le disque)
+     */
+    private UrbanGridGenerator(BiomeType biomeType, int gridWidth, int gridLength, int gridBlockSize, long seed,
+                               byte[] cellTypes, short[] structureTypes, int[] multiBlockOrigins,
+                               byte[] horizontalRoads, byte[] verticalRoads) {
+        this.biomeType = biomeType;
+        this.gridWidth = gridWidth;
+        this.gridLength = gridLength;
+        this.gridBlockSize = gridBlockSize;
+        this.seed = seed;
+        this.cellDensities = null;
+        this.originX = 0;
+        this.originZ = 0;
+        this.regionTile = false;
+        this.cellTypes = cellTypes;
+        this.structureTypes = structureTypes;
+        this.multiBlockOrigins = multiBlockOrigins;
+        this.horizontalRoads = horizontalRoads;
+        this.verticalRoads = verticalRoads;
+    }
+    
     /**
      * Constructeur avec la taille de bloc de grille par défaut
      */
@@ -74,7 +159,7 @@ public class UrbanGridGenerator {
      * Génère le plan de base de la ville (routes et emplacements des structures)
      */
     private void generateCityLayout() {
-        WhereIsHumanity.LOGGER.info("Génération du plan urbain pour un biome " + biomeType.name() + 
+        WhereIsHumanity.LOGGER.debug("Génération du plan urbain pour un biome " + biomeType.name() + 
                 " de taille " + gridWidth + "x" + gridLength);
         
         // 1. Générer le réseau routier principal
@@ -92,7 +177,12 @@ public class UrbanGridGenerator {
         // 5. Placer les bâtiments spéciaux (commissariats, hôpitaux, etc.)
         placeSpecialBuildings();
         
-        WhereIsHumanity.LOGGER.info("Plan urbain généré avec succès");
+        // 6. Retirer les routes qui ne desservent aucune ville
+        if (cellDensities != null) {
+            removeWildernessRoads();
+        }
+        
+        WhereIsHumanity.LOGGER.debug("Plan urbain généré avec succès");
     }
     
     /**
@@ -110,31 +200,32 @@ public class UrbanGridGenerator {
         for (int x = 0; x <= gridWidth; x++) {
             for (int z = 0; z <= gridLength; z++) {
                 if (x < gridWidth) {
-                    horizontalRoads[x][z] = RoadType.STREET;
+                    horizontalRoads[horizontalIndex(x, z)] = packRoad(RoadType.STREET, RoadType.INTACT);
                 }
                 if (z < gridLength) {
-                    verticalRoads[x][z] = RoadType.STREET;
+                    verticalRoads[verticalIndex(x, z)] = packRoad(RoadType.STREET, RoadType.INTACT);
                 }
             }
         }
         
-        // Ajouter les routes principales (boulevards)
+        // Ajouter les routes principales (boulevards), alignées sur les coordonnées globales des cellules
         for (int x = 0; x < gridWidth; x++) {
             for (int z = 0; z < gridLength; z++) {
                 // Routes horizontales principales
-                if (z % mainRoadFrequency == 0 && x < gridWidth) {
-                    horizontalRoads[x][z] = RoadType.BOULEVARD;
+                if (Math.floorMod(originZ + z, mainRoadFrequency) == 0) {
+                    horizontalRoads[horizontalIndex(x, z)] = packRoad(RoadType.BOULEVARD, RoadType.INTACT);
                 }
                 
                 // Routes verticales principales
-                if (x % mainRoadFrequency == 0 && z < gridLength) {
-                    verticalRoads[x][z] = RoadType.BOULEVARD;
+                if (Math.floorMod(originX + x, mainRoadFrequency) == 0) {
+                    verticalRoads[verticalIndex(x, z)] = packRoad(RoadType.BOULEVARD, RoadType.INTACT);
                 }
             }
         }
         
-        // Ajouter une route circulaire autour de la ville (si assez grande)
-        if (gridWidth >= 12 && gridLength >= 12) {
+        // Ajouter une route circulaire autour de la ville (si assez grande) ; une région d'un plan
+        // découpé n'est pas une ville entière et n'en a pas
+        if (!regionTile && gridWidth >= 12 && gridLength >= 12) {
             addRingRoad();
         }
     }
@@ -148,22 +239,22 @@ public class UrbanGridGenerator {
         
         // Route horizontale en haut
         for (int x = borderDistance; x < gridWidth - borderDistance; x++) {
-            horizontalRoads[x][borderDistance] = RoadType.HIGHWAY;
+            horizontalRoads[horizontalIndex(x, borderDistance)] = packRoad(RoadType.HIGHWAY, RoadType.INTACT);
         }
         
         // Route horizontale en bas
         for (int x = borderDistance; x < gridWidth - borderDistance; x++) {
-            horizontalRoads[x][gridLength - borderDistance] = RoadType.HIGHWAY;
+            horizontalRoads[horizontalIndex(x, gridLength - borderDistance)] = packRoad(RoadType.HIGHWAY, RoadType.INTACT);
         }
         
         // Route verticale à gauche
         for (int z = borderDistance; z < gridLength - borderDistance; z++) {
-            verticalRoads[borderDistance][z] = RoadType.HIGHWAY;
+            verticalRoads[verticalIndex(borderDistance, z)] = packRoad(RoadType.HIGHWAY, RoadType.INTACT);
         }
         
         // Route verticale à droite
         for (int z = borderDistance; z < gridLength - borderDistance; z++) {
-            verticalRoads[gridWidth - borderDistance][z] = RoadType.HIGHWAY;
+            verticalRoads[verticalIndex(gridWidth - borderDistance, z)] = packRoad(RoadType.HIGHWAY, RoadType.INTACT);
         }
     }
     
@@ -179,6 +270,34 @@ public class UrbanGridGenerator {
      * Applique des dégâts aléatoires aux routes pour l'aspect abandonné
      */
     private void applyRoadDamage() {
+        // Appliquer des dégâts aux routes horizontales (une tâche par rangée)
+        LayoutExecutor.forEachRow(gridWidth, gridWidth * gridLength, x -> {
+            RandomSource random = PositionalRandom.create();
+            for (int z = 0; z <= gridLength; z++) {
+                PositionalRandom.reseed(random, seed, PositionalRandom.PHASE_HORIZONTAL_ROAD_DAMAGE, x, z);
+                int index = horizontalIndex(x, z);
+                horizontalRoads[index] = packRoad(unpackRoadType(horizontalRoads[index]), rollRoadDamage(biomeType, random));
+            }
+        });
+        
+        // Appliquer des dégâts aux routes verticales
+        LayoutExecutor.forEachRow(gridWidth + 1, gridWidth * gridLength, x -> {
+            RandomSource random = PositionalRandom.create();
+            for (int z = 0; z < gridLength; z++) {
+                PositionalRandom.reseed(random, seed, PositionalRandom.PHASE_VERTICAL_ROAD_DAMAGE, x, z);
+                int index = verticalIndex(x, z);
+                verticalRoads[index] = packRoad(unpackRoadType(verticalRoads[index]), rollRoadDamage(biomeType, random));
+            }
+        });
+    }
+    
+    /**
+     * Tire l'état de dégradation d'un segment de route
+     * @param biomeType Type de biome (les probabilités en dépendent)
+     * @param random Source aléatoire
+     * @return L'état du segment (INTACT, SLIGHTLY_DAMAGED, HEAVILY_DAMAGED ou DESTROYED)
+     */
+    static RoadType rollRoadDamage(BiomeType biomeType, RandomSource random) {
         // Probabilités de dégâts selon le type de biome
         float slightDamageChance, heavyDamageChance, destroyedChance;
         
@@ -204,31 +323,14 @@ public class UrbanGridGenerator {
                 destroyedChance = 0.05f;
         }
         
-        // Appliquer des dégâts aux routes horizontales
-        for (int x = 0; x < gridWidth; x++) {
-            for (int z = 0; z <= gridLength; z++) {
-                if (random.nextFloat() < destroyedChance) {
-                    horizontalRoads[x][z] = RoadType.DESTROYED;
-                } else if (random.nextFloat() < heavyDamageChance) {
-                    horizontalRoads[x][z] = RoadType.HEAVILY_DAMAGED;
-                } else if (random.nextFloat() < slightDamageChance) {
-                    horizontalRoads[x][z] = RoadType.SLIGHTLY_DAMAGED;
-                }
-            }
-        }
-        
-        // Appliquer des dégâts aux routes verticales
-        for (int x = 0; x <= gridWidth; x++) {
-            for (int z = 0; z < gridLength; z++) {
-                if (random.nextFloat() < destroyedChance) {
-                    verticalRoads[x][z] = RoadType.DESTROYED;
-                } else if (random.nextFloat() < heavyDamageChance) {
-                    verticalRoads[x][z] = RoadType.HEAVILY_DAMAGED;
-                } else if (random.nextFloat() < slightDamageChance) {
-                    verticalRoads[x][z] = RoadType.SLIGHTLY_DAMAGED;
-                }
-            }
+        if (random.nextFloat() < destroyedChance) {
+            return RoadType.DESTROYED;
+        } else if (random.nextFloat() < heavyDamageChance) {
+            return RoadType.HEAVILY_DAMAGED;
+        } else if (random.nextFloat() < slightDamageChance) {
+            return RoadType.SLIGHTLY_DAMAGED;
         }
+        return RoadType.INTACT;
     }
     
     /**
@@ -239,25 +341,36 @@ public class UrbanGridGenerator {
         int centerX = gridWidth / 2;
         int centerZ = gridLength / 2;
         
-        // Pour chaque cellule de la grille
-        for (int x = 0; x < gridWidth; x++) {
+        // Pour chaque cellule de la grille (une tâche par rangée)
+        LayoutExecutor.forEachRow(gridWidth, gridWidth * gridLength, x -> {
+            RandomSource random = PositionalRandom.create();
             for (int z = 0; z < gridLength; z++) {
-                // Calculer la distance au centre (Manhattan distance)
-                int distanceToCenter = Math.abs(x - centerX) + Math.abs(z - centerZ);
+                PositionalRandom.reseed(random, seed, PositionalRandom.PHASE_CELL_TYPES, x, z);
                 
-                // Selon le type de biome et la distance, attribuer différents types de bâtiments
-                CellType cellType = determineCellType(distanceToCenter, x, z);
+                int index = cellIndex(x, z);
+                CellType cellType;
+                if (cellDensities != null) {
+                    // Selon le type de biome et la densité urbaine de la cellule
+                    cellType = determineCellTypeFromDensity(cellDensities[index], random);
+                } else {
+                    // Calculer la distance au centre (Manhattan distance)
+                    int distanceToCenter = Math.abs(x - centerX) + Math.abs(z - centerZ);
+                    
+                    // Selon le type de biome et la distance, attribuer différents types de bâtiments
+                    cellType = determineCellType(distanceToCenter, random);
+                }
                 
-                // Créer la cellule
-                cityGrid[x][z] = new CityCell(cellType, getRandomStructureForCellType(cellType));
+                // Remplir la cellule
+                cellTypes[index] = (byte) cellType.ordinal();
+                structureTypes[index] = encodeStructure(getRandomStructureForCellType(cellType, random));
             }
-        }
+        });
     }
     
     /**
      * Détermine le type de cellule selon la distance au centre et les paramètres du biome
      */
-    private CellType determineCellType(int distanceToCenter, int x, int z) {
+    private CellType determineCellType(int distanceToCenter, RandomSource random) {
         // Paramètres selon le type de biome
         int downtownRadius, commercialRadius, residentialRadius;
         float parkChance, emptyChance;
@@ -325,95 +438,186 @@ public class UrbanGridGenerator {
     }
     
     /**
-     * Choisit une structure aléatoire adaptée au type de cellule
+     * Détermine le type de cellule selon la densité urbaine et les paramètres du biome
+     * Les seuils jouent le rôle des rayons du zonage par distance : le centre-ville occupe les pics
+     * du champ de densité, et la périphérie ses pentes.
      */
-    private StructureType getRandomStructureForCellType(CellType cellType) {
-        Map<StructureType, Integer> weightedStructures = new HashMap<>();
+    private CellType determineCellTypeFromDensity(float density, RandomSource random) {
+        // Hors de toute ville : pas de variation aléatoire, pour des limites de ville nettes
+        if (density < UrbanDensityField.WILDERNESS_THRESHOLD) {
+            return CellType.WILDERNESS;
+        }
         
-        switch(cellType) {
-            case DOWNTOWN:
-                addWeightedStructure(weightedStructures, StructureType.SKYSCRAPER, 50);
-                addWeightedStructure(weightedStructures, StructureType.OFFICE_BUILDING, 30);
-                addWeightedStructure(weightedStructures, StructureType.GOVERNMENT_BUILDING, 10);
-                addWeightedStructure(weightedStructures, StructureType.APARTMENT_COMPLEX, 5);
-                addWeightedStructure(weightedStructures, StructureType.MALL, 5);
-                break;
-                
-            case COMMERCIAL:
-                addWeightedStructure(weightedStructures, StructureType.OFFICE_BUILDING, 30);
-                addWeightedStructure(weightedStructures, StructureType.MALL, 20);
-                addWeightedStructure(weightedStructures, StructureType.APARTMENT_BUILDING, 20);
-                addWeightedStructure(weightedStructures, StructureType.WAREHOUSE, 15);
-                addWeightedStructure(weightedStructures, StructureType.FACTORY, 10);
-                addWeightedStructure(weightedStructures, StructureType.GAS_STATION, 5);
-                break;
-                
-            case RESIDENTIAL:
-                addWeightedStructure(weightedStructures, StructureType.APARTMENT_COMPLEX, 25);
-                addWeightedStructure(weightedStructures, StructureType.APARTMENT_BUILDING, 25);
-                addWeightedStructure(weightedStructures, StructureType.MEDIUM_HOUSE, 20);
-                addWeightedStructure(weightedStructures, StructureType.LARGE_HOUSE, 15);
-                addWeightedStructure(weightedStructures, StructureType.SMALL_HOUSE, 10);
-                addWeightedStructure(weightedStructures, StructureType.SCHOOL, 5);
-                break;
-                
-            case RURAL:
-                addWeightedStructure(weightedStructures, StructureType.SMALL_HOUSE, 40);
-                addWeightedStructure(weightedStructures, StructureType.MEDIUM_HOUSE, 30);
-                addWeightedStructure(weightedStructures, StructureType.LARGE_HOUSE, 15);
-                addWeightedStructure(weightedStructures, StructureType.GAS_STATION, 10);
-                addWeightedStructure(weightedStructures, StructureType.WAREHOUSE, 5);
+        // Paramètres selon le type de biome
+        float downtownDensity, commercialDensity, residentialDensity;
+        float parkChance, emptyChance;
+        
+        switch(biomeType) {
+            case METROPOLIS:
+                downtownDensity = 0.8f;
+                commercialDensity = 0.65f;
+                residentialDensity = 0.45f;
+                parkChance = 0.05f;
+                emptyChance = 0.02f;
                 break;
-                
-            case PARK:
-                addWeightedStructure(weightedStructures, StructureType.PARK, 100);
+            case CITY:
+                downtownDensity = 0.85f;
+                commercialDensity = 0.72f;
+                residentialDensity = 0.5f;
+                parkChance = 0.1f;
+                emptyChance = 0.05f;
                 break;
-                
-            case EMPTY:
-                addWeightedStructure(weightedStructures, StructureType.PARKING_LOT, 50);
-                addWeightedStructure(weightedStructures, StructureType.RUINS, 30);
-                addWeightedStructure(weightedStructures, StructureType.STREET_PROPS, 20);
+            case VILLAGE:
+                downtownDensity = 0.92f;
+                commercialDensity = 0.82f;
+                residentialDensity = 0.55f;
+                parkChance = 0.15f;
+                emptyChance = 0.1f;
                 break;
-                
-            case SPECIAL:
-                // Les bâtiments spéciaux sont attribués séparément
-                return null;
+            default:
+                downtownDensity = 0.85f;
+                commercialDensity = 0.7f;
+                residentialDensity = 0.5f;
+                parkChance = 0.1f;
+                emptyChance = 0.05f;
         }
         
-        // Sélectionner une structure aléatoire basée sur les poids
-        return selectWeightedRandom(weightedStructures);
+        // Ajouter des variations aléatoires pour éviter des contours trop réguliers
+        float effectiveDensity = density * (random.nextFloat() * 0.3f + 0.85f); // Entre 0.85 et 1.15
+        
+        if (effectiveDensity >= downtownDensity) {
+            return CellType.DOWNTOWN;
+        } else if (effectiveDensity >= commercialDensity) {
+            return CellType.COMMERCIAL;
+        } else if (effectiveDensity >= residentialDensity) {
+            float roll = random.nextFloat();
+            if (roll < parkChance) {
+                return CellType.PARK;
+            } else if (roll < parkChance + emptyChance) {
+                return CellType.EMPTY;
+            } else {
+                return CellType.RESIDENTIAL;
+            }
+        } else {
+            // Périphérie de la ville
+            float roll = random.nextFloat();
+            if (roll < 0.6f) {
+                return CellType.EMPTY;
+            } else if (roll < 0.8f) {
+                return CellType.RURAL;
+            } else {
+                return CellType.PARK;
+            }
+        }
+    }
+    
+    /**
+     * Retire les segments de route situés entre deux cellules hors de toute ville
+     * Un segment retiré est marqué détruit : il n'est ni tracé ni praticable. Les segments des bords
+     * de la grille sont laissés au raccord entre régions.
+     */
+    private void removeWildernessRoads() {
+        for (int x = 0; x < gridWidth; x++) {
+            for (int z = 1; z < gridLength; z++) {
+                if (isWilderness(x, z - 1) && isWilderness(x, z)) {
+                    int index = horizontalIndex(x, z);
+                    horizontalRoads[index] = packRoad(unpackRoadType(horizontalRoads[index]), RoadType.DESTROYED);
+                }
+            }
+        }
+        for (int x = 1; x < gridWidth; x++) {
+            for (int z = 0; z < gridLength; z++) {
+                if (isWilderness(x - 1, z) && isWilderness(x, z)) {
+                    int index = verticalIndex(x, z);
+                    verticalRoads[index] = packRoad(unpackRoadType(verticalRoads[index]), RoadType.DESTROYED);
+                }
+            }
+        }
+    }
+    
+    private boolean isWilderness(int x, int z) {
+        return cellTypes[cellIndex(x, z)] == CellType.WILDERNESS.ordinal();
     }
     
     /**
-     * Ajoute une structure avec un poids à la map
+     * Choisit une structure aléatoire adaptée au type de cellule
      */
-    private void addWeightedStructure(Map<StructureType, Integer> map, StructureType type, int weight) {
-        map.put(type, weight);
+    private StructureType getRandomStructureForCellType(CellType cellType, RandomSource random) {
+        // Les bâtiments spéciaux sont attribués séparément
+        StructureAliasSampler sampler = STRUCTURE_SAMPLERS[biomeType.ordinal()][cellType.ordinal()];
+        return sampler == null ? null : sampler.sample(random);
     }
     
     /**
-     * Sélectionne une structure aléatoire basée sur les poids
+     * Construit les tables de tirage des structures pour chaque couple (biome, type de cellule)
      */
-    private StructureType selectWeightedRandom(Map<StructureType, Integer> weightedStructures) {
-        int totalWeight = weightedStructures.values().stream().mapToInt(Integer::intValue).sum();
-        int randomValue = random.nextInt(totalWeight);
+    private static StructureAliasSampler[][] createStructureSamplers() {
+        StructureAliasSampler[][] samplers = new StructureAliasSampler[BiomeType.values().length][CellType.values().length];
         
-        int cumulativeWeight = 0;
-        for (Map.Entry<StructureType, Integer> entry : weightedStructures.entrySet()) {
-            cumulativeWeight += entry.getValue();
-            if (randomValue < cumulativeWeight) {
-                return entry.getKey();
-            }
+        for (BiomeType biome : BiomeType.values()) {
+            // Pas de gratte-ciels dans les villages
+            int skyscraperWeight = biome == BiomeType.VILLAGE ? 0 : 50;
+            
+            StructureAliasSampler[] row = samplers[biome.ordinal()];
+            
+            row[CellType.DOWNTOWN.ordinal()] = StructureAliasSampler.builder()
+                    .add(StructureType.SKYSCRAPER, skyscraperWeight)
+                    .add(StructureType.OFFICE_BUILDING, 30)
+                    .add(StructureType.GOVERNMENT_BUILDING, 10)
+                    .add(StructureType.APARTMENT_COMPLEX, 5)
+                    .add(StructureType.MALL, 5)
+                    .build();
+            
+            row[CellType.COMMERCIAL.ordinal()] = StructureAliasSampler.builder()
+                    .add(StructureType.OFFICE_BUILDING, 30)
+                    .add(StructureType.MALL, 20)
+                    .add(StructureType.APARTMENT_BUILDING, 20)
+                    .add(StructureType.WAREHOUSE, 15)
+                    .add(StructureType.FACTORY, 10)
+                    .add(StructureType.GAS_STATION, 5)
+                    .build();
+            
+            row[CellType.RESIDENTIAL.ordinal()] = StructureAliasSampler.builder()
+                    .add(StructureType.APARTMENT_COMPLEX, 25)
+                    .add(StructureType.APARTMENT_BUILDING, 25)
+                    .add(StructureType.MEDIUM_HOUSE, 20)
+                    .add(StructureType.LARGE_HOUSE, 15)
+                    .add(StructureType.SMALL_HOUSE, 10)
+                    .add(StructureType.SCHOOL, 5)
+                    .build();
+            
+            row[CellType.RURAL.ordinal()] = StructureAliasSampler.builder()
+                    .add(StructureType.SMALL_HOUSE, 40)
+                    .add(StructureType.MEDIUM_HOUSE, 30)
+                    .add(StructureType.LARGE_HOUSE, 15)
+                    .add(StructureType.GAS_STATION, 10)
+                    .add(StructureType.WAREHOUSE, 5)
+                    .build();
+            
+            row[CellType.PARK.ordinal()] = StructureAliasSampler.builder()
+                    .add(StructureType.PARK, 100)
+                    .build();
+            
+            row[CellType.EMPTY.ordinal()] = StructureAliasSampler.builder()
+                    .add(StructureType.PARKING_LOT, 50)
+                    .add(StructureType.RUINS, 30)
+                    .add(StructureType.STREET_PROPS, 20)
+                    .build();
+            
+            // SPECIAL : pas de sampler, les bâtiments spéciaux sont placés séparément
+            // WILDERNESS : pas de sampler, aucune structure hors des villes
         }
         
-        // Ne devrait jamais arriver, mais au cas où
-        return weightedStructures.keySet().iterator().next();
+        return samplers;
     }
     
     /**
      * Place des bâtiments spéciaux dans la ville
      */
     private void placeSpecialBuildings() {
+        // Phase séquentielle par nature (chaque placement dépend des précédents) : un seul flux positionnel
+        RandomSource random = PositionalRandom.reseed(PositionalRandom.create(), seed, PositionalRandom.PHASE_SPECIAL_BUILDINGS, 0, 0);
+        
         // Nombre de bâtiments spéciaux selon le type de biome
         int policeStations, fireStations, hospitals, militaryBases;
         
@@ -443,117 +647,424 @@ public class UrbanGridGenerator {
                 militaryBases = 0;
         }
         
+        // Index des cellules candidates et de l'occupation, partagé par tous les placements
+        PlacementIndex index = new PlacementIndex();
+        
         // Place les commissariats
-        placeSpecialBuilding(StructureType.POLICE_STATION, policeStations);
+        placeSpecialBuilding(StructureType.POLICE_STATION, policeStations, random, index);
         
         // Place les casernes de pompiers
-        placeSpecialBuilding(StructureType.FIRE_STATION, fireStations);
+        placeSpecialBuilding(StructureType.FIRE_STATION, fireStations, random, index);
         
         // Place les hôpitaux
-        placeSpecialBuilding(StructureType.HOSPITAL, hospitals);
+        placeSpecialBuilding(StructureType.HOSPITAL, hospitals, random, index);
         
         // Place les bases militaires (si nécessaire)
-        placeSpecialBuilding(StructureType.MILITARY_BASE, militaryBases);
+        placeSpecialBuilding(StructureType.MILITARY_BASE, militaryBases, random, index);
     }
     
     /**
      * Place un type de bâtiment spécial un certain nombre de fois
+     * Seules les cellules d'un type approprié sont tirées ; une cellule dont l'emprise n'est plus
+     * libre est retirée des candidates, si bien que le placement réussit dès qu'une place existe.
      */
-    private void placeSpecialBuilding(StructureType structureType, int count) {
+    private void placeSpecialBuilding(StructureType structureType, int count, RandomSource random, PlacementIndex index) {
+        if (count <= 0) return;
+        
+        int footprintWidth = structureType.getGridWidth(gridBlockSize);
+        int footprintLength = structureType.getGridLength(gridBlockSize);
+        
+        int[] candidates = index.candidatesFor(getAllowedCellTypes(structureType));
+        int remaining = candidates.length;
+        
         for (int i = 0; i < count; i++) {
             boolean placed = false;
-            int attempts = 0;
             
-            while (!placed && attempts < 100) {
-                attempts++;
-                
-                // Sélectionner une position aléatoire
-                int x = random.nextInt(gridWidth);
-                int z = random.nextInt(gridLength);
+            while (!placed && remaining > 0) {
+                // Sélectionner une cellule candidate aléatoire
+                int pick = random.nextInt(remaining);
+                int cell = candidates[pick];
+                int x = cell / gridLength;
+                int z = cell % gridLength;
                 
-                // Vérifier si la cellule n'est pas déjà spéciale et si elle est appropriée
-                if (cityGrid[x][z].cellType != CellType.SPECIAL && isAppropriateForSpecialBuilding(x, z, structureType)) {
-                    // Vérifier l'espace pour les structures multi-blocs
-                    if (structureType.getGridWidth(gridBlockSize) > 1 || structureType.getGridLength(gridBlockSize) > 1) {
-                        if (!hasSpaceForMultiBlockStructure(x, z, structureType)) {
-                            continue;
-                        }
-                    }
-                    
+                // Vérifier en O(1) que toute l'emprise est libre
+                if (index.isFree(x, z, footprintWidth, footprintLength)) {
                     // Marquer comme spécial et assigner la structure
-                    cityGrid[x][z].cellType = CellType.SPECIAL;
-                    cityGrid[x][z].structureType = structureType;
+                    cellTypes[cell] = (byte) CellType.SPECIAL.ordinal();
+                    structureTypes[cell] = encodeStructure(structureType);
                     placed = true;
                     
                     // Pour les structures multi-blocs, réserver l'espace
                     reserveSpaceForMultiBlockStructure(x, z, structureType);
+                    index.reserve(x, z, footprintWidth, footprintLength);
                 }
+                
+                // L'occupation ne fait que croître : une cellule écartée ou utilisée ne redevient jamais valide
+                candidates[pick] = candidates[--remaining];
+            }
+            
+            if (!placed) {
+                WhereIsHumanity.LOGGER.debug("Plus de place pour {} ({} placés sur {})", structureType, i, count);
+                return;
             }
         }
     }
     
     /**
-     * Vérifie si une position est appropriée pour un bâtiment spécial
+     * Types de cellules sur lesquels un bâtiment spécial peut être placé
      */
-    private boolean isAppropriateForSpecialBuilding(int x, int z, StructureType structureType) {
+    private static CellType[] getAllowedCellTypes(StructureType structureType) {
         // Les bâtiments gouvernementaux vont bien au centre-ville
         if (structureType == StructureType.POLICE_STATION || 
             structureType == StructureType.FIRE_STATION || 
             structureType == StructureType.HOSPITAL) {
-            return cityGrid[x][z].cellType == CellType.DOWNTOWN || 
-                   cityGrid[x][z].cellType == CellType.COMMERCIAL;
+            return new CellType[] {CellType.DOWNTOWN, CellType.COMMERCIAL};
         }
         // Les bases militaires devraient être en périphérie
         else if (structureType == StructureType.MILITARY_BASE) {
-            return cityGrid[x][z].cellType == CellType.EMPTY || 
-                   cityGrid[x][z].cellType == CellType.RURAL;
+            return new CellType[] {CellType.EMPTY, CellType.RURAL};
         }
         
-        return true;
+        return new CellType[] {CellType.DOWNTOWN, CellType.COMMERCIAL, CellType.RESIDENTIAL,
+                CellType.RURAL, CellType.PARK, CellType.EMPTY};
     }
     
     /**
-     * Vérifie s'il y a assez d'espace pour une structure multi-blocs
+     * Réserve l'espace pour une structure multi-blocs
+     * Les segments de route intérieurs au rectangle sont retirés (marqués détruits, comme ceux hors
+     * de toute ville) : ils ne sont ni tracés, ni bordés, ni praticables.
      */
-    private boolean hasSpaceForMultiBlockStructure(int startX, int startZ, StructureType structureType) {
-        int blocksWidth = structureType.getGridWidth(gridBlockSize);
-        int blocksLength = structureType.getGridLength(gridBlockSize);
-        
-        // Vérifier les limites de la grille
-        if (startX + blocksWidth > gridWidth || startZ + blocksLength > gridLength) {
-            return false;
-        }
+    private void reserveSpaceForMultiBlockStructure(int startX, int startZ, StructureType structureType) {
+        int endX = Math.min(startX + structureType.getGridWidth(gridBlockSize), gridWidth);
+        int endZ = Math.min(startZ + structureType.getGridLength(gridBlockSize), gridLength);
         
-        // Vérifier si les cellules sont disponibles
-        for (int x = startX; x < startX + blocksWidth; x++) {
-            for (int z = startZ; z < startZ + blocksLength; z++) {
-                if (cityGrid[x][z].cellType == CellType.SPECIAL) {
-                    return false;
+        // Marquer toutes les cellules comme partie de cette structure
+        for (int x = startX; x < endX; x++) {
+            for (int z = startZ; z < endZ; z++) {
+                if (x != startX || z != startZ) { // Sauf la cellule principale déjà marquée
+                    int index = cellIndex(x, z);
+                    cellTypes[index] = (byte) CellType.SPECIAL.ordinal();
+                    structureTypes[index] = 0; // Pas de structure propre, partie d'une plus grande
+                    multiBlockOrigins[index] = cellIndex(startX, startZ);
+                }
+                
+                // Segments entre deux cellules de la structure
+                if (z > startZ) {
+                    int index = horizontalIndex(x, z);
+                    horizontalRoads[index] = packRoad(unpackRoadType(horizontalRoads[index]), RoadType.DESTROYED);
+                }
+                if (x > startX) {
+                    int index = verticalIndex(x, z);
+                    verticalRoads[index] = packRoad(unpackRoadType(verticalRoads[index]), RoadType.DESTROYED);
                 }
             }
         }
-        
-        return true;
     }
     
     /**
-     * Réserve l'espace pour une structure multi-blocs
+     * Index utilisé pendant le placement des bâtiments spéciaux
+     * Les cellules sont regroupées par type (dans l'ordre des index), et une table de sommes
+     * cumulées 2D compte les cellules déjà réservées pour tester une emprise en temps constant.
      */
-    private void reserveSpaceForMultiBlockStructure(int startX, int startZ, StructureType structureType) {
-        int blocksWidth = structureType.getGridWidth(gridBlockSize);
-        int blocksLength = structureType.getGridLength(gridBlockSize);
+    private class PlacementIndex {
+        // Cellules triées par type : celles du type t sont dans cells[typeStart[t] .. typeStart[t + 1])
+        private final int[] typeStart = new int[CELL_TYPES.length + 1];
+        private final int[] cells = new int[gridWidth * gridLength];
         
-        // Marquer toutes les cellules comme partie de cette structure
-        for (int x = startX; x < startX + blocksWidth; x++) {
-            for (int z = startZ; z < startZ + blocksLength; z++) {
-                if (x != startX || z != startZ) { // Sauf la cellule principale déjà marquée
-                    cityGrid[x][z].cellType = CellType.SPECIAL;
-                    cityGrid[x][z].structureType = null; // Pas de structure propre, partie d'une plus grande
-                    cityGrid[x][z].isPartOfMultiBlock = true;
-                    cityGrid[x][z].multiBlockOrigin = new BlockPos(startX, 0, startZ);
+        // occupancy[x * (gridLength + 1) + z] = nombre de cellules SPECIAL dans [0, x) × [0, z)
+        private final int[] occupancy = new int[(gridWidth + 1) * (gridLength + 1)];
+        
+        PlacementIndex() {
+            // Tri par comptage des cellules selon leur type
+            for (byte type : cellTypes) {
+                typeStart[type + 1]++;
+            }
+            for (int t = 0; t < CELL_TYPES.length; t++) {
+                typeStart[t + 1] += typeStart[t];
+            }
+            int[] next = Arrays.copyOf(typeStart, CELL_TYPES.length);
+            for (int cell = 0; cell < cellTypes.length; cell++) {
+                cells[next[cellTypes[cell]]++] = cell;
+            }
+            
+            // Table de sommes cumulées des cellules déjà spéciales
+            int special = CellType.SPECIAL.ordinal();
+            for (int x = 1; x <= gridWidth; x++) {
+                for (int z = 1; z <= gridLength; z++) {
+                    int occupied = cellTypes[cellIndex(x - 1, z - 1)] == special ? 1 : 0;
+                    occupancy[sumIndex(x, z)] = occupied + occupancy[sumIndex(x - 1, z)]
+                            + occupancy[sumIndex(x, z - 1)] - occupancy[sumIndex(x - 1, z - 1)];
+                }
+            }
+        }
+        
+        /**
+         * Copie des cellules candidates des types donnés
+         */
+        int[] candidatesFor(CellType[] types) {
+            int total = 0;
+            for (CellType type : types) {
+                total += typeStart[type.ordinal() + 1] - typeStart[type.ordinal()];
+            }
+            
+            int[] candidates = new int[total];
+            int offset = 0;
+            for (CellType type : types) {
+                int start = typeStart[type.ordinal()];
+                int length = typeStart[type.ordinal() + 1] - start;
+                System.arraycopy(cells, start, candidates, offset, length);
+                offset += length;
+            }
+            return candidates;
+        }
+        
+        /**
+         * Vérifie qu'une emprise est dans la grille et ne contient aucune cellule réservée
+         */
+        boolean isFree(int startX, int startZ, int width, int length) {
+            int endX = startX + width;
+            int endZ = startZ + length;
+            if (endX > gridWidth || endZ > gridLength) {
+                return false;
+            }
+            return occupancy[sumIndex(endX, endZ)] - occupancy[sumIndex(startX, endZ)]
+                    - occupancy[sumIndex(endX, startZ)] + occupancy[sumIndex(startX, startZ)] == 0;
+        }
+        
+        /**
+         * Met à jour la table après la réservation d'une emprise
+         */
+        void reserve(int startX, int startZ, int width, int length) {
+            for (int x = startX + 1; x <= gridWidth; x++) {
+                int coveredX = Math.min(x, startX + width) - startX;
+                for (int z = startZ + 1; z <= gridLength; z++) {
+                    occupancy[sumIndex(x, z)] += coveredX * (Math.min(z, startZ + length) - startZ);
                 }
             }
         }
+        
+        private int sumIndex(int x, int z) {
+            return x * (gridLength + 1) + z;
+        }
+    }
+    
+    public BiomeType getBiomeType() {
+        return biomeType;
+    }
+    
+    public int getGridWidth() {
+        return gridWidth;
+    }
+    
+    public int getGridLength() {
+        return gridLength;
+    }
+    
+    public int getGridBlockSize() {
+        return gridBlockSize;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    /**
+     * Type d'une cellule de la grille
+     * @param x Index de la cellule en X
+     * @param z Index de la cellule en Z
+     * @return Le type de la cellule
+     */
+    public CellType getCellType(int x, int z) {
+        return CELL_TYPES[cellTypes[cellIndex(x, z)]];
+    }
+    
+    /**
+     * Structure assignée à une cellule
+     * @param x Index de la cellule en X
+     * @param z Index de la cellule en Z
+     * @return La structure, ou null si la cellule n'en a pas (cellule secondaire d'une structure multi-blocs)
+     */
+    public StructureType getStructureType(int x, int z) {
+        short encoded = structureTypes[cellIndex(x, z)];
+        return encoded == 0 ? null : STRUCTURE_TYPES[encoded - 1];
+    }
+    
+    /**
+     * Vérifie si une cellule est une cellule secondaire d'une structure multi-blocs
+     */
+    public boolean isPartOfMultiBlock(int x, int z) {
+        return multiBlockOrigins[cellIndex(x, z)] >= 0;
+    }
+    
+    /**
+     * Index X de la cellule d'origine de la structure multi-blocs contenant cette cellule
+     * @return L'index X, ou -1 si la cellule n'appartient pas à une structure multi-blocs
+     */
+    public int getMultiBlockOriginX(int x, int z) {
+        int origin = multiBlockOrigins[cellIndex(x, z)];
+        return origin < 0 ? -1 : origin / gridLength;
+    }
+    
+    /**
+     * Index Z de la cellule d'origine de la structure multi-blocs contenant cette cellule
+     * @return L'index Z, ou -1 si la cellule n'appartient pas à une structure multi-blocs
+     */
+    public int getMultiBlockOriginZ(int x, int z) {
+        int origin = multiBlockOrigins[cellIndex(x, z)];
+        return origin < 0 ? -1 : origin % gridLength;
+    }
+    
+    /**
+     * Type du segment de route horizontal au nord de la cellule (x, z)
+     * @param x Index en X (0 à gridWidth - 1)
+     * @param z Index en Z (0 à gridLength)
+     * @return HIGHWAY, BOULEVARD, STREET ou ALLEY
+     */
+    public RoadType getHorizontalRoadType(int x, int z) {
+        return unpackRoadType(horizontalRoads[horizontalIndex(x, z)]);
+    }
+    
+    /**
+     * État du segment de route horizontal au nord de la cellule (x, z)
+     * @return INTACT, SLIGHTLY_DAMAGED, HEAVILY_DAMAGED ou DESTROYED
+     */
+    public RoadType getHorizontalRoadState(int x, int z) {
+        return unpackRoadState(horizontalRoads[horizontalIndex(x, z)]);
+    }
+    
+    /**
+     * Type du segment de route vertical à l'ouest de la cellule (x, z)
+     * @param x Index en X (0 à gridWidth)
+     * @param z Index en Z (0 à gridLength - 1)
+     * @return HIGHWAY, BOULEVARD, STREET ou ALLEY
+     */
+    public RoadType getVerticalRoadType(int x, int z) {
+        return unpackRoadType(verticalRoads[verticalIndex(x, z)]);
+    }
+    
+    /**
+     * État du segment de route vertical à l'ouest de la cellule (x, z)
+     * @return INTACT, SLIGHTLY_DAMAGED, HEAVILY_DAMAGED ou DESTROYED
+     */
+    public RoadType getVerticalRoadState(int x, int z) {
+        return unpackRoadState(verticalRoads[verticalIndex(x, z)]);
+    }
+    
+    /**
+     * Remplace un segment de route horizontal (raccord avec une grille voisine)
+     */
+    void setHorizontalRoad(int x, int z, RoadType roadType, RoadType roadState) {
+        horizontalRoads[horizontalIndex(x, z)] = packRoad(roadType, roadState);
+    }
+    
+    /**
+     * Remplace un segment de route vertical (raccord avec une grille voisine)
+     */
+    void setVerticalRoad(int x, int z, RoadType roadType, RoadType roadState) {
+        verticalRoads[verticalIndex(x, z)] = packRoad(roadType, roadState);
+    }
+    
+    /**
+     * Graphe du réseau routier de ce plan (intersections et segments praticables)
+     * Construit à la première demande : les routes ne doivent plus être modifiées ensuite.
+     * @return Le graphe routier
+     */
+    public RoadGraph getRoadGraph() {
+        RoadGraph graph = roadGraph;
+        if (graph == null) {
+            // Construction en double possible entre threads, sans conséquence (résultat identique)
+            graph = RoadGraph.build(this);
+            roadGraph = graph;
+        }
+        return graph;
+    }
+    
+    /**
+     * Empreinte du plan complet (cellules et routes), utilisée pour vérifier le déterminisme
+     * @return Empreinte sur 64 bits
+     */
+    public long fingerprint() {
+        long hash = seed;
+        hash = PositionalRandom.mix(hash, Arrays.hashCode(cellTypes), Arrays.hashCode(structureTypes));
+        hash = PositionalRandom.mix(hash, Arrays.hashCode(multiBlockOrigins), Arrays.hashCode(horizontalRoads));
+        return PositionalRandom.mix(hash, Arrays.hashCode(verticalRoads), biomeType.ordinal());
+    }
+    
+    /**
+     * Écrit les tableaux du plan à la position courante du buffer, dans l'ordre :
+     * types de cellules, structures, origines multi-blocs, routes horizontales, routes verticales
+     * @param buffer Buffer de destination (avancé de {@link #getPackedSize} octets)
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put(cellTypes);
+        buffer.asShortBuffer().put(structureTypes);
+        buffer.position(buffer.position() + structureTypes.length * Short.BYTES);
+        buffer.asIntBuffer().put(multiBlockOrigins);
+        buffer.position(buffer.position() + multiBlockOrigins.length * Integer.BYTES);
+        buffer.put(horizontalRoads);
+        buffer.put(verticalRoads);
+    }
+    
+    /**
+     * Relit un plan écrit par {@link #writeTo}
+     * @param buffer Buffer source, positionné sur le début des tableaux
+     * @return Le plan
+     */
+    public static UrbanGridGenerator readFrom(ByteBuffer buffer, BiomeType biomeType, int gridWidth, int gridLength,
+                                              int gridBlockSize, long seed) {
+        int cells = gridWidth * gridLength;
+        byte[] cellTypes = new byte[cells];
+        short[] structureTypes = new short[cells];
+        int[] multiBlockOrigins = new int[cells];
+        byte[] horizontalRoads = new byte[gridWidth * (gridLength + 1)];
+        byte[] verticalRoads = new byte[(gridWidth + 1) * gridLength];
+        
+        buffer.get(cellTypes);
+        buffer.asShortBuffer().get(structureTypes);
+        buffer.position(buffer.position() + cells * Short.BYTES);
+        buffer.asIntBuffer().get(multiBlockOrigins);
+        buffer.position(buffer.position() + cells * Integer.BYTES);
+        buffer.get(horizontalRoads);
+        buffer.get(verticalRoads);
+        
+        return new UrbanGridGenerator(biomeType, gridWidth, gridLength, gridBlockSize, seed,
+                cellTypes, structureTypes, multiBlockOrigins, horizontalRoads, verticalRoads);
+    }
+    
+    /**
+     * Taille en octets des tableaux d'un plan écrit par {@link #writeTo}
+     */
+    public static int getPackedSize(int gridWidth, int gridLength) {
+        int cells = gridWidth * gridLength;
+        return cells * (Byte.BYTES + Short.BYTES + Integer.BYTES) + gridWidth * (gridLength + 1) + (gridWidth + 1) * gridLength;
+    }
+    
+    private int cellIndex(int x, int z) {
+        return x * gridLength + z;
+    }
+    
+    private int horizontalIndex(int x, int z) {
+        return x * (gridLength + 1) + z;
+    }
+    
+    private int verticalIndex(int x, int z) {
+        return x * gridLength + z;
+    }
+    
+    private static short encodeStructure(StructureType structureType) {
+        return structureType == null ? 0 : (short) (structureType.ordinal() + 1);
+    }
+    
+    private static byte packRoad(RoadType roadType, RoadType roadState) {
+        return (byte) (roadType.ordinal() | roadState.ordinal() << 4);
+    }
+    
+    static RoadType unpackRoadType(byte packed) {
+        return ROAD_TYPES[packed & 0x0F];
+    }
+    
+    static RoadType unpackRoadState(byte packed) {
+        return ROAD_TYPES[(packed >> 4) & 0x0F];
     }
     
     /**
@@ -566,7 +1077,8 @@ public class UrbanGridGenerator {
         RURAL,       // Zone rurale en périphérie
         PARK,        // Parc ou espace vert
         EMPTY,       // Terrain vague, parking
-        SPECIAL      // Bâtiment spécial (commissariat, hôpital, etc.)
+        SPECIAL,     // Bâtiment spécial (commissariat, hôpital, etc.)
+        WILDERNESS   // Hors de toute ville (densité urbaine trop faible)
     }
     
     /**
@@ -591,21 +1103,4 @@ public class UrbanGridGenerator {
         CITY,       // Ville moyenne
         VILLAGE     // Petit village
     }
-    
-    /**
-     * Cellule de la grille urbaine
-     */
-    public class CityCell {
-        public CellType cellType;
-        public StructureType structureType;
-        public boolean isPartOfMultiBlock;
-        public BlockPos multiBlockOrigin;
-        
-        public CityCell(CellType cellType, StructureType structureType) {
-            this.cellType = cellType;
-            this.structureType = structureType;
-            this.isPartOfMultiBlock = false;
-            this.multiBlockOrigin = null;
-        }
-    }
 }
\ No newline at end of file
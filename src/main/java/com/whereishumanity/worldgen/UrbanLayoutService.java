@@ -0,0 +1,490 @@
+package com.whereishumanity.worldgen;
+
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.config.ModConfig;
+import com.whereishumanity.worldgen.UrbanGridGenerator.BiomeType;
+import com.whereishumanity.worldgen.UrbanGridGenerator.CellType;
+import com.whereishumanity.worldgen.UrbanGridGenerator.RoadType;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.storage.LevelResource;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Service de plans urbains découpés en régions
+ * Le monde est divisé en régions de {@link #REGION_CELLS}×{@link #REGION_CELLS} cellules. Le plan
+ * de chaque région est produit de façon déterministe à partir de la graine du monde et des
+ * coordonnées de la région, puis conservé dans un cache LRU borné. Le zonage de chaque cellule
+ * suit le {@link UrbanDensityField} du monde : les villes s'étendent par-delà les régions. Les routes situées sur les
+ * bords d'une région (les raccords) ne dépendent que de leurs coordonnées globales, si bien que
+ * deux régions voisines s'accordent toujours sur leur frontière.
+ *
+ * Les services associés à une dimension enregistrent chaque plan généré dans un
+ * {@link UrbanLayoutStore} : les villes existantes sont relues telles quelles après un
+ * redémarrage, même si l'algorithme de génération a changé depuis. Ce service persistant est la
+ * seule source des plans pour les structures, les routes et les itinéraires d'une dimension.
+ */
+@Mod.EventBusSubscriber(modid = WhereIsHumanity.MOD_ID)
+public class UrbanLayoutService {
+
+    // Taille d'une région (en cellules) et d'une cellule (en blocs)
+    public static final int REGION_CELLS = 32;
+    public static final int CELL_SIZE = 16;
+    public static final int REGION_BLOCKS = REGION_CELLS * CELL_SIZE;
+
+    // Nombre maximal de régions gardées en mémoire
+    private static final int MAX_CACHED_REGIONS = 64;
+
+    // Type des routes de raccord entre régions
+    private static final RoadType SEAM_ROAD_TYPE = RoadType.BOULEVARD;
+
+    private static UrbanLayoutService instance;
+
+    // Services persistants, un par dimension
+    private static final Map<ResourceKey<Level>, UrbanLayoutService> LEVEL_SERVICES = new HashMap<>();
+
+    // Services persistants indexés par l'état aléatoire de génération de leur dimension
+    private static final Map<RandomState, UrbanLayoutService> GENERATION_SERVICES = new IdentityHashMap<>();
+
+    private final long worldSeed;
+    private final UrbanLayoutStore store;
+    private final UrbanDensityField densityField;
+    private final Map<Long, UrbanGridGenerator> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UrbanGridGenerator> eldest) {
+            return size() > MAX_CACHED_REGIONS;
+        }
+    };
+    private long hits = 0;
+    private long misses = 0;
+    private long storeReads = 0;
+
+    private UrbanLayoutService(long worldSeed, UrbanLayoutStore store) {
+        this.worldSeed = worldSeed;
+        this.store = store;
+        this.densityField = new UrbanDensityField(worldSeed);
+    }
+
+    /**
+     * Récupère un service non persistant associé à une graine de monde (aperçus, bancs d'essai)
+     * Le service précédent (et son cache) est abandonné si la graine change
+     * @param worldSeed Graine du monde
+     * @return Le service de plans urbains
+     */
+    public static synchronized UrbanLayoutService forSeed(long worldSeed) {
+        if (instance == null || instance.worldSeed != worldSeed) {
+            instance = new UrbanLayoutService(worldSeed, null);
+        }
+        return instance;
+    }
+
+    /**
+     * Récupère le service persistant d'une dimension
+     * Les plans sont enregistrés dans le dossier data/whereishumanity/layouts de la dimension
+     * @param level La dimension
+     * @return Le service de plans urbains
+     */
+    public static synchronized UrbanLayoutService forLevel(ServerLevel level) {
+        return LEVEL_SERVICES.computeIfAbsent(level.dimension(), dimension -> {
+            Path worldRoot = level.getServer().getWorldPath(LevelResource.ROOT);
+            Path directory = DimensionType.getStorageFolder(dimension, worldRoot)
+                    .resolve("data").resolve(WhereIsHumanity.MOD_ID).resolve("layouts");
+            UrbanLayoutService service = new UrbanLayoutService(level.getSeed(), new UrbanLayoutStore(directory, level.getSeed()));
+            GENERATION_SERVICES.put(level.getChunkSource().randomState(), service);
+            return service;
+        });
+    }
+
+    /**
+     * Récupère le service persistant de la dimension en cours de génération
+     * Le contexte de génération des structures ne donne pas accès à la dimension : elle est
+     * retrouvée par son état aléatoire de génération, enregistré au chargement de la dimension.
+     * @param randomState État aléatoire de génération de la dimension
+     * @param worldSeed Graine du monde (service non persistant si la dimension n'est pas chargée)
+     * @return Le service de plans urbains
+     */
+    public static synchronized UrbanLayoutService forGeneration(RandomState randomState, long worldSeed) {
+        UrbanLayoutService service = GENERATION_SERVICES.get(randomState);
+        return service != null ? service : forSeed(worldSeed);
+    }
+
+    /**
+     * Ouvre le service persistant d'une dimension dès son chargement, avant la génération des
+     * premiers chunks
+     */
+    @SubscribeEvent
+    public static void onLevelLoad(LevelEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            forLevel(level);
+        }
+    }
+
+    /**
+     * Services persistants ouverts, par dimension
+     */
+    public static synchronized Map<ResourceKey<Level>, UrbanLayoutService> getLevelServices() {
+        return Collections.unmodifiableMap(new HashMap<>(LEVEL_SERVICES));
+    }
+
+    /**
+     * Ferme les fichiers de plans à l'arrêt du serveur
+     */
+    @SubscribeEvent
+    public static synchronized void onServerStopped(ServerStoppedEvent event) {
+        for (UrbanLayoutService service : LEVEL_SERVICES.values()) {
+            service.store.close();
+        }
+        LEVEL_SERVICES.clear();
+        GENERATION_SERVICES.clear();
+        instance = null;
+    }
+
+    /**
+     * Récupère le plan d'une région, en le générant si nécessaire
+     * @param regionX Coordonnée X de la région
+     * @param regionZ Coordonnée Z de la région
+     * @return Le plan de la région
+     */
+    public UrbanGridGenerator getRegion(int regionX, int regionZ) {
+        long key = ChunkPos.asLong(regionX, regionZ);
+
+        synchronized (cache) {
+            UrbanGridGenerator layout = cache.get(key);
+            if (layout != null) {
+                hits++;
+                return layout;
+            }
+            misses++;
+        }
+
+        // Relire le plan enregistré, sinon le générer et l'enregistrer
+        // (hors du verrou : le résultat est déterministe, un calcul en double est sans conséquence)
+        UrbanGridGenerator layout = store != null ? store.read(regionX, regionZ) : null;
+        if (layout == null) {
+            layout = generateRegion(regionX, regionZ);
+            if (store != null) {
+                store.write(regionX, regionZ, layout);
+            }
+        }
+
+        synchronized (cache) {
+            UrbanGridGenerator existing = cache.putIfAbsent(key, layout);
+            return existing != null ? existing : layout;
+        }
+    }
+
+    /**
+     * Génère en parallèle les plans manquants d'un rectangle de régions et les met en cache
+     * @param minRegionX Coordonnée X minimale (incluse)
+     * @param minRegionZ Coordonnée Z minimale (incluse)
+     * @param maxRegionX Coordonnée X maximale (incluse)
+     * @param maxRegionZ Coordonnée Z maximale (incluse)
+     */
+    public void prefetchRegions(int minRegionX, int minRegionZ, int maxRegionX, int maxRegionZ) {
+        int width = maxRegionX - minRegionX + 1;
+        int count = width * (maxRegionZ - minRegionZ + 1);
+        LayoutExecutor.getPool().submit(() -> IntStream.range(0, count).parallel()
+                .forEach(i -> getRegion(minRegionX + i % width, minRegionZ + i / width))).join();
+    }
+
+    /**
+     * Plan d'une région déjà générée (en cache ou enregistré), sans jamais le générer ni l'enregistrer
+     * Destiné aux lectures faites par l'IA : une région qu'aucun chunk n'a encore générée n'a pas de plan.
+     * @param regionX Coordonnée X de la région
+     * @param regionZ Coordonnée Z de la région
+     * @return Le plan de la région, ou null s'il n'existe pas encore
+     */
+    public UrbanGridGenerator findRegion(int regionX, int regionZ) {
+        UrbanGridGenerator layout = getCachedRegion(regionX, regionZ);
+        if (layout != null || !isStored(regionX, regionZ)) {
+            return layout;
+        }
+
+        layout = store.read(regionX, regionZ);
+        if (layout == null) {
+            return null;
+        }
+        synchronized (cache) {
+            UrbanGridGenerator existing = cache.putIfAbsent(ChunkPos.asLong(regionX, regionZ), layout);
+            return existing != null ? existing : layout;
+        }
+    }
+
+    /**
+     * Type de cellule à une position du monde
+     * @param blockX Coordonnée X du bloc
+     * @param blockZ Coordonnée Z du bloc
+     * @return Le type de la cellule contenant ce bloc
+     */
+    public CellType getCellAt(int blockX, int blockZ) {
+        CellType cellType = findCellAt(blockX, blockZ);
+        if (cellType != null) {
+            return cellType;
+        }
+        return getRegion(Math.floorDiv(blockX, REGION_BLOCKS), Math.floorDiv(blockZ, REGION_BLOCKS))
+                .getCellType(cellIndex(blockX), cellIndex(blockZ));
+    }
+
+    /**
+     * Type de cellule à une position du monde, uniquement si sa région a déjà été générée
+     * Ne génère ni n'enregistre jamais de plan.
+     * @param blockX Coordonnée X du bloc
+     * @param blockZ Coordonnée Z du bloc
+     * @return Le type de la cellule contenant ce bloc, ou null si sa région n'a pas de plan
+     */
+    public CellType findCellAt(int blockX, int blockZ) {
+        int regionX = Math.floorDiv(blockX, REGION_BLOCKS);
+        int regionZ = Math.floorDiv(blockZ, REGION_BLOCKS);
+
+        UrbanGridGenerator layout = getCachedRegion(regionX, regionZ);
+        if (layout != null) {
+            return layout.getCellType(cellIndex(blockX), cellIndex(blockZ));
+        }
+        if (isStored(regionX, regionZ)) {
+            // Lecture directe dans le fichier, sans relire la région entière
+            return store.readCellType(regionX, regionZ, cellIndex(blockX), cellIndex(blockZ));
+        }
+        return null;
+    }
+
+    /**
+     * Route présente à une position du monde
+     * Chaque cellule porte sa route verticale sur son bord ouest et sa route horizontale
+     * sur son bord nord ; la largeur dépend du type de route.
+     * @param blockX Coordonnée X du bloc
+     * @param blockZ Coordonnée Z du bloc
+     * @return Le type de route (HIGHWAY, BOULEVARD, STREET ou ALLEY) à cette position, ou null si le bloc n'est pas sur une route
+     */
+    public RoadType getRoadAt(int blockX, int blockZ) {
+        int regionX = Math.floorDiv(blockX, REGION_BLOCKS);
+        int regionZ = Math.floorDiv(blockZ, REGION_BLOCKS);
+        int cellX = cellIndex(blockX);
+        int cellZ = cellIndex(blockZ);
+
+        UrbanGridGenerator layout = getCachedRegion(regionX, regionZ);
+        if (layout == null && isStored(regionX, regionZ)) {
+            // Lecture directe dans le fichier, sans relire la région entière
+            RoadType vertical = store.readVerticalRoadType(regionX, regionZ, cellX, cellZ);
+            RoadType horizontal = store.readHorizontalRoadType(regionX, regionZ, cellX, cellZ);
+            if (vertical != null && horizontal != null) {
+                return selectRoad(blockX, blockZ, vertical, horizontal);
+            }
+        }
+        if (layout == null) {
+            layout = getRegion(regionX, regionZ);
+        }
+        return selectRoad(blockX, blockZ, layout.getVerticalRoadType(cellX, cellZ), layout.getHorizontalRoadType(cellX, cellZ));
+    }
+
+    /**
+     * Route présente à une position du monde, uniquement si sa région a déjà été générée
+     * Ne génère ni n'enregistre jamais de plan.
+     * @param blockX Coordonnée X du bloc
+     * @param blockZ Coordonnée Z du bloc
+     * @return Le type de route à cette position, ou null si le bloc n'est pas sur une route ou si sa région n'a pas de plan
+     */
+    public RoadType findRoadAt(int blockX, int blockZ) {
+        int regionX = Math.floorDiv(blockX, REGION_BLOCKS);
+        int regionZ = Math.floorDiv(blockZ, REGION_BLOCKS);
+        int cellX = cellIndex(blockX);
+        int cellZ = cellIndex(blockZ);
+
+        UrbanGridGenerator layout = getCachedRegion(regionX, regionZ);
+        if (layout != null) {
+            return selectRoad(blockX, blockZ, layout.getVerticalRoadType(cellX, cellZ), layout.getHorizontalRoadType(cellX, cellZ));
+        }
+        if (isStored(regionX, regionZ)) {
+            // Lecture directe dans le fichier, sans relire la région entière
+            RoadType vertical = store.readVerticalRoadType(regionX, regionZ, cellX, cellZ);
+            RoadType horizontal = store.readHorizontalRoadType(regionX, regionZ, cellX, cellZ);
+            if (vertical != null && horizontal != null) {
+                return selectRoad(blockX, blockZ, vertical, horizontal);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Choisit la route d'une cellule qui couvre un bloc : la route verticale du bord ouest, sinon la
+     * route horizontale du bord nord
+     */
+    private static RoadType selectRoad(int blockX, int blockZ, RoadType vertical, RoadType horizontal) {
+        if (Math.floorMod(blockX, CELL_SIZE) < RoadGenerator.getRoadWidth(vertical)) {
+            return vertical;
+        }
+        if (Math.floorMod(blockZ, CELL_SIZE) < RoadGenerator.getRoadWidth(horizontal)) {
+            return horizontal;
+        }
+        return null;
+    }
+
+    /**
+     * Type de biome urbain d'une région, tiré selon les poids de la configuration
+     * @param regionX Coordonnée X de la région
+     * @param regionZ Coordonnée Z de la région
+     * @return Le type de biome
+     */
+    public BiomeType getBiomeType(int regionX, int regionZ) {
+        double metropolis = ModConfig.COMMON.metropolisSpawnWeight.get();
+        double city = ModConfig.COMMON.citySpawnWeight.get();
+        double village = ModConfig.COMMON.villageSpawnWeight.get();
+        double total = metropolis + city + village;
+        if (total <= 0) {
+            return BiomeType.CITY;
+        }
+
+        double roll = toUnitDouble(PositionalRandom.regionSeed(worldSeed, regionX, regionZ)) * total;
+        if (roll < metropolis) {
+            return BiomeType.METROPOLIS;
+        } else if (roll < metropolis + city) {
+            return BiomeType.CITY;
+        }
+        return BiomeType.VILLAGE;
+    }
+
+    /**
+     * Génère le plan d'une région et raccorde ses bords, sans passer par le cache
+     * @param regionX Coordonnée X de la région
+     * @param regionZ Coordonnée Z de la région
+     * @return Le plan de la région
+     */
+    public UrbanGridGenerator generateRegion(int regionX, int regionZ) {
+        BiomeType biomeType = getBiomeType(regionX, regionZ);
+        int originX = regionX * REGION_CELLS;
+        int originZ = regionZ * REGION_CELLS;
+        UrbanGridGenerator layout = new UrbanGridGenerator(biomeType, REGION_CELLS, REGION_CELLS, CELL_SIZE,
+                PositionalRandom.regionSeed(worldSeed, regionX, regionZ), densityField.getRegionDensities(regionX, regionZ),
+                originX, originZ);
+
+        // Bords ouest et est : segments verticaux partagés avec les régions voisines en X
+        BiomeType west = getBiomeType(regionX - 1, regionZ);
+        BiomeType east = getBiomeType(regionX + 1, regionZ);
+        for (int z = 0; z < REGION_CELLS; z++) {
+            layout.setVerticalRoad(0, z, SEAM_ROAD_TYPE, seamRoadState(true, originX, originZ + z, west, biomeType));
+            layout.setVerticalRoad(REGION_CELLS, z, SEAM_ROAD_TYPE, seamRoadState(true, originX + REGION_CELLS, originZ + z, biomeType, east));
+        }
+
+        // Bords nord et sud : segments horizontaux partagés avec les régions voisines en Z
+        BiomeType north = getBiomeType(regionX, regionZ - 1);
+        BiomeType south = getBiomeType(regionX, regionZ + 1);
+        for (int x = 0; x < REGION_CELLS; x++) {
+            layout.setHorizontalRoad(x, 0, SEAM_ROAD_TYPE, seamRoadState(false, originZ, originX + x, north, biomeType));
+            layout.setHorizontalRoad(x, REGION_CELLS, SEAM_ROAD_TYPE, seamRoadState(false, originZ + REGION_CELLS, originX + x, biomeType, south));
+        }
+
+        WhereIsHumanity.LOGGER.debug("Plan urbain de la région ({}, {}) généré ({})", regionX, regionZ, biomeType);
+        return layout;
+    }
+
+    /**
+     * Calcule l'état d'un segment de route de raccord entre deux régions
+     * Le résultat ne dépend que de la graine, de la position globale du segment et des deux biomes
+     * voisins (pris dans un ordre fixe), donc les deux régions obtiennent le même segment.
+     * @param vertical true pour un segment vertical
+     * @param line Coordonnée globale de la ligne de raccord (en cellules)
+     * @param along Position globale du segment le long de la ligne (en cellules)
+     * @param before Biome de la région située avant la ligne
+     * @param after Biome de la région située après la ligne
+     * @return L'état du segment
+     */
+    private RoadType seamRoadState(boolean vertical, int line, int along, BiomeType before, BiomeType after) {
+        // Pas de raccord entre deux cellules hors de toute ville
+        boolean wilderness = vertical
+                ? densityField.isWilderness(line - 1, along) && densityField.isWilderness(line, along)
+                : densityField.isWilderness(along, line - 1) && densityField.isWilderness(along, line);
+        if (wilderness) {
+            return RoadType.DESTROYED;
+        }
+        
+        // Le biome le plus urbain impose sa dégradation (routes mieux entretenues)
+        BiomeType biomeType = before.ordinal() <= after.ordinal() ? before : after;
+        RandomSource random = RandomSource.create(PositionalRandom.mix(PositionalRandom.mix(worldSeed, vertical ? 1 : 2, line), along, 0));
+        return UrbanGridGenerator.rollRoadDamage(biomeType, random);
+    }
+
+    /**
+     * Plan d'une région s'il est déjà en cache, sans le générer
+     */
+    private UrbanGridGenerator getCachedRegion(int regionX, int regionZ) {
+        synchronized (cache) {
+            UrbanGridGenerator layout = cache.get(ChunkPos.asLong(regionX, regionZ));
+            if (layout != null) {
+                hits++;
+            }
+            return layout;
+        }
+    }
+
+    /**
+     * Vérifie si le plan d'une région est enregistré sur le disque
+     */
+    private boolean isStored(int regionX, int regionZ) {
+        if (store == null || !store.contains(regionX, regionZ)) {
+            return false;
+        }
+        synchronized (cache) {
+            storeReads++;
+        }
+        return true;
+    }
+
+    private static int cellIndex(int blockCoord) {
+        return Math.floorMod(blockCoord, REGION_BLOCKS) / CELL_SIZE;
+    }
+
+    private static double toUnitDouble(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    public long getWorldSeed() {
+        return worldSeed;
+    }
+
+    public UrbanDensityField getDensityField() {
+        return densityField;
+    }
+
+    public int getCachedRegionCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    public long getStoreReads() {
+        synchronized (cache) {
+            return storeReads;
+        }
+    }
+
+    public UrbanLayoutStore getStore() {
+        return store;
+    }
+
+    public long getMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.whereishumanity.worldgen;
+
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.worldgen.UrbanGridGenerator.BiomeType;
+import com.whereishumanity.worldgen.UrbanGridGenerator.CellType;
+import com.whereishumanity.worldgen.UrbanGridGenerator.RoadType;
+import net.minecraft.world.level.ChunkPos;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stockage sur disque des plans urbains d'une dimension
+ * Les régions sont regroupées par fichiers de {@link #GROUP_SIZE}×{@link #GROUP_SIZE} régions, à la
+ * manière des fichiers de région Anvil. Chaque région occupe un emplacement de taille fixe, ce qui
+ * permet de lire un type de cellule ou un segment de route directement dans le fichier projeté en
+ * mémoire, sans relire la région entière. Au plus {@link #MAX_OPEN_FILES} fichiers restent projetés,
+ * les moins récemment utilisés étant écrits sur le disque puis libérés.
+ *
+ * Format d'un fichier : en-tête (magie, version, taille des régions, graine du monde) suivi de
+ * 64 emplacements [présent, biome, graine de la région, tableaux du plan].
+ */
+public class UrbanLayoutStore {
+
+    private static final int MAGIC = 0x5749484C; // "WIHL"
+    public static final int FORMAT_VERSION = 1;
+
+    // Nombre de régions par côté de fichier
+    private static final int GROUP_SIZE = 8;
+
+    // Nombre maximal de fichiers gardés projetés en mémoire (les moins récemment utilisés sont libérés)
+    private static final int MAX_OPEN_FILES = 64;
+
+    private static final int REGION_CELLS = UrbanLayoutService.REGION_CELLS;
+    private static final int CELLS = REGION_CELLS * REGION_CELLS;
+
+    // En-tête : magie, version, taille des régions, graine du monde
+    private static final int HEADER_SIZE = Integer.BYTES * 3 + Long.BYTES;
+
+    // Disposition d'un emplacement (décalages relatifs au début de l'emplacement)
+    private static final int SLOT_PRESENT = 0;
+    private static final int SLOT_BIOME = 1;
+    private static final int SLOT_SEED = 2;
+    private static final int SLOT_CELL_TYPES = SLOT_SEED + Long.BYTES;
+    private static final int SLOT_HORIZONTAL_ROADS = SLOT_CELL_TYPES + CELLS * (Byte.BYTES + Short.BYTES + Integer.BYTES);
+    private static final int SLOT_VERTICAL_ROADS = SLOT_HORIZONTAL_ROADS + REGION_CELLS * (REGION_CELLS + 1);
+    private static final int SLOT_SIZE = SLOT_CELL_TYPES + UrbanGridGenerator.getPackedSize(REGION_CELLS, REGION_CELLS);
+
+    private static final int FILE_SIZE = HEADER_SIZE + GROUP_SIZE * GROUP_SIZE * SLOT_SIZE;
+
+    private static final BiomeType[] BIOME_TYPES = BiomeType.values();
+    private static final CellType[] CELL_TYPES = CellType.values();
+
+    private final Path directory;
+    private final long worldSeed;
+    private final Map<Long, MappedByteBuffer> files = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, MappedByteBuffer> eldest) {
+            if (size() <= MAX_OPEN_FILES) {
+                return false;
+            }
+            // La projection est libérée par le ramasse-miettes une fois le tampon inaccessible
+            if (eldest.getValue() != null) {
+                eldest.getValue().force();
+            }
+            return true;
+        }
+    };
+    private boolean closed = false;
+
+    /**
+     * Constructeur
+     * @param directory Dossier des fichiers de plans de la dimension
+     * @param worldSeed Graine du monde (vérifiée à l'ouverture de chaque fichier)
+     */
+    public UrbanLayoutStore(Path directory, long worldSeed) {
+        this.directory = directory;
+        this.worldSeed = worldSeed;
+    }
+
+    /**
+     * Vérifie si le plan d'une région est enregistré
+     */
+    public boolean contains(int regionX, int regionZ) {
+        MappedByteBuffer file = getFile(regionX, regionZ, false);
+        if (file == null || file.get(slotOffset(regionX, regionZ) + SLOT_PRESENT) == 0) {
+            return false;
+        }
+        // Les données de l'emplacement sont visibles une fois le drapeau de présence lu
+        VarHandle.acquireFence();
+        return true;
+    }
+
+    /**
+     * Relit le plan complet d'une région
+     * @return Le plan, ou null s'il n'est pas enregistré
+     */
+    public UrbanGridGenerator read(int regionX, int regionZ) {
+        MappedByteBuffer file = getFile(regionX, regionZ, false);
+        if (file == null) return null;
+
+        int offset = slotOffset(regionX, regionZ);
+        if (file.get(offset + SLOT_PRESENT) == 0) return null;
+        VarHandle.acquireFence();
+
+        BiomeType biomeType = BIOME_TYPES[file.get(offset + SLOT_BIOME)];
+        long seed = file.getLong(offset + SLOT_SEED);
+        ByteBuffer slot = file.duplicate().position(offset + SLOT_CELL_TYPES);
+        return UrbanGridGenerator.readFrom(slot, biomeType, REGION_CELLS, REGION_CELLS, UrbanLayoutService.CELL_SIZE, seed);
+    }
+
+    /**
+     * Enregistre le plan d'une région
+     * Le drapeau de présence est écrit en dernier pour qu'un emplacement à moitié écrit soit ignoré
+     */
+    public void write(int regionX, int regionZ, UrbanGridGenerator layout) {
+        MappedByteBuffer file = getFile(regionX, regionZ, true);
+        if (file == null) return;
+
+        int offset = slotOffset(regionX, regionZ);
+        ByteBuffer slot = file.duplicate().position(offset + SLOT_CELL_TYPES);
+        layout.writeTo(slot);
+        file.put(offset + SLOT_BIOME, (byte) layout.getBiomeType().ordinal());
+        file.putLong(offset + SLOT_SEED, layout.getSeed());
+        VarHandle.releaseFence();
+        file.put(offset + SLOT_PRESENT, (byte) 1);
+    }
+
+    /**
+     * Lit directement le type d'une cellule d'une région enregistrée
+     * @param cellX Index X de la cellule dans la région
+     * @param cellZ Index Z de la cellule dans la région
+     * @return Le type, ou null si la région n'est pas enregistrée
+     */
+    public CellType readCellType(int regionX, int regionZ, int cellX, int cellZ) {
+        MappedByteBuffer file = getStoredFile(regionX, regionZ);
+        if (file == null) return null;
+        return CELL_TYPES[file.get(slotOffset(regionX, regionZ) + SLOT_CELL_TYPES + cellX * REGION_CELLS + cellZ)];
+    }
+
+    /**
+     * Lit directement le type du segment de route horizontal au nord d'une cellule
+     * @return Le type, ou null si la région n'est pas enregistrée
+     */
+    public RoadType readHorizontalRoadType(int regionX, int regionZ, int cellX, int cellZ) {
+        MappedByteBuffer file = getStoredFile(regionX, regionZ);
+        if (file == null) return null;
+        return UrbanGridGenerator.unpackRoadType(
+                file.get(slotOffset(regionX, regionZ) + SLOT_HORIZONTAL_ROADS + cellX * (REGION_CELLS + 1) + cellZ));
+    }
+
+    /**
+     * Lit directement le type du segment de route vertical à l'ouest d'une cellule
+     * @return Le type, ou null si la région n'est pas enregistrée
+     */
+    public RoadType readVerticalRoadType(int regionX, int regionZ, int cellX, int cellZ) {
+        MappedByteBuffer file = getStoredFile(regionX, regionZ);
+        if (file == null) return null;
+        return UrbanGridGenerator.unpackRoadType(
+                file.get(slotOffset(regionX, regionZ) + SLOT_VERTICAL_ROADS + cellX * REGION_CELLS + cellZ));
+    }
+
+    /**
+     * Force l'écriture des fichiers sur le disque et les libère
+     */
+    public synchronized void close() {
+        for (MappedByteBuffer file : files.values()) {
+            if (file != null) {
+                file.force();
+            }
+        }
+        files.clear();
+        closed = true;
+    }
+
+    public synchronized int getOpenFileCount() {
+        return (int) files.values().stream().filter(file -> file != null).count();
+    }
+
+    /**
+     * Fichier contenant une région, seulement si la région y est enregistrée
+     * @return Le fichier, ou null (fichier absent, région absente ou stockage fermé)
+     */
+    private MappedByteBuffer getStoredFile(int regionX, int regionZ) {
+        MappedByteBuffer file = getFile(regionX, regionZ, false);
+        if (file == null || file.get(slotOffset(regionX, regionZ) + SLOT_PRESENT) == 0) {
+            return null;
+        }
+        VarHandle.acquireFence();
+        return file;
+    }
+
+    /**
+     * Récupère le fichier projeté contenant une région
+     * @param create true pour créer le fichier s'il n'existe pas
+     * @return Le fichier, ou null s'il n'existe pas (ou ne peut pas être ouvert)
+     */
+    private synchronized MappedByteBuffer getFile(int regionX, int regionZ, boolean create) {
+        if (closed) return null;
+
+        int groupX = Math.floorDiv(regionX, GROUP_SIZE);
+        int groupZ = Math.floorDiv(regionZ, GROUP_SIZE);
+        long key = ChunkPos.asLong(groupX, groupZ);
+
+        MappedByteBuffer file = files.get(key);
+        if (file != null || (files.containsKey(key) && !create)) {
+            return file;
+        }
+
+        Path path = directory.resolve("l." + groupX + "." + groupZ + ".wihl");
+        try {
+            if (!Files.exists(path)) {
+                if (!create) {
+                    // Mémoriser l'absence pour ne pas interroger le disque à chaque recherche
+                    files.put(key, null);
+                    return null;
+                }
+                Files.createDirectories(directory);
+            } else if (!isValid(path)) {
+                // Format ou monde différent : mettre le fichier de côté plutôt que de l'écraser
+                Path backup = path.resolveSibling(path.getFileName() + ".bak");
+                WhereIsHumanity.LOGGER.warn("Fichier de plans urbains incompatible {}, déplacé vers {}", path, backup);
+                Files.move(path, backup, StandardCopyOption.REPLACE_EXISTING);
+                if (!create) {
+                    files.put(key, null);
+                    return null;
+                }
+            }
+
+            file = map(path);
+            files.put(key, file);
+            return file;
+        } catch (IOException e) {
+            WhereIsHumanity.LOGGER.error("Impossible d'ouvrir le fichier de plans urbains {}", path, e);
+            files.put(key, null);
+            return null;
+        }
+    }
+
+    /**
+     * Projette un fichier en mémoire, en écrivant l'en-tête s'il est nouveau
+     */
+    private MappedByteBuffer map(Path path) throws IOException {
+        boolean isNew = !Files.exists(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            if (isNew) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(Integer.BYTES, FORMAT_VERSION);
+                buffer.putInt(Integer.BYTES * 2, REGION_CELLS);
+                buffer.putLong(Integer.BYTES * 3, worldSeed);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Vérifie l'en-tête d'un fichier existant
+     */
+    private boolean isValid(Path path) throws IOException {
+        if (Files.size(path) != FILE_SIZE) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            header.flip();
+            return header.getInt() == MAGIC
+                    && header.getInt() == FORMAT_VERSION
+                    && header.getInt() == REGION_CELLS
+                    && header.getLong() == worldSeed;
+        }
+    }
+
+    private static int slotOffset(int regionX, int regionZ) {
+        int slot = Math.floorMod(regionX, GROUP_SIZE) * GROUP_SIZE + Math.floorMod(regionZ, GROUP_SIZE);
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+}
@@ -2,19 +2,27 @@ package com.whereishumanity.worldgen.features;
 
 import com.mojang.serialization.Codec;
 import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.config.ModConfig;
+import com.whereishumanity.worldgen.ChunkSectionWriter;
+import com.whereishumanity.worldgen.HeightmapSnapshot;
 import com.whereishumanity.worldgen.RoadGenerator;
 import com.whereishumanity.worldgen.UrbanGridGenerator;
+import com.whereishumanity.worldgen.UrbanLayoutService;
 import com.whereishumanity.worldgen.UrbanGridGenerator.RoadType;
 import net.minecraft.core.BlockPos;
 import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.Heightmap;
 import net.minecraft.world.level.levelgen.feature.Feature;
 import net.minecraft.world.level.levelgen.feature.FeaturePlaceContext;
 import net.minecraft.world.level.levelgen.feature.configurations.NoneFeatureConfiguration;
 
 /**
  * Feature pour générer des routes en béton noir dans les biomes urbains
+ * Avec les cellules alignées sur les chunks, les routes sont celles du plan de la région et la
+ * feature n'écrit que dans son propre chunk ; sinon, des tronçons aléatoires sont posés.
  */
 public class RoadFeature extends Feature<NoneFeatureConfiguration> {
 
@@ -29,6 +37,10 @@ public class RoadFeature extends Feature<NoneFeatureConfiguration> {
         RandomSource random = context.random();
         ChunkGenerator chunkGenerator = context.chunkGenerator();
         
+        if (ModConfig.COMMON.chunkAlignedCells.get()) {
+            return placeLayoutRoads(level, new ChunkPos(pos));
+        }
+        
         // Déterminer aléatoirement le type de route
         RoadType roadType = getRandomRoadType(random);
         
@@ -43,20 +55,48 @@ public class RoadFeature extends Feature<NoneFeatureConfiguration> {
         
         WhereIsHumanity.LOGGER.debug("Génération d'une route en béton noir à {} ({})", pos, isHorizontal ? "horizontale" : "verticale");
         
+        // Les blocs sont regroupés par section et écrits en une fois à la fin de la feature
+        ChunkSectionWriter writer = new ChunkSectionWriter(level);
+        HeightmapSnapshot heights = new HeightmapSnapshot(level, Heightmap.Types.WORLD_SURFACE_WG);
+        ChunkPos chunkPos = new ChunkPos(pos);
+        
         if (isHorizontal) {
             // Générer une route horizontale
-            RoadGenerator.generateHorizontalRoad(level, level.getChunk(pos).getPos(), pos.getX(), pos.getZ(), roadType, roadState);
+            RoadGenerator.generateHorizontalRoad(level, writer, heights, chunkPos, pos.getX(), pos.getZ(), roadType, roadState);
         } else {
             // Générer une route verticale
-            RoadGenerator.generateVerticalRoad(level, level.getChunk(pos).getPos(), pos.getX(), pos.getZ(), roadType, roadState);
+            RoadGenerator.generateVerticalRoad(level, writer, heights, chunkPos, pos.getX(), pos.getZ(), roadType, roadState);
         }
         
         // Générer une intersection si aléatoire
         if (random.nextFloat() < 0.3f) {
             RoadType crossRoadType = getRandomRoadType(random);
-            RoadGenerator.generateIntersection(level, level.getChunk(pos).getPos(), pos.getX(), pos.getZ(), roadType, crossRoadType, roadState);
+            RoadGenerator.generateIntersection(level, writer, heights, chunkPos, pos.getX(), pos.getZ(), roadType, crossRoadType, roadState);
         }
         
+        writer.flush();
+        return true;
+    }
+    
+    /**
+     * Pose les routes de la cellule du plan urbain correspondant au chunk
+     * Le résultat ne dépend que du plan et du terrain du chunk : placer la feature plusieurs fois
+     * dans le même chunk réécrit les mêmes blocs.
+     * @param level La région en cours de génération
+     * @param chunkPos Le chunk (la cellule)
+     * @return true
+     */
+    private boolean placeLayoutRoads(WorldGenLevel level, ChunkPos chunkPos) {
+        int regionX = Math.floorDiv(chunkPos.x, UrbanLayoutService.REGION_CELLS);
+        int regionZ = Math.floorDiv(chunkPos.z, UrbanLayoutService.REGION_CELLS);
+        UrbanGridGenerator layout = UrbanLayoutService.forLevel(level.getLevel()).getRegion(regionX, regionZ);
+        
+        ChunkSectionWriter writer = new ChunkSectionWriter(level);
+        HeightmapSnapshot heights = new HeightmapSnapshot(level, Heightmap.Types.WORLD_SURFACE_WG);
+        RoadGenerator.generateCellRoads(level, writer, heights, chunkPos, layout,
+                chunkPos.x - regionX * UrbanLayoutService.REGION_CELLS,
+                chunkPos.z - regionZ * UrbanLayoutService.REGION_CELLS);
+        writer.flush();
         return true;
     }
     
@@ -0,0 +1,100 @@
+package com.whereishumanity.worldgen.structures;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.StructureManager;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.Mirror;
+import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.levelgen.structure.StructurePiece;
+import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceSerializationContext;
+import net.minecraft.world.level.levelgen.structure.templatesystem.BlockIgnoreProcessor;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructurePlaceSettings;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+
+/**
+ * Pièce de structure : un bâtiment d'une ville, placé depuis son template
+ * Chaque chunk généré ne reçoit que la partie du bâtiment qui le recouvre ; le reste est
+ * placé lorsque les chunks voisins sont générés.
+ */
+public class CityBuildingPiece extends StructurePiece {
+
+    private final String templateName;
+    private final BlockPos origin;
+    private final Rotation rotation;
+
+    /**
+     * Constructeur utilisé lors de la génération
+     * Le template tourne autour de son origine, puis est décalé pour que le coin nord-ouest de son
+     * emprise tournée tombe exactement sur le coin demandé, quelle que soit la parité de sa taille.
+     * @param templateName Nom du template ("catégorie/nom")
+     * @param template Le template chargé (pour calculer l'emprise)
+     * @param corner Coin nord-ouest de l'emprise du bâtiment une fois tourné
+     * @param rotation Rotation du bâtiment
+     */
+    public CityBuildingPiece(String templateName, StructureTemplate template, BlockPos corner, Rotation rotation) {
+        super(StructureRegistry.CITY_BUILDING.get(), 0,
+                template.getBoundingBox(createSettings(rotation), originFor(template, corner, rotation)));
+        this.templateName = templateName;
+        this.origin = originFor(template, corner, rotation);
+        this.rotation = rotation;
+    }
+
+    /**
+     * Constructeur utilisé au rechargement d'un chunk dont la structure n'est pas terminée
+     */
+    public CityBuildingPiece(StructurePieceSerializationContext context, CompoundTag tag) {
+        super(StructureRegistry.CITY_BUILDING.get(), tag);
+        this.templateName = tag.getString("Template");
+        this.origin = new BlockPos(tag.getInt("TX"), tag.getInt("TY"), tag.getInt("TZ"));
+        this.rotation = Rotation.valueOf(tag.getString("Rot"));
+    }
+
+    @Override
+    protected void addAdditionalSaveData(StructurePieceSerializationContext context, CompoundTag tag) {
+        tag.putString("Template", templateName);
+        tag.putInt("TX", origin.getX());
+        tag.putInt("TY", origin.getY());
+        tag.putInt("TZ", origin.getZ());
+        tag.putString("Rot", rotation.name());
+    }
+
+    @Override
+    public void postProcess(WorldGenLevel level, StructureManager structureManager, ChunkGenerator generator,
+                            RandomSource random, BoundingBox chunkBox, ChunkPos chunkPos, BlockPos referencePos) {
+        StructureTemplate template = CityTemplates.getTemplate(templateName, level.holderLookup(Registries.BLOCK));
+        if (template == null) {
+            // Fichier supprimé ou illisible (signalé une seule fois par le cache des templates)
+            return;
+        }
+
+        // Ne placer que la partie du bâtiment située dans le chunk en cours de génération
+        StructurePlaceSettings settings = createSettings(rotation).setBoundingBox(chunkBox);
+        template.placeInWorld(level, origin, origin, settings, random, 2);
+    }
+
+    /**
+     * Paramètres de placement : rotation autour de l'origine du template
+     */
+    private static StructurePlaceSettings createSettings(Rotation rotation) {
+        return new StructurePlaceSettings()
+                .setRotation(rotation)
+                .setRotationPivot(BlockPos.ZERO)
+                .setMirror(Mirror.NONE)
+                .setIgnoreEntities(false)
+                .addProcessor(BlockIgnoreProcessor.STRUCTURE_BLOCK);
+    }
+
+    /**
+     * Position du template telle que le coin nord-ouest de son emprise tournée soit sur le coin donné
+     */
+    private static BlockPos originFor(StructureTemplate template, BlockPos corner, Rotation rotation) {
+        BoundingBox box = template.getBoundingBox(createSettings(rotation), BlockPos.ZERO);
+        return corner.offset(-box.minX(), 0, -box.minZ());
+    }
+}
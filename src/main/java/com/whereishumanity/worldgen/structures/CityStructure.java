@@ -0,0 +1,178 @@
+package com.whereishumanity.worldgen.structures;
+
+import com.mojang.serialization.Codec;
+import com.whereishumanity.config.ModConfig;
+import com.whereishumanity.worldgen.PositionalRandom;
+import com.whereishumanity.worldgen.RoadGenerator;
+import com.whereishumanity.worldgen.UrbanGridGenerator;
+import com.whereishumanity.worldgen.UrbanLayoutService;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Vec3i;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Rotation;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.structure.BoundingBox;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Structure de ville générée pendant la création du monde
+ * Une cellule du plan urbain correspond exactement à un chunk : le structure set place un départ
+ * potentiel dans chaque chunk, et le départ ne produit un bâtiment que si la cellule correspondante
+ * est l'origine d'une structure du plan. Les bâtiments sont ainsi placés par les threads de
+ * génération de Minecraft, au fil de l'exploration. Cette correspondance n'existe que si les
+ * cellules sont alignées sur les chunks ({@code chunkAlignedCells}) : sinon, aucun bâtiment n'est placé.
+ * La structure est proposée dans tout l'Overworld : c'est le plan, et donc le champ de densité
+ * urbaine, qui rejette les cellules hors des villes.
+ */
+public class CityStructure extends Structure {
+
+    public static final Codec<CityStructure> CODEC = simpleCodec(CityStructure::new);
+
+    private static final int REGION_CELLS = UrbanLayoutService.REGION_CELLS;
+    private static final int CELL_SIZE = UrbanLayoutService.CELL_SIZE;
+
+    public CityStructure(StructureSettings settings) {
+        super(settings);
+    }
+
+    @Override
+    protected Optional<GenerationStub> findGenerationPoint(GenerationContext context) {
+        // Sans alignement, les routes ne suivent pas le plan et les bâtiments les chevaucheraient
+        if (!ModConfig.COMMON.chunkAlignedCells.get()) {
+            return Optional.empty();
+        }
+
+        ChunkPos chunkPos = context.chunkPos();
+        int regionX = Math.floorDiv(chunkPos.x, REGION_CELLS);
+        int regionZ = Math.floorDiv(chunkPos.z, REGION_CELLS);
+        int cellX = chunkPos.x - regionX * REGION_CELLS;
+        int cellZ = chunkPos.z - regionZ * REGION_CELLS;
+
+        UrbanGridGenerator layout = UrbanLayoutService.forGeneration(context.randomState(), context.seed()).getRegion(regionX, regionZ);
+        // Le champ de densité décide où sont les villes : les cellules WILDERNESS n'ont aucune structure
+        StructureType structureType = layout.getStructureType(cellX, cellZ);
+        if (structureType == null) {
+            return Optional.empty();
+        }
+
+        // Les cellules secondaires d'une structure multi-blocs sont couvertes par la cellule d'origine
+        if (layout.isPartOfMultiBlock(cellX, cellZ)
+                && (layout.getMultiBlockOriginX(cellX, cellZ) != cellX || layout.getMultiBlockOriginZ(cellX, cellZ) != cellZ)) {
+            return Optional.empty();
+        }
+
+        List<String> templateNames = CityTemplates.getTemplateNames(structureType);
+        if (templateNames.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Choix du template et de la rotation, dérivés de la position de la cellule
+        long hash = PositionalRandom.hash(context.seed(), PositionalRandom.PHASE_CITY_TEMPLATES, chunkPos.x, chunkPos.z);
+        String templateName = templateNames.get((int) Math.floorMod(hash, (long) templateNames.size()));
+        StructureTemplate template = CityTemplates.getTemplate(templateName, context.registryAccess().lookupOrThrow(Registries.BLOCK));
+        if (template == null) {
+            return Optional.empty();
+        }
+
+        // Le bâtiment commence après les routes (et leurs bordures) qui bordent ses cellules à l'ouest
+        // et au nord, et s'arrête avant les bordures des routes de l'est et du sud, posées sur la
+        // dernière colonne et la dernière rangée de ses chunks
+        int endX = Math.min(cellX + structureType.getGridWidth(CELL_SIZE), REGION_CELLS);
+        int endZ = Math.min(cellZ + structureType.getGridLength(CELL_SIZE), REGION_CELLS);
+        int westMargin = 0;
+        int eastMargin = 0;
+        for (int z = cellZ; z < endZ; z++) {
+            westMargin = Math.max(westMargin, getRoadMargin(layout.getVerticalRoadType(cellX, z), layout.getVerticalRoadState(cellX, z)));
+            if (RoadGenerator.hasCurbs(layout.getVerticalRoadType(endX, z), layout.getVerticalRoadState(endX, z))) {
+                eastMargin = 1;
+            }
+        }
+        int northMargin = 0;
+        int southMargin = 0;
+        for (int x = cellX; x < endX; x++) {
+            northMargin = Math.max(northMargin, getRoadMargin(layout.getHorizontalRoadType(x, cellZ), layout.getHorizontalRoadState(x, cellZ)));
+            if (RoadGenerator.hasCurbs(layout.getHorizontalRoadType(x, endZ), layout.getHorizontalRoadState(x, endZ))) {
+                southMargin = 1;
+            }
+        }
+        int availableX = (endX - cellX) * CELL_SIZE - westMargin - eastMargin;
+        int availableZ = (endZ - cellZ) * CELL_SIZE - northMargin - southMargin;
+
+        // Première rotation, à partir de celle tirée, dont l'emprise tient dans la place disponible
+        Rotation rotation = fitRotation(template, (int) (hash >>> 62), availableX, availableZ);
+        if (rotation == null) {
+            return Optional.empty();
+        }
+
+        int x = chunkPos.getMinBlockX() + westMargin;
+        int z = chunkPos.getMinBlockZ() + northMargin;
+        Vec3i size = template.getSize(rotation);
+        int y = getBaseHeight(context, x, z, size);
+        BlockPos corner = new BlockPos(x, y, z);
+
+        return Optional.of(new GenerationStub(corner, builder ->
+                builder.addPiece(new CityBuildingPiece(templateName, template, corner, rotation))));
+    }
+
+    /**
+     * Place prise sur une cellule par la route de son bord ouest ou nord : la voie, plus sa bordure
+     * de trottoir intérieure
+     */
+    private static int getRoadMargin(UrbanGridGenerator.RoadType roadType, UrbanGridGenerator.RoadType roadState) {
+        return RoadGenerator.getRoadWidth(roadType) + (RoadGenerator.hasCurbs(roadType, roadState) ? 1 : 0);
+    }
+
+    /**
+     * Cherche une rotation dont l'emprise tient dans la place disponible
+     * @param template Le template
+     * @param first Index de la rotation essayée en premier
+     * @param availableX Place disponible en X (en blocs)
+     * @param availableZ Place disponible en Z (en blocs)
+     * @return La rotation, ou null si le template ne tient dans aucune orientation
+     */
+    private static Rotation fitRotation(StructureTemplate template, int first, int availableX, int availableZ) {
+        Rotation[] rotations = Rotation.values();
+        for (int i = 0; i < rotations.length; i++) {
+            Rotation rotation = rotations[(first + i) % rotations.length];
+            Vec3i size = template.getSize(rotation);
+            if (size.getX() <= availableX && size.getZ() <= availableZ) {
+                return rotation;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hauteur de base du bâtiment : médiane de la surface aux coins et au centre de son emprise
+     * (le plancher remplace le bloc de surface, comme pour les commandes de placement)
+     */
+    private static int getBaseHeight(GenerationContext context, int x, int z, Vec3i size) {
+        BoundingBox box = BoundingBox.fromCorners(new BlockPos(x, 0, z),
+                new BlockPos(x + size.getX() - 1, 0, z + size.getZ() - 1));
+        int[] heights = {
+                getSurface(context, box.minX(), box.minZ()),
+                getSurface(context, box.maxX(), box.minZ()),
+                getSurface(context, box.minX(), box.maxZ()),
+                getSurface(context, box.maxX(), box.maxZ()),
+                getSurface(context, box.getCenter().getX(), box.getCenter().getZ())
+        };
+        Arrays.sort(heights);
+        return heights[heights.length / 2] - 1;
+    }
+
+    private static int getSurface(GenerationContext context, int x, int z) {
+        return context.chunkGenerator().getFirstOccupiedHeight(x, z, Heightmap.Types.WORLD_SURFACE_WG,
+                context.heightAccessor(), context.randomState()) + 1;
+    }
+
+    @Override
+    public net.minecraft.world.level.levelgen.structure.StructureType<?> type() {
+        return StructureRegistry.CITY.get();
+    }
+}
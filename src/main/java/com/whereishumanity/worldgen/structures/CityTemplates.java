@@ -0,0 +1,77 @@
+package com.whereishumanity.worldgen.structures;
+
+import com.whereishumanity.WhereIsHumanity;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Templates des bâtiments des villes générées
+ * Les templates sont les fichiers NBT enregistrés par {@code /wih structure save}, dans
+ * config/whereishumanity/structures/&lt;catégorie&gt;/&lt;type&gt;_N.nbt. Ils sont lus depuis les threads de
+ * génération du monde : les listes sont conservées dans une map concurrente, et les templates sont lus
+ * au travers du {@link TemplateCache} partagé.
+ */
+public class CityTemplates {
+
+    private static final Path STRUCTURES_DIR = Paths.get("config", WhereIsHumanity.MOD_ID, "structures");
+
+    // Noms des templates disponibles par type (triés pour un choix déterministe)
+    private static final Map<StructureType, List<String>> NAMES = new ConcurrentHashMap<>();
+
+    /**
+     * Liste les templates disponibles pour un type de structure
+     * @param structureType Le type de structure
+     * @return Les noms des templates ("catégorie/nom"), triés
+     */
+    public static List<String> getTemplateNames(StructureType structureType) {
+        return NAMES.computeIfAbsent(structureType, CityTemplates::listTemplates);
+    }
+
+    /**
+     * Récupère un template (lu une seule fois tant que son fichier ne change pas)
+     * @param name Nom du template ("catégorie/nom")
+     * @param blocks Registre des blocs du monde
+     * @return Le template, ou null s'il ne peut pas être lu
+     */
+    public static StructureTemplate getTemplate(String name, HolderGetter<Block> blocks) {
+        return TemplateCache.get(STRUCTURES_DIR.resolve(name + ".nbt"), blocks);
+    }
+
+    /**
+     * Oublie les listes de templates (après l'ajout ou la suppression de fichiers)
+     */
+    public static void clear() {
+        NAMES.clear();
+    }
+
+    private static List<String> listTemplates(StructureType structureType) {
+        String category = structureType.getCategory().toLowerCase();
+        Path directory = STRUCTURES_DIR.resolve(category);
+        if (!Files.exists(directory)) {
+            return Collections.emptyList();
+        }
+
+        String prefix = structureType.name().toLowerCase() + "_";
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString())
+                    .filter(filename -> filename.startsWith(prefix) && filename.endsWith(".nbt"))
+                    .map(filename -> category + "/" + filename.substring(0, filename.length() - ".nbt".length()))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            WhereIsHumanity.LOGGER.error("Impossible de lister les templates de ville {}", directory, e);
+            return Collections.emptyList();
+        }
+    }
+}
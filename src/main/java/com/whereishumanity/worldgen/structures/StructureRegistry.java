@@ -0,0 +1,40 @@
+package com.whereishumanity.worldgen.structures;
+
+import com.whereishumanity.WhereIsHumanity;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.level.levelgen.structure.pieces.StructurePieceType;
+import net.minecraftforge.eventbus.api.IEventBus;
+import net.minecraftforge.registries.DeferredRegister;
+import net.minecraftforge.registries.RegistryObject;
+
+/**
+ * Registre des types de structures et de pièces de structures de génération du monde
+ */
+public class StructureRegistry {
+
+    // DeferredRegister pour les types de structures
+    public static final DeferredRegister<net.minecraft.world.level.levelgen.structure.StructureType<?>> STRUCTURE_TYPES =
+            DeferredRegister.create(Registries.STRUCTURE_TYPE, WhereIsHumanity.MOD_ID);
+
+    // DeferredRegister pour les types de pièces
+    public static final DeferredRegister<StructurePieceType> STRUCTURE_PIECES =
+            DeferredRegister.create(Registries.STRUCTURE_PIECE, WhereIsHumanity.MOD_ID);
+
+    // Structure de ville pilotée par les plans urbains
+    public static final RegistryObject<net.minecraft.world.level.levelgen.structure.StructureType<CityStructure>> CITY =
+            STRUCTURE_TYPES.register("city", () -> () -> CityStructure.CODEC);
+
+    // Bâtiment d'une ville, placé depuis son template
+    public static final RegistryObject<StructurePieceType> CITY_BUILDING =
+            STRUCTURE_PIECES.register("city_building", () -> CityBuildingPiece::new);
+
+    /**
+     * Enregistre les structures sur l'event bus du mod
+     * @param eventBus L'event bus du mod
+     */
+    public static void register(IEventBus eventBus) {
+        STRUCTURE_TYPES.register(eventBus);
+        STRUCTURE_PIECES.register(eventBus);
+        WhereIsHumanity.LOGGER.info("StructureRegistry: Enregistrement des structures de génération");
+    }
+}
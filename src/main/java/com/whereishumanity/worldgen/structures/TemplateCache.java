@@ -0,0 +1,236 @@
+package com.whereishumanity.worldgen.structures;
+
+import com.whereishumanity.WhereIsHumanity;
+import com.whereishumanity.config.ModConfig;
+import com.whereishumanity.worldgen.LayoutExecutor;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.Tag;
+import net.minecraft.util.datafix.DataFixTypes;
+import net.minecraft.util.datafix.DataFixers;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.levelgen.structure.templatesystem.StructureTemplate;
+import net.minecraftforge.event.server.ServerStoppedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache partagé des templates de structures lus depuis le disque
+ * Les templates sont indexés par chemin ; chaque entrée retient la date de modification et la taille
+ * du fichier lu, si bien qu'un fichier réenregistré est relu à sa demande suivante et qu'un fichier
+ * inchangé n'est lu qu'une seule fois. Un fichier illisible est lui aussi retenu (sans template) :
+ * il n'est relu et signalé à nouveau qu'une fois modifié. Le cache est un LRU borné par une
+ * estimation de la mémoire occupée ({@code templateCacheSizeMb}).
+ *
+ * Le cache est consulté par les commandes (thread serveur) et par la génération du monde (threads
+ * de génération) : ses accès sont synchronisés, et la lecture d'un fichier n'a lieu qu'une fois
+ * même si plusieurs threads le demandent en même temps.
+ */
+@Mod.EventBusSubscriber(modid = WhereIsHumanity.MOD_ID)
+public class TemplateCache {
+
+    // Version de données supposée pour un fichier qui n'en indique pas (comme le jeu)
+    private static final int DEFAULT_DATA_VERSION = 500;
+
+    // Estimation de la mémoire occupée par un template chargé (en octets)
+    private static final long BASE_BYTES = 1024;
+    private static final long BYTES_PER_BLOCK = 56;
+    private static final long BYTES_PER_ENTITY = 512;
+
+    private static final Map<Path, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Verrous de chargement, un par fichier
+    private static final Map<Path, Object> LOAD_LOCKS = new ConcurrentHashMap<>();
+
+    private static long cachedBytes = 0;
+    private static long hits = 0;
+    private static long misses = 0;
+    private static long evictions = 0;
+
+    /**
+     * Template lu (null si le fichier est illisible) et la version du fichier dont il provient
+     */
+    private record Entry(StructureTemplate template, long modifiedTime, long fileSize, long bytes) {
+    }
+
+    /**
+     * Récupère un template, en ne relisant le fichier que s'il a changé depuis la dernière lecture
+     * @param path Chemin du fichier NBT
+     * @param blocks Registre des blocs du monde
+     * @return Le template, ou null si le fichier ne peut pas être lu
+     */
+    public static StructureTemplate get(Path path, HolderGetter<Block> blocks) {
+        Path key = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            remove(key);
+            return null;
+        } catch (IOException e) {
+            WhereIsHumanity.LOGGER.error("Impossible de lire le template {}", key, e);
+            return null;
+        }
+        long modifiedTime = attributes.lastModifiedTime().toMillis();
+        long fileSize = attributes.size();
+
+        Entry cached = lookup(key, modifiedTime, fileSize, true);
+        if (cached != null) {
+            return cached.template();
+        }
+
+        synchronized (LOAD_LOCKS.computeIfAbsent(key, k -> new Object())) {
+            // Un autre thread a pu charger le fichier pendant l'attente du verrou
+            cached = lookup(key, modifiedTime, fileSize, false);
+            if (cached != null) {
+                return cached.template();
+            }
+
+            StructureTemplate template;
+            long bytes;
+            try {
+                CompoundTag nbt = NbtIo.readCompressed(key.toFile());
+                
+                // Mettre à jour un template enregistré par une version antérieure du jeu, comme
+                // StructureTemplateManager.readStructure
+                int dataVersion = NbtUtils.getDataVersion(nbt, DEFAULT_DATA_VERSION);
+                nbt = DataFixTypes.STRUCTURE.updateToCurrentVersion(DataFixers.getDataFixer(), nbt, dataVersion);
+                
+                template = new StructureTemplate();
+                template.load(blocks, nbt);
+                bytes = estimateBytes(nbt);
+            } catch (IOException e) {
+                WhereIsHumanity.LOGGER.error("Impossible de lire le template {}", key, e);
+                template = null;
+                bytes = 0;
+            }
+
+            store(key, new Entry(template, modifiedTime, fileSize, bytes));
+            return template;
+        }
+    }
+
+    /**
+     * Lit un template en arrière-plan, sur le pool de génération
+     * Le décodage (décompression, lecture du NBT, résolution de la palette) a lieu hors du thread
+     * serveur ; le template est ensuite disponible dans le cache.
+     * @param path Chemin du fichier NBT
+     * @param blocks Registre des blocs du monde
+     * @return Le template à venir (null si le fichier ne peut pas être lu)
+     */
+    public static CompletableFuture<StructureTemplate> prefetch(Path path, HolderGetter<Block> blocks) {
+        return CompletableFuture.supplyAsync(() -> get(path, blocks), LayoutExecutor.getPool());
+    }
+
+    /**
+     * Vide le cache (les statistiques sont conservées)
+     */
+    public static synchronized void clear() {
+        ENTRIES.clear();
+        cachedBytes = 0;
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        synchronized (TemplateCache.class) {
+            clear();
+            hits = 0;
+            misses = 0;
+            evictions = 0;
+        }
+    }
+
+    /**
+     * Cherche une entrée à jour pour un fichier
+     * @param countStats true pour compter le succès ou l'échec
+     */
+    private static synchronized Entry lookup(Path key, long modifiedTime, long fileSize, boolean countStats) {
+        Entry entry = ENTRIES.get(key);
+        if (entry != null && entry.modifiedTime() == modifiedTime && entry.fileSize() == fileSize) {
+            if (countStats) {
+                hits++;
+            }
+            return entry;
+        }
+        if (countStats) {
+            misses++;
+        }
+        return null;
+    }
+
+    /**
+     * Ajoute une entrée et évince les moins récemment utilisées au-delà de la taille maximale
+     */
+    private static synchronized void store(Path key, Entry entry) {
+        Entry previous = ENTRIES.put(key, entry);
+        if (previous != null) {
+            cachedBytes -= previous.bytes();
+        }
+        cachedBytes += entry.bytes();
+
+        long maxBytes = getMaxBytes();
+        Iterator<Map.Entry<Path, Entry>> iterator = ENTRIES.entrySet().iterator();
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Path, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(key)) {
+                continue; // Toujours garder le template qui vient d'être lu
+            }
+            cachedBytes -= eldest.getValue().bytes();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static synchronized void remove(Path key) {
+        Entry entry = ENTRIES.remove(key);
+        if (entry != null) {
+            cachedBytes -= entry.bytes();
+        }
+    }
+
+    /**
+     * Estime la mémoire occupée par un template à partir de son NBT
+     */
+    private static long estimateBytes(CompoundTag nbt) {
+        return BASE_BYTES
+                + nbt.getList("blocks", Tag.TAG_COMPOUND).size() * BYTES_PER_BLOCK
+                + nbt.getList("entities", Tag.TAG_COMPOUND).size() * BYTES_PER_ENTITY;
+    }
+
+    public static long getMaxBytes() {
+        return ModConfig.COMMON.templateCacheSizeMb.get() * 1024L * 1024L;
+    }
+
+    public static synchronized int getCachedCount() {
+        return ENTRIES.size();
+    }
+
+    public static synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized long getEvictions() {
+        return evictions;
+    }
+}